@@ -0,0 +1,114 @@
+package com.inventory.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import com.inventory.model.Role;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Single authentication check for every {@code /api} request, replacing the per-controller session checks.
+ * <p>
+ * In the default {@code token} mode the caller is taken from a {@code Bearer} access token; in {@code session}
+ * mode from the servlet session. Either way the resolved {@link AuthUser} is exposed to controllers as the
+ * {@value #USER} request attribute, and unauthenticated requests get a 401 before reaching them.
+ * <p>
+ * Actuator endpoints other than health are for admins only, or for a metrics scraper presenting the static
+ * {@code inventory.auth.metrics-token} as its bearer token.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class AuthFilter extends OncePerRequestFilter {
+    public static final String USER = "USER";
+
+    private static final Set<String> PUBLIC = Set.of(
+            "/api/auth/login", "/api/auth/register", "/api/auth/refresh", "/api/auth/logout");
+
+    private final TokenService tokenService;
+    private final boolean sessionMode;
+    private final byte[] metricsToken;
+
+    public AuthFilter(TokenService tokenService, @Value("${inventory.auth.mode:token}") String mode,
+                      @Value("${inventory.auth.metrics-token:}") String metricsToken) {
+        this.tokenService = tokenService;
+        this.sessionMode = "session".equalsIgnoreCase(mode);
+        this.metricsToken = metricsToken.isBlank() ? null : metricsToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean sessionMode() {
+        return sessionMode;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        if ("OPTIONS".equals(request.getMethod())) return true;
+        if (isActuator(path)) return path.equals("/actuator/health") || path.startsWith("/actuator/health/");
+        return !path.startsWith("/api/") || PUBLIC.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean actuator = isActuator(path(request));
+        if (actuator && presentsMetricsToken(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Optional<AuthUser> user = caller(request);
+        if (user.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        if (actuator && user.get().role() != Role.ADMIN) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        request.setAttribute(USER, user.get());
+        chain.doFilter(request, response);
+    }
+
+    // The signed-in caller, if any; for public endpoints, which this filter lets through without one
+    public Optional<AuthUser> caller(HttpServletRequest request) {
+        return sessionMode ? fromSession(request) : fromToken(request);
+    }
+
+    private boolean presentsMetricsToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (metricsToken == null || header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) return false;
+        return MessageDigest.isEqual(metricsToken, header.substring(7).trim().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isActuator(String path) {
+        return path.equals("/actuator") || path.startsWith("/actuator/");
+    }
+
+    // Decoded, without ;parameters and with // collapsed, as MVC resolves the path it maps
+    private static String path(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    private Optional<AuthUser> fromToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) return Optional.empty();
+        return tokenService.verifyAccess(header.substring(7).trim());
+    }
+
+    private static Optional<AuthUser> fromSession(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null && session.getAttribute(USER) instanceof AuthUser u ? Optional.of(u) : Optional.empty();
+    }
+}
@@ -0,0 +1,13 @@
+package com.inventory.auth;
+
+import com.inventory.model.Role;
+import com.inventory.model.User;
+
+/**
+ * The authenticated caller as carried by an access token or session; never the JPA entity.
+ */
+public record AuthUser(Long id, String name, String email, Role role) {
+    public static AuthUser of(User u) {
+        return new AuthUser(u.getId(), u.getName(), u.getEmail(), u.getRole());
+    }
+}
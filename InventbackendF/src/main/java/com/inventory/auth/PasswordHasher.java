@@ -0,0 +1,96 @@
+package com.inventory.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password hashing with a bounded cache of recently verified credentials.
+ * <p>
+ * A successful check remembers an HMAC of the password under a per-process random key, keyed by the stored
+ * hash, so repeat logins (e.g. everyone signing in again after a deploy) cost one HMAC instead of a full
+ * BCrypt round. Failed checks are never cached, and a password change produces a new stored hash, so stale
+ * entries can only miss. Stored values that are not BCrypt hashes are treated as legacy plaintext and
+ * reported by {@link #needsRehash(String)}, as are hashes below the configured work factor.
+ */
+@Component
+public class PasswordHasher {
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[abxy]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final Cache<String, byte[]> verified;
+    private final ThreadLocal<Mac> mac;
+    // Compared against when the user does not exist, so unknown emails take as long as wrong passwords
+    private final String dummyHash;
+
+    @Autowired
+    public PasswordHasher(@Value("${inventory.auth.bcrypt-strength:10}") int strength,
+                          @Value("${inventory.auth.verified-cache.max-entries:10000}") long maxEntries,
+                          @Value("${inventory.auth.verified-cache.ttl:PT10M}") Duration ttl) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        // max-entries=0 turns the cache off, so every check pays the full BCrypt cost
+        this.verified = maxEntries > 0
+                ? Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).recordStats().build()
+                : null;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec spec = new SecretKeySpec(key, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance("HmacSHA256");
+                m.init(spec);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        this.dummyHash = encoder.encode("dummy-password");
+    }
+
+    public String hash(String raw) {
+        return encoder.encode(raw);
+    }
+
+    public boolean matches(String raw, String stored) {
+        if (raw == null || stored == null) return false;
+        if (!isBcrypt(stored)) {
+            return MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        if (verified == null) return encoder.matches(raw, stored);
+        byte[] digest = mac.get().doFinal(raw.getBytes(StandardCharsets.UTF_8));
+        byte[] cached = verified.getIfPresent(stored);
+        if (cached != null && MessageDigest.isEqual(cached, digest)) return true;
+        if (!encoder.matches(raw, stored)) return false;
+        verified.put(stored, digest);
+        return true;
+    }
+
+    // Burns the same BCrypt work as a real check, for lookups that found no user
+    public void matchDummy(String raw) {
+        encoder.matches(raw != null ? raw : "", dummyHash);
+    }
+
+    public boolean needsRehash(String stored) {
+        return !isBcrypt(stored) || encoder.upgradeEncoding(stored);
+    }
+
+    long verifiedCacheHits() {
+        return verified != null ? verified.stats().hitCount() : 0;
+    }
+
+    private static boolean isBcrypt(String stored) {
+        return BCRYPT.matcher(stored).matches();
+    }
+}
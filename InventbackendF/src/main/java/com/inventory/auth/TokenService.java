@@ -0,0 +1,146 @@
+package com.inventory.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.model.Role;
+import com.inventory.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed tokens of the form {@code base64url(claims).base64url(signature)}.
+ * <p>
+ * Access tokens are short-lived and carry everything a request needs, so verifying one is a signature check
+ * and an expiry check with no database or session lookup. Refresh tokens are long-lived and carry the user's
+ * token version, which logout bumps to revoke every refresh token issued before it.
+ * <p>
+ * Every instance behind a load balancer must share {@code inventory.auth.token-secret}, so in {@code token} mode
+ * startup fails without one. In {@code session} mode no tokens are relied on and a blank secret means a random
+ * per-process key.
+ */
+@Component
+public class TokenService {
+    static final String ACCESS = "access";
+    static final String REFRESH = "refresh";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    record Claims(String typ, long sub, String name, String email, Role role, int ver, long exp) {
+    }
+
+    public record RefreshClaims(Long userId, int version) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public TokenService(ObjectMapper objectMapper,
+                        @Value("${inventory.auth.token-secret:}") String secret,
+                        @Value("${inventory.auth.mode:token}") String mode,
+                        @Value("${inventory.auth.access-token-ttl:PT15M}") Duration accessTtl,
+                        @Value("${inventory.auth.refresh-token-ttl:P7D}") Duration refreshTtl) {
+        this(objectMapper, requireSecret(secret, mode), accessTtl, refreshTtl, Clock.systemUTC());
+    }
+
+    // A random key would make every other instance, and this one after a restart, reject the tokens it issues
+    static String requireSecret(String secret, String mode) {
+        if ((secret == null || secret.isBlank()) && !"session".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException("inventory.auth.token-secret (INVENTORY_AUTH_TOKEN_SECRET) must be set in token "
+                    + "auth mode, to the same value on every instance");
+        }
+        return secret;
+    }
+
+    TokenService(ObjectMapper objectMapper, String secret, Duration accessTtl, Duration refreshTtl, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        byte[] key = secret == null || secret.isBlank() ? randomKey() : secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < 32) throw new IllegalStateException("inventory.auth.token-secret must be at least 32 bytes");
+        SecretKeySpec spec = new SecretKeySpec(key, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance("HmacSHA256");
+                m.init(spec);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    public Duration accessTtl() {
+        return accessTtl;
+    }
+
+    public String issueAccess(AuthUser user) {
+        long exp = clock.millis() + accessTtl.toMillis();
+        return sign(new Claims(ACCESS, user.id(), user.name(), user.email(), user.role(), 0, exp));
+    }
+
+    public String issueRefresh(User user) {
+        long exp = clock.millis() + refreshTtl.toMillis();
+        return sign(new Claims(REFRESH, user.getId(), null, null, null, user.getTokenVersion(), exp));
+    }
+
+    public Optional<AuthUser> verifyAccess(String token) {
+        return verify(token, ACCESS).map(c -> new AuthUser(c.sub(), c.name(), c.email(), c.role()));
+    }
+
+    public Optional<RefreshClaims> verifyRefresh(String token) {
+        return verify(token, REFRESH).map(c -> new RefreshClaims(c.sub(), c.ver()));
+    }
+
+    private String sign(Claims claims) {
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return payload + "." + ENCODER.encodeToString(mac(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Optional<Claims> verify(String token, String type) {
+        if (token == null) return Optional.empty();
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) return Optional.empty();
+        String payload = token.substring(0, dot);
+        try {
+            // Constant-time comparison so the signature cannot be guessed byte by byte
+            if (!MessageDigest.isEqual(mac(payload), DECODER.decode(token.substring(dot + 1)))) return Optional.empty();
+            Claims claims = objectMapper.readValue(DECODER.decode(payload), Claims.class);
+            if (!type.equals(claims.typ()) || claims.exp() <= clock.millis()) return Optional.empty();
+            return Optional.of(claims);
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] mac(String payload) {
+        return mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
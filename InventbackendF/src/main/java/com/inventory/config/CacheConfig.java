@@ -0,0 +1,14 @@
+package com.inventory.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Catalogue read-through caches. Sizes and TTLs come from {@code spring.cache.caffeine.spec}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String SUPPLIERS = "suppliers";
+}
@@ -0,0 +1,113 @@
+package com.inventory.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of {@code /api} requests in flight and sheds the excess with 503 + {@code Retry-After}.
+ * <p>
+ * When the database slows down, requests otherwise pile up behind the connection pool until every thread (or,
+ * with virtual threads, memory) is exhausted and latency collapses for everyone. A request waits at most
+ * {@code acquire-timeout} for a permit; the permit is held until the response completes, including async
+ * streaming exports. Long-lived event streams ({@code /stream} paths) are exempt: they hold no database connection.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(@Value("${inventory.web.concurrency.max-in-flight:200}") int maxInFlight,
+                                  @Value("${inventory.web.concurrency.acquire-timeout:PT0.1S}") Duration acquireTimeout,
+                                  MeterRegistry registry) {
+        this.permits = new Semaphore(maxInFlight, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.rejected = Counter.builder("inventory.web.concurrency.rejected")
+                .description("Requests shed with 503 because the in-flight limit was reached")
+                .register(registry);
+        Gauge.builder("inventory.web.concurrency.in_flight", permits, p -> maxInFlight - p.availablePermits())
+                .description("Requests currently holding a concurrency permit")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith(request.getContextPath() + "/api/") || uri.endsWith("/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) permits.release();
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Async responses (streaming exports) keep their permit until the container completes them
+            if (request.isAsyncStarted()) request.getAsyncContext().addListener(new ReleaseOnComplete(release));
+            else release.run();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.inventory.config;
 
+import com.inventory.service.IdempotencyConflictException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -8,6 +11,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -25,6 +29,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(body);
     }
 
+    // Work queues that are full; the client should back off and retry
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> handleRejected(RejectedExecutionException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(body);
+    }
+
+    // The client sent a version that another write has since replaced
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleConflict(OptimisticLockingFailureException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("message", "Modified by another request, reload and retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    // A retry that arrived while its original was running, or a key reused for another request
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<?> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        return ex.isInProgress()
+                ? ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").body(body)
+                : ResponseEntity.unprocessableEntity().body(body);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntime(RuntimeException ex) {
         Map<String, String> body = new HashMap<>();
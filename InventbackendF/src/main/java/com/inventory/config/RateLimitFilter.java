@@ -0,0 +1,154 @@
+package com.inventory.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.auth.AuthFilter;
+import com.inventory.auth.AuthUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user rate limits on expensive endpoints, answering requests over the limit with 429 + {@code Retry-After}.
+ * <p>
+ * Routes (path prefixes, longest first) map to an endpoint class and a cost in tokens. Each user, or client
+ * address for requests without one, has a token bucket per class holding up to {@code capacity} tokens and
+ * refilled at a steady rate. A bucket is a single {@link AtomicLong}: the time at which it will be full again,
+ * advanced by compare-and-set, so concurrent requests never block each other. Buckets idle long enough to have
+ * refilled are dropped, which loses nothing, and at most {@code max-buckets} are kept. Runs after
+ * {@link AuthFilter} so the user is known.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final boolean enabled;
+    private final List<Route> routes;
+    private final Cache<Key, AtomicLong> buckets;
+    private final Clock clock;
+
+    @Autowired
+    public RateLimitFilter(@Value("${inventory.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${inventory.rate-limit.classes:}") List<String> classes,
+                           @Value("${inventory.rate-limit.routes:}") List<String> routes,
+                           @Value("${inventory.rate-limit.max-buckets:100000}") long maxBuckets,
+                           MeterRegistry registry) {
+        this(enabled, classes, routes, maxBuckets, registry, Clock.systemUTC());
+    }
+
+    RateLimitFilter(boolean enabled, List<String> classes, List<String> routes, long maxBuckets, MeterRegistry registry,
+                    Clock clock) {
+        if (maxBuckets < 1) throw new IllegalStateException("inventory.rate-limit.max-buckets must be positive");
+        Map<String, Limit> limits = new HashMap<>();
+        for (String spec : classes) {
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalStateException("inventory.rate-limit.classes entries must be name:capacity:per-second, got " + spec);
+            }
+            int capacity = Integer.parseInt(parts[1].trim());
+            double perSecond = Double.parseDouble(parts[2].trim());
+            if (capacity < 1 || perSecond <= 0) {
+                throw new IllegalStateException("inventory.rate-limit.classes capacity and per-second must be positive, got " + spec);
+            }
+            String name = parts[0].trim();
+            Counter rejected = Counter.builder("inventory.web.ratelimit.rejected")
+                    .description("Requests answered with 429 because the user's bucket for the endpoint class was empty")
+                    .tag("class", name)
+                    .register(registry);
+            limits.put(name, new Limit(name, capacity, (long) Math.ceil(1e9 / perSecond), rejected));
+        }
+        this.routes = routes.stream().map(spec -> route(spec.trim(), limits))
+                .sorted(Comparator.comparingInt((Route r) -> r.prefix.length()).reversed())
+                .toList();
+        // The longest a bucket can take to refill from empty; any bucket idle that long is full
+        long refillNanos = limits.values().stream().mapToLong(l -> l.nanosPerToken * l.capacity).max().orElse(1);
+        this.buckets = Caffeine.newBuilder().maximumSize(maxBuckets).expireAfterAccess(Duration.ofNanos(refillNanos)).build();
+        this.enabled = enabled;
+        this.clock = clock;
+    }
+
+    private static Route route(String spec, Map<String, Limit> limits) {
+        int eq = spec.lastIndexOf('=');
+        if (eq <= 0) throw new IllegalStateException("inventory.rate-limit.routes entries must be path=class[*cost], got " + spec);
+        String target = spec.substring(eq + 1).trim();
+        int star = target.indexOf('*');
+        Limit limit = limits.get(star < 0 ? target : target.substring(0, star).trim());
+        int cost = star < 0 ? 1 : Integer.parseInt(target.substring(star + 1).trim());
+        if (limit == null) throw new IllegalStateException("inventory.rate-limit.routes refers to an unknown class: " + spec);
+        if (cost < 1 || cost > limit.capacity) {
+            throw new IllegalStateException("inventory.rate-limit.routes cost must be between 1 and the class capacity: " + spec);
+        }
+        return new Route(spec.substring(0, eq).trim(), limit, cost);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Decoded, without ;parameters and with // collapsed, as MVC resolves the path it maps
+        Route route = match(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        if (route != null) {
+            Object client = request.getAttribute(AuthFilter.USER) instanceof AuthUser u ? (Object) u.id() : request.getRemoteAddr();
+            AtomicLong bucket = buckets.get(new Key(client, route.limit.name), k -> new AtomicLong());
+            long waitNanos = take(bucket, route.limit, route.cost, clock.millis() * 1_000_000);
+            if (waitNanos > 0) {
+                route.limit.rejected.increment();
+                response.setStatus(429);
+                response.setHeader("Retry-After", String.valueOf(Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000)));
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private Route match(String path) {
+        for (Route r : routes) {
+            if (path.startsWith(r.prefix) && (path.length() == r.prefix.length() || path.charAt(r.prefix.length()) == '/')) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    // Takes cost tokens; returns 0, or how long until they would be available if there are too few
+    private static long take(AtomicLong bucket, Limit limit, int cost, long now) {
+        long burst = limit.nanosPerToken * limit.capacity;
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + limit.nanosPerToken * cost;
+            if (next - now > burst) return next - now - burst;
+            if (bucket.compareAndSet(full, next)) return 0;
+        }
+    }
+
+    private record Limit(String name, int capacity, long nanosPerToken, Counter rejected) {
+    }
+
+    private record Route(String prefix, Limit limit, int cost) {
+    }
+
+    private record Key(Object client, String limit) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.inventory.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Beans that start with the context even when {@code spring.main.lazy-initialization} is on (the prod profile).
+ * Everything else, mostly controllers and the services only they use, is created on first use.
+ * <p>
+ * Beans with {@code @Scheduled} methods are only scheduled once created. {@code @PostConstruct} work, such as
+ * replaying the log journal, must happen before requests are served. Flyway and the entity manager factory stay
+ * eager so a schema that does not validate fails the start rather than the first request.
+ * <p>
+ * With {@code -Dspring.aot.enabled=true} the Flyway beans are fixed when the prod context is processed at build
+ * time, so {@code spring.flyway.enabled=false} no longer removes them; the migration strategy checks it instead, as
+ * the CDS training run in {@code backend.Dockerfile} has no database to migrate.
+ */
+@Configuration
+public class StartupConfig {
+    private static final List<Class<?>> EAGER_TYPES = List.of(
+            Flyway.class, FlywayMigrationInitializer.class, EntityManagerFactory.class, AbstractEntityManagerFactoryBean.class);
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (name, definition, type) -> EAGER_TYPES.stream().anyMatch(t -> t.isAssignableFrom(type))
+                || hasMethodAnnotated(ClassUtils.getUserClass(type));
+    }
+
+    @Bean
+    FlywayMigrationStrategy migrateUnlessDisabled(Environment environment) {
+        return flyway -> {
+            if (environment.getProperty("spring.flyway.enabled", Boolean.class, true)) flyway.migrate();
+        };
+    }
+
+    private static boolean hasMethodAnnotated(Class<?> type) {
+        if (!type.getName().startsWith("com.inventory.")) return false;
+        for (Method m : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+            if (AnnotatedElementUtils.hasAnnotation(m, Scheduled.class) || m.isAnnotationPresent(PostConstruct.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package com.inventory.config;
+
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.inventory.dto.ProductRef;
+import com.inventory.dto.SupplierRef;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary alternatives to JSON, picked by the Accept header: CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}). JSON stays the default. Binary responses carry the same fields, except
+ * that a product or supplier reference repeated within one response is written in full the first time and as its
+ * bare id after that, so a page of logs or products names each product and supplier once.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder, new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder, new SmileFactory()));
+    }
+
+    // Same settings as the JSON mapper, plus reference de-duplication; records compare by value, hence equality ids
+    public static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.factory(factory)
+                .mixIn(ProductRef.class, ReferencedById.class)
+                .mixIn(SupplierRef.class, ReferencedById.class)
+                .featuresToEnable(SerializationFeature.USE_EQUALITY_FOR_OBJECT_ID)
+                .build();
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+    private interface ReferencedById {
+    }
+}
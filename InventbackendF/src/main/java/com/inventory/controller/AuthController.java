@@ -1,8 +1,12 @@
 package com.inventory.controller;
 
+import com.inventory.auth.AuthFilter;
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
 import com.inventory.model.Role;
 import com.inventory.model.User;
 import com.inventory.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,13 +20,17 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
 public class AuthController {
     private final UserService userService;
+    private final TokenService tokenService;
+    private final AuthFilter authFilter;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, TokenService tokenService, AuthFilter authFilter) {
         this.userService = userService;
+        this.tokenService = tokenService;
+        this.authFilter = authFilter;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> payload, HttpSession session) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> payload, HttpServletRequest request) {
         String email = payload.get("email");
         String password = payload.get("password");
         Optional<User> userOpt = userService.authenticate(email, password);
@@ -32,50 +40,81 @@ public class AuthController {
             return ResponseEntity.status(401).body(error);
         }
         User user = userOpt.get();
-        session.setAttribute("USER", user);
-        return ResponseEntity.ok(toDto(user));
+        if (authFilter.sessionMode()) {
+            request.getSession().setAttribute(AuthFilter.USER, AuthUser.of(user));
+            return ResponseEntity.ok(toDto(AuthUser.of(user)));
+        }
+        return ResponseEntity.ok(withTokens(user));
+    }
+
+    // Exchanges a refresh token for a new access/refresh pair; the only auth call that reads the user row
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> payload) {
+        Optional<User> user = tokenService.verifyRefresh(payload.get("refreshToken"))
+                .flatMap(claims -> userService.findById(claims.userId())
+                        .filter(u -> u.getTokenVersion() == claims.version()));
+        if (user.isEmpty()) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(withTokens(user.get()));
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpSession session) {
-        session.invalidate();
+    public ResponseEntity<?> logout(@RequestBody(required = false) Map<String, String> payload, HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) session.invalidate();
+        if (payload != null) {
+            tokenService.verifyRefresh(payload.get("refreshToken")).ifPresent(c -> userService.revokeTokens(c.userId()));
+        }
         Map<String, String> res = new HashMap<>();
         res.put("message", "Logged out");
         return ResponseEntity.ok(res);
     }
 
     @GetMapping("/me")
-    public ResponseEntity<?> me(HttpSession session) {
-        User user = (User) session.getAttribute("USER");
-        if (user == null) {
-            return ResponseEntity.status(401).build();
-        }
+    public ResponseEntity<?> me(@RequestAttribute(AuthFilter.USER) AuthUser user) {
         return ResponseEntity.ok(toDto(user));
     }
 
+    // Open to anyone for STAFF accounts; only a signed-in admin may create users with another role, except for the
+    // first admin of a deployment, which anyone may create while there is none
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody Map<String, String> payload) {
+    public ResponseEntity<?> register(@RequestBody Map<String, String> payload, HttpServletRequest request) {
         String name = payload.get("name");
         String email = payload.get("email");
         String password = payload.get("password");
         String roleStr = payload.getOrDefault("role", "STAFF");
         Role role = Role.valueOf(roleStr.toUpperCase());
-        User existing = userService.findByEmail(email).orElse(null);
-        if (existing != null) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Email already registered");
-            return ResponseEntity.badRequest().body(error);
+        User user;
+        if (role == Role.STAFF || authFilter.caller(request).filter(u -> u.role() == Role.ADMIN).isPresent()) {
+            user = userService.register(name, email, password, role);
+        } else {
+            Optional<User> first = role == Role.ADMIN ? userService.registerFirstAdmin(name, email, password) : Optional.empty();
+            if (first.isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Only an admin can create " + role + " users");
+                return ResponseEntity.status(403).body(error);
+            }
+            user = first.get();
         }
-        User user = userService.register(name, email, password, role);
-        return ResponseEntity.ok(toDto(user));
+        return ResponseEntity.ok(toDto(AuthUser.of(user)));
+    }
+
+    private Map<String, Object> withTokens(User user) {
+        AuthUser authUser = AuthUser.of(user);
+        Map<String, Object> m = toDto(authUser);
+        m.put("accessToken", tokenService.issueAccess(authUser));
+        m.put("refreshToken", tokenService.issueRefresh(user));
+        m.put("expiresIn", tokenService.accessTtl().toSeconds());
+        return m;
     }
 
-    private Map<String, Object> toDto(User u) {
+    private Map<String, Object> toDto(AuthUser u) {
         Map<String, Object> m = new HashMap<>();
-        m.put("id", u.getId());
-        m.put("name", u.getName());
-        m.put("email", u.getEmail());
-        m.put("role", u.getRole().name());
+        m.put("id", u.id());
+        m.put("name", u.name());
+        m.put("email", u.email());
+        m.put("role", u.role().name());
         return m;
     }
 }
@@ -0,0 +1,26 @@
+package com.inventory.controller;
+
+import com.inventory.service.DemandForecastService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/forecasts")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class ForecastController {
+    private final DemandForecastService demandForecastService;
+
+    public ForecastController(DemandForecastService demandForecastService) {
+        this.demandForecastService = demandForecastService;
+    }
+
+    @GetMapping("/reorder-suggestions")
+    public ResponseEntity<?> reorderSuggestions(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(demandForecastService.suggestions(limit));
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<?> forecast(@PathVariable Long productId) {
+        return ResponseEntity.ok(demandForecastService.forecast(productId));
+    }
+}
@@ -1,81 +1,155 @@
 package com.inventory.controller;
 
+import com.inventory.auth.AuthFilter;
+import com.inventory.auth.AuthUser;
+import com.inventory.dto.InventoryLogView;
+import com.inventory.dto.StockMovement;
 import com.inventory.model.InventoryLog;
+import com.inventory.service.IdempotencyService;
 import com.inventory.service.InventoryService;
-import jakarta.servlet.http.HttpSession;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/inventory")
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final IdempotencyService idempotencyService;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, IdempotencyService idempotencyService) {
         this.inventoryService = inventoryService;
+        this.idempotencyService = idempotencyService;
     }
 
-    private boolean isAuthenticated(HttpSession session) {
-        return session.getAttribute("USER") != null;
+    @GetMapping("/logs")
+    public ResponseEntity<?> logs(@RequestParam(required = false) Long productId,
+                                  @RequestParam(required = false) String type,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(inventoryService.findLogs(productId, type, from, to, cursor, limit));
     }
 
-    @GetMapping("/logs")
-    public ResponseEntity<?> logs(HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        List<InventoryLog> logs = inventoryService.findAllLogs();
-        return ResponseEntity.ok(logs);
+    @GetMapping("/history")
+    public ResponseEntity<?> history(@RequestParam(required = false) Long productId,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(inventoryService.history(productId, from, to));
     }
 
+    // Movements sent with an Idempotency-Key are applied once; retries with the same key get the first response
     @PostMapping("/update-stock")
-    public ResponseEntity<?> updateStock(@RequestBody Map<String, Object> payload, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        Long productId = Long.valueOf(String.valueOf(payload.get("productId")));
-        int quantity = Integer.parseInt(String.valueOf(payload.get("quantity")));
-        String type = String.valueOf(payload.get("type"));
-        String notes = payload.get("notes") != null ? String.valueOf(payload.get("notes")) : null;
-        InventoryLog log = inventoryService.updateStock(productId, quantity, type, notes);
-        return ResponseEntity.ok(log);
+    public ResponseEntity<?> updateStock(@RequestBody Map<String, Object> payload,
+                                         @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String key,
+                                         @RequestAttribute(value = AuthFilter.USER, required = false) AuthUser user) {
+        return idempotencyService.execute(user, key, "update-stock", payload, () -> {
+            Long productId = Long.valueOf(String.valueOf(payload.get("productId")));
+            int quantity = Integer.parseInt(String.valueOf(payload.get("quantity")));
+            String type = String.valueOf(payload.get("type"));
+            String notes = payload.get("notes") != null ? String.valueOf(payload.get("notes")) : null;
+            Long warehouseId = payload.get("warehouseId") != null ? Long.valueOf(String.valueOf(payload.get("warehouseId"))) : null;
+            InventoryLog log = inventoryService.updateStock(productId, warehouseId, quantity, type, notes);
+            return ResponseEntity.ok(InventoryLogView.of(log));
+        });
+    }
+
+    // Omitting either warehouse means the default one
+    @PostMapping("/transfer")
+    public ResponseEntity<?> transfer(@RequestBody Map<String, Object> payload,
+                                      @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String key,
+                                      @RequestAttribute(value = AuthFilter.USER, required = false) AuthUser user) {
+        return idempotencyService.execute(user, key, "transfer", payload, () -> {
+            Long productId = Long.valueOf(String.valueOf(payload.get("productId")));
+            Long from = payload.get("fromWarehouseId") != null ? Long.valueOf(String.valueOf(payload.get("fromWarehouseId"))) : null;
+            Long to = payload.get("toWarehouseId") != null ? Long.valueOf(String.valueOf(payload.get("toWarehouseId"))) : null;
+            int quantity = Integer.parseInt(String.valueOf(payload.get("quantity")));
+            String notes = payload.get("notes") != null ? String.valueOf(payload.get("notes")) : null;
+            List<InventoryLog> logs = inventoryService.transfer(productId, from, to, quantity, notes);
+            return ResponseEntity.ok(logs.stream().map(InventoryLogView::of).toList());
+        });
+    }
+
+    @GetMapping("/stock")
+    public ResponseEntity<?> stock(@RequestParam Long productId) {
+        return ResponseEntity.ok(inventoryService.stockLevels(productId));
+    }
+
+    @GetMapping("/stock/as-of")
+    public ResponseEntity<?> stockAsOf(@RequestParam Long productId,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(inventoryService.stockAsOf(productId, at));
+    }
+
+    @GetMapping("/stock/series")
+    public ResponseEntity<?> stockSeries(@RequestParam Long productId,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                         @RequestParam(required = false) String resolution) {
+        return ResponseEntity.ok(inventoryService.stockSeries(productId, from, to, resolution));
+    }
+
+    @PostMapping("/update-stock/batch")
+    public ResponseEntity<?> updateStockBatch(@RequestBody List<StockMovement> movements,
+                                              @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String key,
+                                              @RequestAttribute(value = AuthFilter.USER, required = false) AuthUser user) {
+        return idempotencyService.execute(user, key, "update-stock/batch", movements,
+                () -> ResponseEntity.ok(inventoryService.updateStockBatch(movements)));
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<?> stats(HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> stats() {
         // Placeholder simple stats can reuse reports for now
         Map<String, Object> rpt = inventoryService.reports();
         return ResponseEntity.ok(rpt);
     }
 
     @GetMapping("/reports")
-    public ResponseEntity<?> reports(HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> reports() {
         return ResponseEntity.ok(inventoryService.reports());
     }
 
     @GetMapping("/reports/export/csv")
-    public ResponseEntity<?> exportCsv(HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        List<InventoryLog> logs = inventoryService.findAllLogs();
-        StringBuilder sb = new StringBuilder();
-        sb.append("id,product,type,quantity,notes,createdAt\n");
-        logs.forEach(l -> sb.append(l.getId()).append(',')
-                .append(l.getProduct() != null ? l.getProduct().getName() : "").append(',')
-                .append(l.getType()).append(',')
-                .append(l.getQuantity()).append(',')
-                .append(l.getNotes() != null ? l.getNotes().replace(",", " ") : "").append(',')
-                .append(l.getCreatedAt()).append('\n'));
-
-        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+    public ResponseEntity<StreamingResponseBody> exportCsv(@RequestParam(defaultValue = "false") boolean gzip) {
+        return export("inventory_logs.csv", new MediaType("text", "csv", StandardCharsets.UTF_8), gzip,
+                inventoryService::exportLogsCsv);
+    }
+
+    @GetMapping("/reports/export/ndjson")
+    public ResponseEntity<StreamingResponseBody> exportNdjson(@RequestParam(defaultValue = "false") boolean gzip) {
+        return export("inventory_logs.ndjson", new MediaType("application", "x-ndjson", StandardCharsets.UTF_8), gzip,
+                inventoryService::exportLogsNdjson);
+    }
+
+    // Rows are written straight to the response as they are read, so heap use does not grow with the export
+    private ResponseEntity<StreamingResponseBody> export(String filename, MediaType type, boolean gzip, StreamingResponseBody writer) {
+        if (!gzip) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                    .contentType(type)
+                    .body(writer);
+        }
+        StreamingResponseBody zipped = out -> {
+            GZIPOutputStream gz = new GZIPOutputStream(out, 8192);
+            writer.writeTo(gz);
+            gz.finish();
+        };
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=inventory_logs.csv")
-                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
-                .body(bytes);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename + ".gz")
+                .contentType(new MediaType("application", "gzip"))
+                .body(zipped);
     }
 }
 																																																							
\ No newline at end of file
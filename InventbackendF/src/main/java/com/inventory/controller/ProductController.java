@@ -1,70 +1,90 @@
 package com.inventory.controller;
 
+import com.inventory.dto.ProductView;
 import com.inventory.model.Product;
+import com.inventory.service.CatalogVersions;
+import com.inventory.service.LowStockNotifier;
 import com.inventory.service.ProductService;
-import jakarta.servlet.http.HttpSession;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
 public class ProductController {
     private final ProductService productService;
+    private final LowStockNotifier lowStockNotifier;
+    private final CatalogVersions catalogVersions;
 
-    public ProductController(ProductService productService) { this.productService = productService; }
-
-    private boolean isAuthenticated(HttpSession session) {
-        return session.getAttribute("USER") != null;
+    public ProductController(ProductService productService, LowStockNotifier lowStockNotifier,
+                             CatalogVersions catalogVersions) {
+        this.productService = productService;
+        this.lowStockNotifier = lowStockNotifier;
+        this.catalogVersions = catalogVersions;
     }
 
+    // Revalidated on every use: If-None-Match / If-Modified-Since are answered from memory with a 304
     @GetMapping
-    public ResponseEntity<?> all(HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        List<Product> list = productService.findAll();
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> all(WebRequest request) {
+        CatalogVersions.Stamp stamp = catalogVersions.products();
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) return null;
+        List<ProductView> list = productService.findAll();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(list);
+    }
+
+    // Only what changed since the version a previous call returned; without one, or when it is too old, everything
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(@RequestParam(required = false) String since) {
+        return ResponseEntity.ok(productService.changesSince(since));
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<?> lowStock(HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> lowStock() {
         return ResponseEntity.ok(productService.lowStock());
     }
 
+    // Threshold crossings as Server-Sent Events; clients refetch /low-stock on (re)connect, then apply events
+    @GetMapping(path = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter lowStockStream() {
+        return lowStockNotifier.subscribe();
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<?> search(@RequestParam("q") String q, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        return ResponseEntity.ok(productService.search(q));
+    public ResponseEntity<?> search(@RequestParam("q") String q, @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.search(q, limit));
     }
 
+    // Served from the product cache, so a matching If-None-Match costs neither a query nor serialization
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable Long id, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        return productService.findById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> get(@PathVariable Long id, WebRequest request) {
+        Optional<ProductView> product = productService.findById(id);
+        if (product.isEmpty()) return ResponseEntity.notFound().build();
+        if (request.checkNotModified("\"" + id + "." + product.get().version() + "\"")) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(product.get());
     }
 
     @PostMapping
-    public ResponseEntity<?> create(@RequestBody Product p, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> create(@RequestBody Product p) {
         Product saved = productService.save(p);
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.ok(ProductView.of(saved));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Product p, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Product p) {
         p.setId(id);
         Product saved = productService.save(p);
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.ok(ProductView.of(saved));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable Long id, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> delete(@PathVariable Long id) {
         productService.delete(id);
         return ResponseEntity.ok().build();
     }
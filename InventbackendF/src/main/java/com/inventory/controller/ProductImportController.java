@@ -0,0 +1,49 @@
+package com.inventory.controller;
+
+import com.inventory.dto.ImportStatus;
+import com.inventory.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/products/import")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class ProductImportController {
+    private final ProductImportService productImportService;
+
+    public ProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    // The raw request body is the file; the format comes from ?format= or the Content-Type
+    @PostMapping
+    public ResponseEntity<?> submit(HttpServletRequest request, @RequestParam(required = false) String format) throws IOException {
+        ImportStatus status = productImportService.submit(request.getInputStream(), format != null ? format : formatOf(request.getContentType()));
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{id}").buildAndExpand(status.id()).toUri())
+                .body(status);
+    }
+
+    @GetMapping
+    public ResponseEntity<?> recent() {
+        return ResponseEntity.ok(productImportService.recent());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id) {
+        return productImportService.status(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static String formatOf(String contentType) {
+        if (contentType == null) return null;
+        if (contentType.startsWith("text/csv")) return "csv";
+        if (contentType.startsWith("application/x-ndjson")) return "ndjson";
+        return null;
+    }
+}
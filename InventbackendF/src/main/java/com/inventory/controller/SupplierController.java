@@ -1,12 +1,15 @@
 package com.inventory.controller;
 
 import com.inventory.model.Supplier;
+import com.inventory.service.CatalogVersions;
 import com.inventory.service.SupplierService;
-import jakarta.servlet.http.HttpSession;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/suppliers")
@@ -14,47 +17,47 @@ import java.util.List;
 public class SupplierController {
     private final SupplierService supplierService;
 
-    public SupplierController(SupplierService supplierService) { this.supplierService = supplierService; }
+    private final CatalogVersions catalogVersions;
 
-    private boolean isAuthenticated(HttpSession session) {
-        return session.getAttribute("USER") != null;
+    public SupplierController(SupplierService supplierService, CatalogVersions catalogVersions) {
+        this.supplierService = supplierService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    public ResponseEntity<?> all(HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> all(WebRequest request) {
+        CatalogVersions.Stamp stamp = catalogVersions.suppliers();
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) return null;
         List<Supplier> list = supplierService.findAll();
-        return ResponseEntity.ok(list);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(list);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<?> search(@RequestParam("q") String q, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        return ResponseEntity.ok(supplierService.search(q));
+    public ResponseEntity<?> search(@RequestParam("q") String q, @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(supplierService.search(q, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable Long id, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
-        return supplierService.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> get(@PathVariable Long id, WebRequest request) {
+        Optional<Supplier> supplier = supplierService.findById(id);
+        if (supplier.isEmpty()) return ResponseEntity.notFound().build();
+        if (request.checkNotModified("\"" + id + "." + supplier.get().getVersion() + "\"")) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(supplier.get());
     }
 
     @PostMapping
-    public ResponseEntity<?> create(@RequestBody Supplier s, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> create(@RequestBody Supplier s) {
         return ResponseEntity.ok(supplierService.save(s));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Supplier s, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Supplier s) {
         s.setId(id);
         return ResponseEntity.ok(supplierService.save(s));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable Long id, HttpSession session) {
-        if (!isAuthenticated(session)) return ResponseEntity.status(401).build();
+    public ResponseEntity<?> delete(@PathVariable Long id) {
         supplierService.delete(id);
         return ResponseEntity.ok().build();
     }
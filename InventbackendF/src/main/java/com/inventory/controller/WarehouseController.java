@@ -0,0 +1,45 @@
+package com.inventory.controller;
+
+import com.inventory.model.Warehouse;
+import com.inventory.service.WarehouseService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/warehouses")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class WarehouseController {
+    private final WarehouseService warehouseService;
+
+    public WarehouseController(WarehouseService warehouseService) {
+        this.warehouseService = warehouseService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> all() {
+        // Listing makes sure the default location exists, so clients always see where unplaced stock is
+        warehouseService.defaultId();
+        return ResponseEntity.ok(warehouseService.findAll());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable Long id) {
+        Optional<Warehouse> warehouse = warehouseService.findById(id);
+        if (warehouse.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(warehouse.get());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody Warehouse w) {
+        w.setId(null);
+        return ResponseEntity.ok(warehouseService.save(w));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Warehouse w) {
+        w.setId(id);
+        return ResponseEntity.ok(warehouseService.save(w));
+    }
+}
@@ -0,0 +1,9 @@
+package com.inventory.dto;
+
+import java.util.List;
+
+/**
+ * Per-item results of a batch stock update, in request order.
+ */
+public record BatchResult(int applied, int rejected, List<MovementResult> results) {
+}
@@ -0,0 +1,9 @@
+package com.inventory.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A product's IN/OUT units and number of movements on one day.
+ */
+public record DailyMovement(LocalDate day, Long productId, long inUnits, long outUnits, int movements) {
+}
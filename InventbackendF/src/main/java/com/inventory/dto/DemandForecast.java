@@ -0,0 +1,11 @@
+package com.inventory.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's smoothed daily demand and the reorder point and order quantity derived from it, as of the last
+ * forecast run. {@code daysOfCover} is null for products without demand.
+ */
+public record DemandForecast(Long productId, float dailyDemand, float demandDeviation, int quantity, int reorderLevel,
+                             int reorderPoint, int suggestedOrderQuantity, Float daysOfCover, LocalDateTime computedAt) {
+}
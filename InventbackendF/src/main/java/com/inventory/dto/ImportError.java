@@ -0,0 +1,7 @@
+package com.inventory.dto;
+
+/**
+ * A rejected import row: the line it starts on and why it was not stored.
+ */
+public record ImportError(long line, String message) {
+}
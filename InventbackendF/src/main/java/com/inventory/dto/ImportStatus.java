@@ -0,0 +1,13 @@
+package com.inventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a bulk catalogue import. {@code state} is QUEUED, RUNNING, COMPLETED or FAILED; only the first
+ * {@code errors} are listed, {@code rejected} counts them all.
+ */
+public record ImportStatus(String id, String format, String state, long rowsRead, long inserted, long updated,
+                           long rejected, List<ImportError> errors, double rowsPerSecond, String message,
+                           LocalDateTime submittedAt, LocalDateTime startedAt, LocalDateTime finishedAt) {
+}
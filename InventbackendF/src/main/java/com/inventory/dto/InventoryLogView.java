@@ -0,0 +1,24 @@
+package com.inventory.dto;
+
+import com.inventory.model.InventoryLog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for a single inventory log row. Only the product id and name are carried,
+ * so listing logs never loads the product or supplier entities.
+ */
+public record InventoryLogView(Long id, ProductRef product, String type, int quantity, String notes, LocalDateTime createdAt,
+                               Long warehouseId) {
+
+    // Used by JPQL constructor expressions, which cannot build nested records
+    public InventoryLogView(Long id, Long productId, String productName, String type, int quantity, String notes, LocalDateTime createdAt,
+                            Long warehouseId) {
+        this(id, new ProductRef(productId, productName), type, quantity, notes, createdAt, warehouseId);
+    }
+
+    public static InventoryLogView of(InventoryLog l) {
+        return new InventoryLogView(l.getId(), l.getProduct().getId(), l.getProduct().getName(), l.getType(),
+                l.getQuantity(), l.getNotes(), l.getCreatedAt(), l.getWarehouseId());
+    }
+}
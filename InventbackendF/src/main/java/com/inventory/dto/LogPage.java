@@ -0,0 +1,9 @@
+package com.inventory.dto;
+
+import java.util.List;
+
+/**
+ * One page of inventory logs; {@code nextCursor} is null on the last page.
+ */
+public record LogPage(List<InventoryLogView> items, String nextCursor) {
+}
@@ -0,0 +1,11 @@
+package com.inventory.dto;
+
+/**
+ * A product crossing its reorder threshold: {@code low} is true when it drops below, false when it recovers
+ * (or is deleted while low).
+ */
+public record LowStockEvent(Long productId, String name, int quantity, int reorderLevel, boolean low) {
+    public static LowStockEvent of(ProductStockView p, boolean low) {
+        return new LowStockEvent(p.id(), p.name(), p.quantity(), p.reorderLevel(), low);
+    }
+}
@@ -0,0 +1,16 @@
+package com.inventory.dto;
+
+/**
+ * Outcome of a single batch item; {@code logId} and {@code quantityAfter} (units left at the item's warehouse) are
+ * set only when applied.
+ */
+public record MovementResult(int index, Long productId, boolean applied, String message, Long logId, Integer quantityAfter) {
+
+    public static MovementResult applied(int index, Long productId, Long logId, int quantityAfter) {
+        return new MovementResult(index, productId, true, null, logId, quantityAfter);
+    }
+
+    public static MovementResult rejected(int index, Long productId, String message) {
+        return new MovementResult(index, productId, false, message, null, null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.inventory.dto;
+
+import java.util.List;
+
+/**
+ * Delta response for polling clients: products added or changed since the client's version, and ids removed since.
+ * When {@code full} is set the version was too old to answer from, and {@code products} is the whole catalogue.
+ */
+public record ProductChanges(String version, boolean full, List<ProductView> products, List<Long> removed) {
+}
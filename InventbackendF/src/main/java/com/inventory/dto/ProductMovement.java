@@ -0,0 +1,8 @@
+package com.inventory.dto;
+
+/**
+ * A product with its IN/OUT volume over the reporting window, as listed in fast/slow-moving reports.
+ */
+public record ProductMovement(Long id, String name, String category, SupplierRef supplier, int quantity,
+                              long inVolume, long outVolume) {
+}
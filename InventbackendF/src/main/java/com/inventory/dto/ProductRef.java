@@ -0,0 +1,7 @@
+package com.inventory.dto;
+
+/**
+ * Minimal product reference embedded in read models instead of the full entity graph.
+ */
+public record ProductRef(Long id, String name) {
+}
@@ -0,0 +1,27 @@
+package com.inventory.dto;
+
+import com.inventory.model.Product;
+
+/**
+ * The product fields that feed stock reporting, without the entity graph.
+ */
+public record ProductStockView(Long id, String name, String category, Long supplierId, double price, int quantity,
+                               int reorderLevel, Long version) {
+
+    // Same rule as ProductRepository.findLowStock
+    public boolean lowStock() {
+        return quantity < reorderLevel;
+    }
+
+    // Views of one product read at different times can be published out of order; the row version says which is newer
+    public boolean olderThan(ProductStockView other) {
+        return version != null && other.version != null && version < other.version;
+    }
+
+    // Reads only the supplier id, which a lazy supplier proxy answers without loading
+    public static ProductStockView of(Product p) {
+        return new ProductStockView(p.getId(), p.getName(), p.getCategory(),
+                p.getSupplier() != null ? p.getSupplier().getId() : null, p.getPrice(), p.getQuantity(), p.getReorderLevel(),
+                p.getVersion());
+    }
+}
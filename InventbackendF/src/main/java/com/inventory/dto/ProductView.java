@@ -0,0 +1,26 @@
+package com.inventory.dto;
+
+import com.inventory.model.Product;
+
+/**
+ * Read model for product endpoints. The supplier is reduced to its id and name, so a product
+ * list is one query with no per-row supplier loads. {@code version} is the row version the view was read at;
+ * it changes whenever any field shown here does, including the supplier's name.
+ */
+public record ProductView(Long id, String sku, String name, String description, String category, SupplierRef supplier,
+                          int quantity, double price, String warehouseLocation, int reorderLevel, Long version) {
+
+    // Used by JPQL constructor expressions, which cannot build nested records
+    public ProductView(Long id, String sku, String name, String description, String category, Long supplierId,
+                       String supplierName, int quantity, double price, String warehouseLocation, int reorderLevel,
+                       Long version) {
+        this(id, sku, name, description, category, supplierId != null ? new SupplierRef(supplierId, supplierName) : null,
+                quantity, price, warehouseLocation, reorderLevel, version);
+    }
+
+    public static ProductView of(Product p) {
+        SupplierRef supplier = p.getSupplier() != null ? new SupplierRef(p.getSupplier().getId(), p.getSupplier().getName()) : null;
+        return new ProductView(p.getId(), p.getSku(), p.getName(), p.getDescription(), p.getCategory(), supplier,
+                p.getQuantity(), p.getPrice(), p.getWarehouseLocation(), p.getReorderLevel(), p.getVersion());
+    }
+}
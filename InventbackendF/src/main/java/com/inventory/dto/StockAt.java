@@ -0,0 +1,9 @@
+package com.inventory.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's total quantity at one instant.
+ */
+public record StockAt(Long productId, LocalDateTime at, int quantity) {
+}
@@ -0,0 +1,7 @@
+package com.inventory.dto;
+
+/**
+ * Units of one product at one warehouse.
+ */
+public record StockLevelView(Long productId, Long warehouseId, int quantity) {
+}
@@ -0,0 +1,11 @@
+package com.inventory.dto;
+
+/**
+ * One requested stock movement in a batch; a null warehouse is the default one.
+ */
+public record StockMovement(Long productId, Integer quantity, String type, String notes, Long warehouseId) {
+
+    public StockMovement(Long productId, Integer quantity, String type, String notes) {
+        this(productId, quantity, type, notes, null);
+    }
+}
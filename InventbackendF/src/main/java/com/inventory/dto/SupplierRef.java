@@ -0,0 +1,7 @@
+package com.inventory.dto;
+
+/**
+ * Minimal supplier reference embedded in read models instead of the full entity.
+ */
+public record SupplierRef(Long id, String name) {
+}
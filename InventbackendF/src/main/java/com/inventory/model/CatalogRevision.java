@@ -0,0 +1,38 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Shared change counter for one catalogue collection, bumped by every node that writes it, so that version tokens
+ * mean the same on every node. The epoch is fixed when the row is created and tells tokens issued against another
+ * database apart. Writes made around the application must bump the revision too.
+ */
+@Entity
+@Table(name = "catalog_revisions")
+public class CatalogRevision {
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(nullable = false, length = 16)
+    private String epoch;
+
+    @Column(nullable = false)
+    private long revision;
+
+    // Epoch millis of the last bump
+    @Column(name = "modified_at", nullable = false)
+    private long modifiedAt;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEpoch() { return epoch; }
+    public void setEpoch(String epoch) { this.epoch = epoch; }
+
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+
+    public long getModifiedAt() { return modifiedAt; }
+    public void setModifiedAt(long modifiedAt) { this.modifiedAt = modifiedAt; }
+}
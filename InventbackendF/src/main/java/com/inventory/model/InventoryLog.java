@@ -4,25 +4,39 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory_logs")
+@Table(name = "inventory_logs", indexes = {
+        // Descending, the order log pages are read in
+        @Index(name = "idx_inventory_logs_created", columnList = "created_at desc, id desc"),
+        @Index(name = "idx_inventory_logs_product_created", columnList = "product_id, created_at desc, id desc")
+})
 public class InventoryLog {
+    // Ids a node takes from the sequence at a time
+    public static final int ID_BLOCK = 50;
+
+    // Pooled ids (a table-backed sequence on MySQL, kept past existing ids by LogIdSequence) let Hibernate batch
+    // log inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_logs_seq")
+    @SequenceGenerator(name = "inventory_logs_seq", sequenceName = "inventory_logs_seq", allocationSize = ID_BLOCK)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
     @Column(nullable = false)
-    private String type; // IN or OUT
+    private String type; // IN, OUT, TRANSFER_OUT or TRANSFER_IN
 
     @Column(nullable = false)
     private int quantity;
 
     private String notes;
 
-    @Column(nullable = false)
+    // Null for rows written before stock was kept per warehouse
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     public Long getId() { return id; }
@@ -40,6 +54,9 @@ public class InventoryLog {
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
 
+    public Long getWarehouseId() { return warehouseId; }
+    public void setWarehouseId(Long warehouseId) { this.warehouseId = warehouseId; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
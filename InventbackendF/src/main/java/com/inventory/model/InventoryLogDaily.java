@@ -0,0 +1,52 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One product's stock movements for one day, rolled up from {@code inventory_logs} once the day is complete.
+ * Holds a plain product id rather than a foreign key so summaries outlive the raw rows and the product.
+ */
+@Entity
+@Table(name = "inventory_log_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_inventory_log_daily_day_product", columnNames = {"movement_date", "product_id"}),
+        indexes = @Index(name = "idx_inventory_log_daily_product_day", columnList = "product_id, movement_date"))
+public class InventoryLogDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_log_daily_seq")
+    @SequenceGenerator(name = "inventory_log_daily_seq", sequenceName = "inventory_log_daily_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "movement_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "in_units", nullable = false)
+    private long inUnits;
+
+    @Column(name = "out_units", nullable = false)
+    private long outUnits;
+
+    @Column(nullable = false)
+    private int movements;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getInUnits() { return inUnits; }
+    public void setInUnits(long inUnits) { this.inUnits = inUnits; }
+
+    public long getOutUnits() { return outUnits; }
+    public void setOutUnits(long outUnits) { this.outUnits = outUnits; }
+
+    public int getMovements() { return movements; }
+    public void setMovements(int movements) { this.movements = movements; }
+}
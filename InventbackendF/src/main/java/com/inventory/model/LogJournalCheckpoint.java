@@ -0,0 +1,24 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Highest journal sequence number whose inventory log row has been written, per write-behind journal.
+ * Updated in the same transaction as the rows, so a replay after a crash never writes an entry twice.
+ */
+@Entity
+@Table(name = "log_journal_checkpoints")
+public class LogJournalCheckpoint {
+    @Id
+    @Column(name = "journal_id", length = 64)
+    private String journalId;
+
+    @Column(name = "flushed_seq", nullable = false)
+    private long flushedSeq;
+
+    public String getJournalId() { return journalId; }
+    public void setJournalId(String journalId) { this.journalId = journalId; }
+
+    public long getFlushedSeq() { return flushedSeq; }
+    public void setFlushedSeq(long flushedSeq) { this.flushedSeq = flushedSeq; }
+}
@@ -9,6 +9,10 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Catalogue identifier; bulk imports upsert on it
+    @Column(unique = true, length = 64)
+    private String sku;
+
     @Column(nullable = false)
     private String name;
 
@@ -16,7 +20,7 @@ public class Product {
 
     private String category;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "supplier_id")
     private Supplier supplier;
 
@@ -28,9 +32,17 @@ public class Product {
 
     private int reorderLevel;
 
+    // Bumped by every write, including stock movements; drives optimistic locking and the product's ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
@@ -54,4 +66,7 @@ public class Product {
 
     public int getReorderLevel() { return reorderLevel; }
     public void setReorderLevel(int reorderLevel) { this.reorderLevel = reorderLevel; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,59 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Units of one product held at one warehouse. A product's {@code quantity} is the sum of its levels; stock not yet
+ * placed anywhere counts as the default warehouse's, whose row is written the first time that location is moved.
+ * Holds plain ids rather than foreign keys so bulk product writes need not know about locations.
+ */
+@Entity
+@Table(name = "stock_levels", indexes = @Index(name = "idx_stock_levels_warehouse", columnList = "warehouse_id"))
+@IdClass(StockLevel.Key.class)
+public class StockLevel {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Long getWarehouseId() { return warehouseId; }
+    public void setWarehouseId(Long warehouseId) { this.warehouseId = warehouseId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public static class Key implements Serializable {
+        private Long productId;
+        private Long warehouseId;
+
+        public Key() {
+        }
+
+        public Key(Long productId, Long warehouseId) {
+            this.productId = productId;
+            this.warehouseId = warehouseId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(productId, k.productId) && Objects.equals(warehouseId, k.warehouseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, warehouseId);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * A product's total quantity at the close of one day, written by the nightly snapshot job so as-of queries replay
+ * only the movements after it. Like the daily rollups it holds a plain product id rather than a foreign key.
+ */
+@Entity
+@Table(name = "stock_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_snapshots_product_day", columnNames = {"product_id", "snapshot_date"}),
+        indexes = @Index(name = "idx_stock_snapshots_day", columnList = "snapshot_date"))
+public class StockSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshots_seq")
+    @SequenceGenerator(name = "stock_snapshots_seq", sequenceName = "stock_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
@@ -16,12 +16,16 @@ public class User {
     private String email;
 
     @Column(nullable = false)
-    private String password; // plain for demo only (do not use in production)
+    private String password; // BCrypt hash; legacy plaintext rows are rehashed on next login
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Role role = Role.STAFF;
 
+    // Bumped on logout to revoke every refresh token issued before it
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -36,4 +40,7 @@ public class User {
 
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
+
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
 }
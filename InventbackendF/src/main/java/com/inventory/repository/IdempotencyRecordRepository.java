@@ -0,0 +1,33 @@
+package com.inventory.repository;
+
+import com.inventory.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    // Claims a key; fails on the primary key when another request already holds it
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO idempotency_keys (id, fingerprint, created_at) VALUES (:id, :fingerprint, :createdAt)")
+    int claim(String id, String fingerprint, LocalDateTime createdAt);
+
+    // Takes over a claim whose request has not finished within the lease
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now " +
+            "WHERE r.id = :id AND r.fingerprint = :fingerprint AND r.status IS NULL AND r.createdAt < :staleBefore")
+    int reclaim(String id, String fingerprint, LocalDateTime staleBefore, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.response = :response WHERE r.id = :id AND r.status IS NULL")
+    int complete(String id, int status, String response);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status IS NULL")
+    int release(String id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(LocalDateTime before);
+}
@@ -0,0 +1,40 @@
+package com.inventory.repository;
+
+import com.inventory.dto.DailyMovement;
+import com.inventory.model.InventoryLogDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface InventoryLogDailyRepository extends JpaRepository<InventoryLogDaily, Long> {
+    // Last day rolled up; raw rows after it have not been summarised yet
+    @Query("SELECT MAX(d.day) FROM InventoryLogDaily d")
+    LocalDate findRolledThrough();
+
+    // Rows of [productId, in units, out units] over the given days, inclusive
+    @Query("SELECT d.productId, SUM(d.inUnits), SUM(d.outUnits) FROM InventoryLogDaily d " +
+            "WHERE d.day >= :from AND d.day <= :to GROUP BY d.productId")
+    List<Object[]> sumUnitsBetween(LocalDate from, LocalDate to);
+
+    @Query("SELECT new com.inventory.dto.DailyMovement(d.day, d.productId, d.inUnits, d.outUnits, d.movements) " +
+            "FROM InventoryLogDaily d " +
+            "WHERE (:productId IS NULL OR d.productId = :productId) AND d.day >= :from AND d.day <= :to " +
+            "ORDER BY d.day, d.productId")
+    List<DailyMovement> findDays(Long productId, LocalDate from, LocalDate to);
+
+    // Rows of [day, productId, in units, out units, movements] for products with ids in [firstId, endId). Names the
+    // product/day index: for a year-long range planners tend to pick the day index and read every product's rows.
+    // USE INDEX is understood by both MySQL and H2.
+    @Query(value = "SELECT d.movement_date, d.product_id, d.in_units, d.out_units, d.movements FROM inventory_log_daily d " +
+            "USE INDEX (idx_inventory_log_daily_product_day) " +
+            "WHERE d.product_id >= :firstId AND d.product_id < :endId AND d.movement_date >= :from AND d.movement_date <= :to",
+            nativeQuery = true)
+    List<Object[]> findDaysForProducts(long firstId, long endId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM InventoryLogDaily d WHERE d.day < :before")
+    int deleteDaysBefore(LocalDate before);
+}
@@ -1,7 +1,85 @@
 package com.inventory.repository;
 
+import com.inventory.dto.InventoryLogView;
 import com.inventory.model.InventoryLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface InventoryLogRepository extends JpaRepository<InventoryLog, Long> {
+    // Keyset page over (createdAt, id) descending, from the newest row at or before (beforeAt, beforeId) back to from.
+    // Every bound is required so that the scan seeks along idx_inventory_logs_created; the page is cut before products
+    // are joined, so that the join cannot reorder the scan
+    @Query("SELECT new com.inventory.dto.InventoryLogView(l.id, p.id, p.name, l.type, l.quantity, l.notes, l.createdAt, l.warehouseId) " +
+            "FROM (SELECT i.id AS id, i.product.id AS productId, i.type AS type, i.quantity AS quantity, i.notes AS notes, " +
+            "i.createdAt AS createdAt, i.warehouseId AS warehouseId FROM InventoryLog i " +
+            "WHERE i.createdAt >= :from AND i.createdAt <= :beforeAt AND (i.createdAt < :beforeAt OR i.id < :beforeId) " +
+            "AND (:type IS NULL OR i.type = :type) " +
+            "ORDER BY i.createdAt DESC, i.id DESC LIMIT :limit) l " +
+            "JOIN Product p ON p.id = l.productId ORDER BY l.createdAt DESC, l.id DESC")
+    List<InventoryLogView> findPage(String type, LocalDateTime from, LocalDateTime beforeAt, Long beforeId, int limit);
+
+    // As findPage for one product, along idx_inventory_logs_product_created
+    @Query("SELECT new com.inventory.dto.InventoryLogView(l.id, p.id, p.name, l.type, l.quantity, l.notes, l.createdAt, l.warehouseId) " +
+            "FROM (SELECT i.id AS id, i.product.id AS productId, i.type AS type, i.quantity AS quantity, i.notes AS notes, " +
+            "i.createdAt AS createdAt, i.warehouseId AS warehouseId FROM InventoryLog i " +
+            "WHERE i.product.id = :productId " +
+            "AND i.createdAt >= :from AND i.createdAt <= :beforeAt AND (i.createdAt < :beforeAt OR i.id < :beforeId) " +
+            "AND (:type IS NULL OR i.type = :type) " +
+            "ORDER BY i.product.id, i.createdAt DESC, i.id DESC LIMIT :limit) l " +
+            "JOIN Product p ON p.id = l.productId ORDER BY l.createdAt DESC, l.id DESC")
+    List<InventoryLogView> findProductPage(Long productId, String type, LocalDateTime from, LocalDateTime beforeAt, Long beforeId,
+                                           int limit);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.inventory.dto.InventoryLogView(l.id, p.id, p.name, l.type, l.quantity, l.notes, l.createdAt, l.warehouseId) " +
+            "FROM InventoryLog l JOIN l.product p ORDER BY l.id")
+    Stream<InventoryLogView> streamAll();
+
+    // Rows of [productId, type, total quantity] for IN/OUT movements in [since, before); transfers are not volume
+    @Query("SELECT l.product.id, l.type, SUM(l.quantity) FROM InventoryLog l WHERE l.createdAt >= :since " +
+            "AND l.createdAt < :before AND l.type IN ('IN', 'OUT') GROUP BY l.product.id, l.type")
+    List<Object[]> sumQuantitiesBetween(LocalDateTime since, LocalDateTime before);
+
+    // Rows of [productId, day, type, total quantity, movements] for IN/OUT movements in [from, to)
+    @Query("SELECT l.product.id, cast(l.createdAt as LocalDate), l.type, SUM(l.quantity), COUNT(l) FROM InventoryLog l " +
+            "WHERE (:productId IS NULL OR l.product.id = :productId) AND l.createdAt >= :from AND l.createdAt < :to " +
+            "AND l.type IN ('IN', 'OUT') " +
+            "GROUP BY l.product.id, cast(l.createdAt as LocalDate), l.type")
+    List<Object[]> sumDaily(Long productId, LocalDateTime from, LocalDateTime to);
+
+    // As sumDaily, for products with ids in [firstId, endId)
+    @Query("SELECT l.product.id, cast(l.createdAt as LocalDate), l.type, SUM(l.quantity), COUNT(l) FROM InventoryLog l " +
+            "WHERE l.product.id >= :firstId AND l.product.id < :endId AND l.createdAt >= :from AND l.createdAt < :to " +
+            "AND l.type IN ('IN', 'OUT') " +
+            "GROUP BY l.product.id, cast(l.createdAt as LocalDate), l.type")
+    List<Object[]> sumDailyForProducts(long firstId, long endId, LocalDateTime from, LocalDateTime to);
+
+    // Net units (IN minus OUT) one product moved in [from, to); a range scan of the product/created index
+    @Query("SELECT COALESCE(SUM(CASE WHEN l.type = 'IN' THEN l.quantity WHEN l.type = 'OUT' THEN -l.quantity ELSE 0 END), 0) " +
+            "FROM InventoryLog l WHERE l.product.id = :productId AND l.createdAt >= :from AND l.createdAt < :to")
+    long sumNetBetween(Long productId, LocalDateTime from, LocalDateTime to);
+
+    // Rows of [createdAt, type, quantity] for one product's IN/OUT movements in [from, to)
+    @Query("SELECT l.createdAt, l.type, l.quantity FROM InventoryLog l WHERE l.product.id = :productId " +
+            "AND l.createdAt >= :from AND l.createdAt < :to AND l.type IN ('IN', 'OUT')")
+    List<Object[]> findMovementsBetween(Long productId, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT MIN(l.createdAt) FROM InventoryLog l")
+    LocalDateTime findOldestCreatedAt();
+
+    @Modifying
+    @Query("DELETE FROM InventoryLog l WHERE l.createdAt >= :from AND l.createdAt < :to")
+    int deleteCreatedBetween(LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,7 @@
+package com.inventory.repository;
+
+import com.inventory.model.LogJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LogJournalCheckpointRepository extends JpaRepository<LogJournalCheckpoint, String> {
+}
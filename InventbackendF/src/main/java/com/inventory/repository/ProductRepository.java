@@ -1,15 +1,74 @@
 package com.inventory.repository;
 
+import com.inventory.dto.ProductStockView;
+import com.inventory.dto.ProductView;
 import com.inventory.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(p.category) LIKE LOWER(CONCAT('%', :q, '%'))")
-    List<Product> search(String q);
+    // Shared read-model projection: one statement per listing, supplier id/name joined in
+    String VIEW = "SELECT new com.inventory.dto.ProductView(p.id, p.sku, p.name, p.description, p.category, s.id, s.name, " +
+            "p.quantity, p.price, p.warehouseLocation, p.reorderLevel, p.version) FROM Product p LEFT JOIN p.supplier s ";
 
-    @Query("SELECT p FROM Product p WHERE p.quantity < p.reorderLevel")
-    List<Product> findLowStock();
+    @Query(VIEW + "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(p.category) LIKE LOWER(CONCAT('%', :q, '%'))")
+    List<ProductView> search(String q);
+
+    @Query(VIEW + "WHERE p.quantity < p.reorderLevel ORDER BY p.id")
+    List<ProductView> findLowStock();
+
+    @Query(VIEW + "ORDER BY p.id")
+    List<ProductView> findAllViews();
+
+    @Query(VIEW + "WHERE p.id = :id")
+    Optional<ProductView> findViewById(Long id);
+
+    @Query(VIEW + "WHERE p.id IN :ids")
+    List<ProductView> findViewsByIdIn(Collection<Long> ids);
+
+    // Keeps the product's total in step with a movement at one of its locations; the row lock lasts until commit
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :delta, p.version = p.version + 1 WHERE p.id = :id")
+    int adjustStock(Long id, int delta);
+
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(Long id);
+
+    // Product views embed the supplier's name, so a supplier edit is a new version of each of its products
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.version = p.version + 1 WHERE p.supplier.id = :supplierId")
+    int touchBySupplier(Long supplierId);
+
+    @Query("SELECT new com.inventory.dto.ProductStockView(p.id, p.name, p.category, p.supplier.id, p.price, p.quantity, " +
+            "p.reorderLevel, p.version) FROM Product p")
+    List<ProductStockView> findAllStockViews();
+
+    @Query("SELECT new com.inventory.dto.ProductStockView(p.id, p.name, p.category, p.supplier.id, p.price, p.quantity, " +
+            "p.reorderLevel, p.version) FROM Product p WHERE p.id >= :firstId AND p.id < :endId ORDER BY p.id")
+    List<ProductStockView> findStockViewsBetween(long firstId, long endId);
+
+    @Query("SELECT MIN(p.id) FROM Product p")
+    Long findMinId();
+
+    @Query("SELECT MAX(p.id) FROM Product p")
+    Long findMaxId();
+
+    // Indexed text fields for rebuilding the in-memory search index; consume inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id, p.name, p.category, p.description FROM Product p")
+    Stream<Object[]> streamSearchFields();
 }
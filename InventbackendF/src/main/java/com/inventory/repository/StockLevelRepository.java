@@ -0,0 +1,46 @@
+package com.inventory.repository;
+
+import com.inventory.model.StockLevel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockLevelRepository extends JpaRepository<StockLevel, StockLevel.Key> {
+    // Single-statement movement at one location; never takes the level below zero
+    @Modifying
+    @Query("UPDATE StockLevel s SET s.quantity = s.quantity + :delta " +
+            "WHERE s.productId = :productId AND s.warehouseId = :warehouseId AND s.quantity + :delta >= 0")
+    int adjust(Long productId, Long warehouseId, int delta);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO stock_levels (product_id, warehouse_id, quantity) VALUES (:productId, :warehouseId, :quantity)")
+    int insert(Long productId, Long warehouseId, int quantity);
+
+    // Writes the default warehouse's row with whatever the product holds beyond its other levels; 0 rows if no product
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO stock_levels (product_id, warehouse_id, quantity) " +
+            "SELECT p.id, :warehouseId, p.quantity - COALESCE((SELECT SUM(s.quantity) FROM stock_levels s WHERE s.product_id = p.id), 0) " +
+            "FROM products p WHERE p.id = :productId")
+    int materialize(Long productId, Long warehouseId);
+
+    @Query("SELECT s.quantity FROM StockLevel s WHERE s.productId = :productId AND s.warehouseId = :warehouseId")
+    Optional<Integer> findQuantity(Long productId, Long warehouseId);
+
+    List<StockLevel> findByProductIdOrderByWarehouseId(Long productId);
+
+    // Row locks in key order, the same order single movements and other batches lock in
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockLevel s WHERE s.productId IN :productIds AND s.warehouseId IN :warehouseIds " +
+            "ORDER BY s.productId, s.warehouseId")
+    List<StockLevel> lockAll(Collection<Long> productIds, Collection<Long> warehouseIds);
+
+    @Modifying
+    @Query("DELETE FROM StockLevel s WHERE s.productId = :productId")
+    int deleteByProductId(Long productId);
+}
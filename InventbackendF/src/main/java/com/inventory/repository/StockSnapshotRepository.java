@@ -0,0 +1,24 @@
+package com.inventory.repository;
+
+import com.inventory.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    // Last day snapshotted; days after it have not been taken yet
+    @Query("SELECT MAX(s.day) FROM StockSnapshot s")
+    LocalDate findLatestDay();
+
+    // Nearest snapshot at or before the given day; a single probe of the (product_id, snapshot_date) key
+    Optional<StockSnapshot> findFirstByProductIdAndDayLessThanEqualOrderByDayDesc(Long productId, LocalDate day);
+
+    Optional<StockSnapshot> findFirstByProductIdOrderByDayAsc(Long productId);
+
+    @Query("SELECT s FROM StockSnapshot s WHERE s.day = " +
+            "(SELECT MAX(t.day) FROM StockSnapshot t WHERE t.productId = s.productId)")
+    List<StockSnapshot> findLatestPerProduct();
+}
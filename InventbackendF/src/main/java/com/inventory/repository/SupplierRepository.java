@@ -1,12 +1,25 @@
 package com.inventory.repository;
 
 import com.inventory.model.Supplier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     @Query("SELECT s FROM Supplier s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(s.email) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(s.address) LIKE LOWER(CONCAT('%', :q, '%'))")
     List<Supplier> search(String q);
+
+    @Query("SELECT s.version FROM Supplier s WHERE s.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    // Indexed text fields for rebuilding the in-memory search index; consume inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id, s.name, s.email, s.address FROM Supplier s")
+    Stream<Object[]> streamSearchFields();
 }
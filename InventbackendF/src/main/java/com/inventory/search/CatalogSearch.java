@@ -0,0 +1,134 @@
+package com.inventory.search;
+
+import com.inventory.model.Product;
+import com.inventory.model.Supplier;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Relevance-ranked product and supplier search served from in-memory indexes.
+ * <p>
+ * The indexes are built from the database once the application is ready and kept in sync by the services'
+ * save/delete paths. Until the first build completes {@link #isReady()} is false and callers should fall
+ * back to the SQL search.
+ */
+@Component
+public class CatalogSearch {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final ProductRepository productRepository;
+    private final SupplierRepository supplierRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object lock = new Object();
+    private volatile Indexes indexes = Indexes.empty();
+    private volatile boolean ready;
+    // Writes seen while a rebuild is loading, replayed onto the new indexes before they are swapped in
+    private List<Consumer<Indexes>> changedDuringRebuild;
+
+    public CatalogSearch(ProductRepository productRepository, SupplierRepository supplierRepository,
+                         TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.supplierRepository = supplierRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Long> searchProducts(String q, Integer limit) {
+        return keys(indexes.products().search(q, clamp(limit)));
+    }
+
+    public List<Long> searchSuppliers(String q, Integer limit) {
+        return keys(indexes.suppliers().search(q, clamp(limit)));
+    }
+
+    public void indexProduct(Product p) {
+        apply(ix -> ix.products().put(p.getId(), p.getName(), p.getCategory(), p.getDescription()));
+    }
+
+    public void removeProduct(Long id) {
+        apply(ix -> ix.products().remove(id));
+    }
+
+    public void indexSupplier(Supplier s) {
+        apply(ix -> ix.suppliers().put(s.getId(), s.getName(), s.getEmail(), s.getAddress()));
+    }
+
+    public void removeSupplier(Long id) {
+        apply(ix -> ix.suppliers().remove(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (lock) {
+            changedDuringRebuild = new ArrayList<>();
+        }
+        Indexes fresh = Indexes.empty();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = productRepository.streamSearchFields()) {
+                    rows.forEach(r -> fresh.products().put((Long) r[0], (String) r[1], (String) r[2], (String) r[3]));
+                }
+                try (Stream<Object[]> rows = supplierRepository.streamSearchFields()) {
+                    rows.forEach(r -> fresh.suppliers().put((Long) r[0], (String) r[1], (String) r[2], (String) r[3]));
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changedDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            changedDuringRebuild.forEach(change -> change.accept(fresh));
+            changedDuringRebuild = null;
+            indexes = fresh;
+            ready = true;
+        }
+    }
+
+    // Updates only tombstone old entries, so rebuild once they make up a large share of an index
+    @Scheduled(fixedDelayString = "${inventory.search.compaction-check-interval:PT10M}")
+    public void compactIfNeeded() {
+        Indexes current = indexes;
+        if (ready && (current.products().needsCompaction() || current.suppliers().needsCompaction())) {
+            rebuild();
+        }
+    }
+
+    private void apply(Consumer<Indexes> change) {
+        synchronized (lock) {
+            change.accept(indexes);
+            if (changedDuringRebuild != null) changedDuringRebuild.add(change);
+        }
+    }
+
+    private static int clamp(Integer limit) {
+        return limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    }
+
+    private static List<Long> keys(List<TrigramIndex.Hit> hits) {
+        return hits.stream().map(TrigramIndex.Hit::key).toList();
+    }
+
+    private record Indexes(TrigramIndex products, TrigramIndex suppliers) {
+        static Indexes empty() {
+            // Field weights: product name, category, description; supplier name, email, address
+            return new Indexes(new TrigramIndex(3f, 2f, 1f), new TrigramIndex(3f, 2f, 1f));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.inventory.search;
+
+import java.util.Arrays;
+
+/**
+ * Score per internal document for one query, as an open-addressing int to float map sized to the postings it
+ * reads rather than to the whole index. Documents are kept in the order first scored.
+ */
+final class DocScores {
+    private int[] docs;
+    private float[] scores;
+    private int size;
+    // Index into docs/scores plus one, 0 for a free slot; length a power of two, at most half full
+    private int[] slots;
+
+    DocScores(int expected) {
+        int capacity = Math.max(4, expected);
+        docs = new int[capacity];
+        scores = new float[capacity];
+        slots = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    void max(int doc, float score) {
+        int i = indexOf(doc);
+        if (score > scores[i]) scores[i] = score;
+    }
+
+    void add(int doc, float score) {
+        // indexOf may grow the arrays, so it runs before scores is read
+        int i = indexOf(doc);
+        scores[i] += score;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doc(int i) {
+        return docs[i];
+    }
+
+    float score(int i) {
+        return scores[i];
+    }
+
+    // The doc's index, added with score 0 if new
+    private int indexOf(int doc) {
+        int mask = slots.length - 1;
+        int slot = mix(doc) & mask;
+        while (slots[slot] != 0) {
+            int i = slots[slot] - 1;
+            if (docs[i] == doc) return i;
+            slot = (slot + 1) & mask;
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        docs[size] = doc;
+        scores[size] = 0;
+        slots[slot] = ++size;
+        if (size * 2 > slots.length) rehash();
+        return size - 1;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = mix(docs[i]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = i + 1;
+        }
+    }
+
+    // Doc ids are dense; spread them so neighbours do not cluster in the table
+    private static int mix(int doc) {
+        int h = doc * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,32 @@
+package com.inventory.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive int array, used for postings so large indexes avoid boxing.
+ */
+final class IntList {
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[capacity];
+    }
+
+    void add(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        values[size++] = value;
+    }
+
+    int get(int i) {
+        return values[i];
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,239 @@
+package com.inventory.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over a few weighted text fields per document.
+ * <p>
+ * Documents are split into words. Each distinct word gets a postings list of {@code (doc, field)} entries,
+ * and the vocabulary itself is indexed two ways: sorted, for prefix expansion, and by trigram, for
+ * typo-tolerant candidates that are then confirmed with a bounded edit distance. A query costs work
+ * proportional to the matching vocabulary and postings, not to the number of documents.
+ * <p>
+ * Updates append a fresh internal document and tombstone the old one; {@link #needsCompaction()} tells the
+ * owner when enough tombstones have piled up to be worth a rebuild.
+ */
+final class TrigramIndex {
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int FIELD_BITS = 2;
+    private static final int MAX_PREFIX_EXPANSION = 256;
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.75f;
+    private static final float ONE_EDIT = 0.5f;
+    private static final float TWO_EDITS = 0.3f;
+
+    record Hit(long key, float score) {
+    }
+
+    private final float[] fieldWeights;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final TreeMap<String, Integer> sortedTerms = new TreeMap<>();
+    private final Map<String, IntList> termsByGram = new HashMap<>();
+    private final List<IntList> postings = new ArrayList<>();
+
+    private final Map<Long, Integer> docByKey = new HashMap<>();
+    private long[] keys = new long[1024];
+    private int docCount;
+    private final BitSet dead = new BitSet();
+    private int deadCount;
+
+    TrigramIndex(float... fieldWeights) {
+        if (fieldWeights.length > 1 << FIELD_BITS) throw new IllegalArgumentException("Too many fields");
+        this.fieldWeights = fieldWeights;
+    }
+
+    void put(long key, String... fields) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            int doc = docCount++;
+            if (doc == keys.length) keys = Arrays.copyOf(keys, doc * 2);
+            keys[doc] = key;
+            docByKey.put(key, doc);
+            for (int f = 0; f < fields.length && f < fieldWeights.length; f++) {
+                for (String word : tokenize(fields[f])) {
+                    postings.get(intern(word)).add(doc << FIELD_BITS | f);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return deadCount > 1024 && deadCount > docCount / 4;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks documents by the sum, over query words, of the best matching term in each document weighted by field.
+     * Exact words score highest, then prefixes, then words within one or two edits.
+     */
+    List<Hit> search(String query, int limit) {
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty() || limit <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            // Accumulators sized to the postings read, so a query costs nothing per indexed document
+            DocScores total = null;
+            for (String word : words) {
+                Map<Integer, Float> matches = matchTerms(word);
+                long hits = 0;
+                for (Integer term : matches.keySet()) hits += postings.get(term).size();
+                DocScores wordBest = new DocScores((int) Math.min(hits, docByKey.size()));
+                for (Map.Entry<Integer, Float> match : matches.entrySet()) {
+                    IntList list = postings.get(match.getKey());
+                    for (int i = 0; i < list.size(); i++) {
+                        int entry = list.get(i);
+                        int doc = entry >>> FIELD_BITS;
+                        if (dead.get(doc)) continue;
+                        wordBest.max(doc, match.getValue() * fieldWeights[entry & ((1 << FIELD_BITS) - 1)]);
+                    }
+                }
+                // Each query word contributes only its best match per document
+                if (total == null) total = new DocScores(wordBest.size());
+                for (int i = 0; i < wordBest.size(); i++) total.add(wordBest.doc(i), wordBest.score(i));
+            }
+
+            Comparator<Hit> worstFirst = Comparator.comparingDouble(Hit::score)
+                    .thenComparing(Comparator.comparingLong(Hit::key).reversed());
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, worstFirst);
+            for (int i = 0; i < total.size(); i++) {
+                float score = total.score(i);
+                if (top.size() == limit && score < top.peek().score()) continue;
+                top.add(new Hit(keys[total.doc(i)], score));
+                if (top.size() > limit) top.poll();
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(worstFirst.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Float> matchTerms(String word) {
+        Map<Integer, Float> matches = new HashMap<>();
+        int expanded = 0;
+        for (Map.Entry<String, Integer> e : sortedTerms.tailMap(word, true).entrySet()) {
+            if (!e.getKey().startsWith(word) || expanded++ >= MAX_PREFIX_EXPANSION) break;
+            matches.put(e.getValue(), e.getKey().length() == word.length() ? EXACT : PREFIX);
+        }
+        int maxEdits = word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0) return matches;
+
+        // Typo candidates must share enough trigrams to possibly be within maxEdits, then are verified exactly
+        Map<Integer, Integer> shared = new HashMap<>();
+        Set<String> grams = grams(word);
+        for (String gram : grams) {
+            IntList ids = termsByGram.get(gram);
+            if (ids == null) continue;
+            for (int i = 0; i < ids.size(); i++) shared.merge(ids.get(i), 1, Integer::sum);
+        }
+        int required = Math.max(1, grams.size() - 3 * maxEdits);
+        for (Map.Entry<Integer, Integer> e : shared.entrySet()) {
+            if (e.getValue() < required || matches.containsKey(e.getKey())) continue;
+            int edits = editDistance(word, terms.get(e.getKey()), maxEdits);
+            if (edits <= maxEdits) matches.put(e.getKey(), edits == 1 ? ONE_EDIT : TWO_EDITS);
+        }
+        return matches;
+    }
+
+    private int intern(String word) {
+        Integer id = termIds.get(word);
+        if (id != null) return id;
+        int newId = terms.size();
+        terms.add(word);
+        termIds.put(word, newId);
+        sortedTerms.put(word, newId);
+        postings.add(new IntList(2));
+        for (String gram : grams(word)) termsByGram.computeIfAbsent(gram, g -> new IntList()).add(newId);
+        return newId;
+    }
+
+    private void removeLocked(long key) {
+        Integer doc = docByKey.remove(key);
+        if (doc != null) {
+            dead.set(doc);
+            deadCount++;
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) return words;
+        for (String w : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return words;
+    }
+
+    private static Set<String> grams(String word) {
+        String padded = "$" + word + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) grams.add(padded.substring(i, i + 3));
+        return grams;
+    }
+
+    // Levenshtein distance, giving up once it must exceed max
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return Math.min(prev[b.length()], max + 1);
+    }
+}
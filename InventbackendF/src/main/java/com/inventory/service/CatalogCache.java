@@ -0,0 +1,43 @@
+package com.inventory.service;
+
+import com.inventory.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-side invalidation for the catalogue caches. Reads go through {@code @Cacheable(sync = true)},
+ * so an eviction waits for any in-flight load of the same key and a stale load can never survive it.
+ * Every eviction is also a change for {@link CatalogVersions}, which backs the HTTP validators.
+ */
+@Component
+public class CatalogCache {
+    private final Cache products;
+    private final Cache suppliers;
+    private final CatalogVersions catalogVersions;
+
+    public CatalogCache(CacheManager cacheManager, CatalogVersions catalogVersions) {
+        this.products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.suppliers = cacheManager.getCache(CacheConfig.SUPPLIERS);
+        this.catalogVersions = catalogVersions;
+    }
+
+    public void evictProduct(Long id) {
+        products.evict(id);
+        catalogVersions.productChanged(id);
+    }
+
+    // For bulk writes that bypass the per-product paths
+    public void evictAllProducts() {
+        products.clear();
+        catalogVersions.productsChanged();
+    }
+
+    // Cached products embed their supplier, so supplier writes drop the product entries too
+    public void evictSupplier(Long id) {
+        suppliers.evict(id);
+        products.clear();
+        catalogVersions.suppliersChanged();
+        catalogVersions.productsChanged();
+    }
+}
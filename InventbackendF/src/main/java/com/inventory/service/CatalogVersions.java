@@ -0,0 +1,269 @@
+package com.inventory.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Change counters behind the catalogue's HTTP validators. Each product or supplier write bumps its collection's
+ * revision, so list endpoints can answer {@code If-None-Match} from memory, and the products changed recently are
+ * remembered by id so a polling client can fetch only those.
+ * <p>
+ * Version tokens name a revision of the collection's row in {@code catalog_revisions}, which every node bumps, so
+ * a token means the same on every node. Local writes are not published one by one: until the next periodic sync
+ * bumps the shared revision once for all of them, this node's tokens also carry its own count of them. A sync also
+ * reads the shared revision; a bump this node did not make is a change made elsewhere, whose products are unknown,
+ * so it forgets the change log and delta clients fall back to one full fetch. This node's own writes never do.
+ */
+@Component
+public class CatalogVersions {
+    private static final String READ = "SELECT epoch, revision, modified_at FROM catalog_revisions WHERE name = ?";
+    private static final String CREATE = "INSERT INTO catalog_revisions (name, epoch, revision, modified_at) VALUES (?, ?, 0, ?)";
+    private static final String BUMP = "UPDATE catalog_revisions SET revision = revision + 1, modified_at = ? WHERE name = ?";
+
+    /**
+     * A collection's current version token and the time (epoch millis) it last changed.
+     */
+    public record Stamp(String version, long lastModified) {
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+    }
+
+    /**
+     * Products changed after a client's version, or {@code ids == null} when the change log does not reach back
+     * that far and the client has to fetch everything.
+     */
+    public record Changes(String version, Set<Long> ids) {
+    }
+
+    private record Row(String epoch, long revision, long modifiedAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int changeLogSize;
+    // Names this node in tokens for changes it has not published yet
+    private final String node = randomId();
+
+    private final Object lock = new Object();
+    private final Object syncLock = new Object();
+    private final Series products;
+    private final Series suppliers;
+
+    @Autowired
+    public CatalogVersions(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           @Value("${inventory.catalog.change-log-size:10000}") int changeLogSize) {
+        this(jdbcTemplate, transactionTemplate, changeLogSize, Clock.systemUTC());
+    }
+
+    CatalogVersions(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int changeLogSize, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeLogSize = changeLogSize;
+        this.clock = clock;
+        this.products = new Series("products", true, clock.millis());
+        this.suppliers = new Series("suppliers", false, clock.millis());
+    }
+
+    public Stamp products() {
+        synchronized (lock) {
+            return new Stamp(products.token(), products.modified);
+        }
+    }
+
+    public Stamp suppliers() {
+        synchronized (lock) {
+            return new Stamp(suppliers.token(), suppliers.modified);
+        }
+    }
+
+    // Call after the write commits
+    public void productChanged(Long id) {
+        synchronized (lock) {
+            products.change(id, clock.millis());
+        }
+    }
+
+    // For writes that do not say which products they touched
+    public void productsChanged() {
+        synchronized (lock) {
+            products.change(null, clock.millis());
+        }
+    }
+
+    public void suppliersChanged() {
+        synchronized (lock) {
+            suppliers.change(null, clock.millis());
+        }
+    }
+
+    public Changes productChangesSince(String version) {
+        synchronized (lock) {
+            String current = products.token();
+            long since = products.localOf(version);
+            if (since < products.floor || since > products.local) return new Changes(current, null);
+            Set<Long> ids = new LinkedHashSet<>();
+            products.changed.forEach((id, revision) -> {
+                if (revision > since) ids.add(id);
+            });
+            return new Changes(current, ids);
+        }
+    }
+
+    // Publishes this node's writes and picks up everyone else's
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${inventory.catalog.cross-check-interval:PT1S}",
+            fixedDelayString = "${inventory.catalog.cross-check-interval:PT1S}")
+    public void crossCheck() {
+        synchronized (syncLock) {
+            sync(products);
+            sync(suppliers);
+        }
+    }
+
+    private void sync(Series series) {
+        Row seen = read(series.name);
+        long target;
+        synchronized (lock) {
+            if (!seen.epoch().equals(series.epoch) || seen.revision() != series.shared) series.foreign(seen);
+            if (series.published == series.local) return;
+            target = series.local;
+        }
+        // Read back under the row lock: exactly the revision this bump made
+        Row bumped = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(BUMP, clock.millis(), series.name);
+            return read(series.name);
+        });
+        synchronized (lock) {
+            series.published(target, bumped);
+        }
+    }
+
+    private Row read(String name) {
+        List<Row> rows = jdbcTemplate.query(READ, (rs, i) -> new Row(rs.getString(1), rs.getLong(2), rs.getLong(3)), name);
+        if (!rows.isEmpty()) return rows.get(0);
+        try {
+            jdbcTemplate.update(CREATE, name, randomId(), clock.millis());
+        } catch (DuplicateKeyException e) {
+            // Created by another node meanwhile
+        }
+        return read(name);
+    }
+
+    private static String randomId() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    }
+
+    /**
+     * One collection's revisions, guarded by {@code lock}. Local revisions count this node's changes and order the
+     * change log; the shared revision is the collection's {@code catalog_revisions} row as this node last saw it.
+     */
+    private final class Series {
+        final String name;
+        // Latest local revision per changed id, oldest first; only kept for products
+        final LinkedHashMap<Long, Long> changed = new LinkedHashMap<>();
+        final boolean trackIds;
+        // Until the first sync, tokens are this node's alone
+        String epoch = node;
+        long shared;
+        long modified;
+        long local;
+        // Local revision covered by this node's latest bump of the shared revision
+        long published;
+        // Oldest local revision a delta can be answered from
+        long floor;
+        // Local revision at each shared revision this node reached with nothing left to publish
+        final TreeMap<Long, Long> placed = new TreeMap<>();
+
+        Series(String name, boolean trackIds, long now) {
+            this.name = name;
+            this.trackIds = trackIds;
+            this.modified = now;
+        }
+
+        String token() {
+            return published == local ? epoch + "." + shared : epoch + "." + shared + "." + node + "." + local;
+        }
+
+        // -1 for tokens from another epoch or node, or that do not parse
+        long localOf(String version) {
+            if (version == null) return -1;
+            String[] parts = version.split("\\.");
+            if (!parts[0].equals(epoch)) return -1;
+            try {
+                if (parts.length == 2) return placed.getOrDefault(Long.parseLong(parts[1]), -1L);
+                if (parts.length == 4 && parts[2].equals(node)) return Long.parseLong(parts[3]);
+            } catch (NumberFormatException e) {
+                // Falls through
+            }
+            return -1;
+        }
+
+        void change(Long id, long now) {
+            local++;
+            modified = now;
+            if (id == null || !trackIds) {
+                forget();
+                return;
+            }
+            changed.remove(id);
+            changed.put(id, local);
+            if (changed.size() > changeLogSize) {
+                Map.Entry<Long, Long> eldest = changed.entrySet().iterator().next();
+                floor = eldest.getValue();
+                changed.remove(eldest.getKey());
+            }
+        }
+
+        // A change made elsewhere, or the first sight of the shared row
+        void foreign(Row row) {
+            boolean clean = published == local;
+            local++;
+            forget();
+            if (clean) published = local;
+            epoch = row.epoch();
+            shared = row.revision();
+            modified = Math.max(modified, row.modifiedAt());
+            if (clean) placed.put(shared, local);
+        }
+
+        void published(long target, Row row) {
+            boolean caughtUp = local == target;
+            // Bumped by another node as well since this one last looked
+            if (row.revision() - 1 != shared) {
+                local++;
+                forget();
+            }
+            published = caughtUp ? local : target;
+            shared = row.revision();
+            modified = Math.max(modified, row.modifiedAt());
+            if (caughtUp) {
+                placed.put(shared, local);
+                if (placed.size() > changeLogSize) placed.pollFirstEntry();
+            }
+        }
+
+        private void forget() {
+            floor = local;
+            changed.clear();
+            placed.clear();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.inventory.service;
+
+import com.inventory.dto.DailyMovement;
+import com.inventory.dto.DemandForecast;
+import com.inventory.dto.ProductStockView;
+import com.inventory.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Per-product demand forecasts and reorder suggestions, recomputed in the background from daily OUT units.
+ * <p>
+ * A product's daily demand over the last {@code history-days} complete days, from its first movement in that
+ * window, is smoothed with a bias-corrected exponentially weighted moving average into a demand rate and the
+ * deviation of daily demand around it. The reorder point covers the rate over the lead time plus {@code service-z}
+ * deviations of lead-time demand; at or below it the suggested order tops stock up to the reorder point plus
+ * {@code cover-days} of demand.
+ * <p>
+ * Products are read and computed in id-range chunks, {@code parallelism} chunks at a time, so memory is bounded by
+ * the chunk size rather than the catalogue. Results are kept in flat arrays and replaced as a whole when a run
+ * completes; quantities in them are as of that run. The first run starts in the background once the application is
+ * ready; suggestions requested before it completes wait for it.
+ */
+@Service
+public class DemandForecastService {
+    static final int MAX_SUGGESTIONS = 500;
+
+    private final ProductRepository productRepository;
+    private final MovementHistory movementHistory;
+    private final int historyDays;
+    private final double alpha;
+    private final int leadTimeDays;
+    private final double serviceZ;
+    private final int coverDays;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final Clock clock;
+    // One run at a time; readers that find no results wait for the run in progress, and run one only if none has
+    // completed once they hold it
+    private final ReentrantLock running = new ReentrantLock();
+    private volatile Forecasts forecasts;
+
+    @Autowired
+    public DemandForecastService(ProductRepository productRepository, MovementHistory movementHistory,
+                                 @Value("${inventory.forecast.history-days:365}") int historyDays,
+                                 @Value("${inventory.forecast.alpha:0.1}") double alpha,
+                                 @Value("${inventory.forecast.lead-time-days:7}") int leadTimeDays,
+                                 @Value("${inventory.forecast.service-z:1.65}") double serviceZ,
+                                 @Value("${inventory.forecast.cover-days:30}") int coverDays,
+                                 @Value("${inventory.forecast.chunk-size:1000}") int chunkSize,
+                                 @Value("${inventory.forecast.parallelism:4}") int parallelism) {
+        this(productRepository, movementHistory, historyDays, alpha, leadTimeDays, serviceZ, coverDays, chunkSize, parallelism,
+                Clock.systemDefaultZone());
+    }
+
+    DemandForecastService(ProductRepository productRepository, MovementHistory movementHistory, int historyDays, double alpha,
+                          int leadTimeDays, double serviceZ, int coverDays, int chunkSize, int parallelism, Clock clock) {
+        if (historyDays < 1 || historyDays > MovementHistory.MAX_DAYS) {
+            throw new IllegalStateException("inventory.forecast.history-days must be between 1 and " + MovementHistory.MAX_DAYS);
+        }
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalStateException("inventory.forecast.alpha must be in (0, 1]");
+        }
+        if (leadTimeDays < 0 || coverDays < 0 || chunkSize < 1 || parallelism < 1) {
+            throw new IllegalStateException("inventory.forecast lead-time-days and cover-days must not be negative, chunk-size and parallelism must be positive");
+        }
+        this.productRepository = productRepository;
+        this.movementHistory = movementHistory;
+        this.historyDays = historyDays;
+        this.alpha = alpha;
+        this.leadTimeDays = leadTimeDays;
+        this.serviceZ = serviceZ;
+        this.coverDays = coverDays;
+        this.chunkSize = chunkSize;
+        this.pool = new ForkJoinPool(parallelism);
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startFirstRun() {
+        Thread t = new Thread(this::results, "demand-forecast");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @Scheduled(initialDelayString = "${inventory.forecast.interval:PT6H}",
+            fixedDelayString = "${inventory.forecast.interval:PT6H}")
+    public void scheduledRecompute() {
+        recompute();
+    }
+
+    // Forecasts every product; returns the number of products forecast
+    public int recompute() {
+        running.lock();
+        try {
+            LocalDate today = LocalDate.now(clock);
+            LocalDate from = today.minusDays(historyDays);
+            LocalDate to = today.minusDays(1);
+            Long min = productRepository.findMinId();
+            Long max = productRepository.findMaxId();
+            List<Chunk> chunks = List.of();
+            if (min != null) {
+                long count = (max - min) / chunkSize + 1;
+                // A parallel stream started inside the pool runs on the pool's workers only
+                chunks = pool.submit(() -> LongStream.range(0, count).parallel()
+                        .mapToObj(i -> compute(min + i * chunkSize, min + (i + 1) * chunkSize, from, to))
+                        .toList()).join();
+            }
+            Forecasts next = new Forecasts(chunks, LocalDateTime.now(clock));
+            forecasts = next;
+            return next.ids.length;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    // The last run's forecast, or one computed now for a product that run did not see
+    public DemandForecast forecast(Long productId) {
+        Forecasts current = forecasts;
+        if (current != null) {
+            int i = Arrays.binarySearch(current.ids, productId);
+            if (i >= 0) return current.get(i);
+        }
+        LocalDate today = LocalDate.now(clock);
+        Chunk single = compute(productId, productId + 1, today.minusDays(historyDays), today.minusDays(1));
+        if (single.ids.length == 0) throw new RuntimeException("Product not found");
+        return new Forecasts(List.of(single), LocalDateTime.now(clock)).get(0);
+    }
+
+    // Products at or below their reorder point, fewest days of cover first
+    public List<DemandForecast> suggestions(Integer limit) {
+        int size = limit == null || limit <= 0 ? 50 : Math.min(limit, MAX_SUGGESTIONS);
+        Forecasts current = results();
+        List<DemandForecast> items = new ArrayList<>(Math.min(size, current.suggested.length));
+        for (int i = 0; i < size && i < current.suggested.length; i++) items.add(current.get(current.suggested[i]));
+        return items;
+    }
+
+    // The latest run's results, waiting for the first run if there has been none
+    private Forecasts results() {
+        Forecasts current = forecasts;
+        if (current != null) return current;
+        running.lock();
+        try {
+            if (forecasts == null) recompute();
+            return forecasts;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    private Chunk compute(long firstId, long endId, LocalDate from, LocalDate to) {
+        List<ProductStockView> products = productRepository.findStockViewsBetween(firstId, endId);
+        Chunk chunk = new Chunk(products.size());
+        if (products.isEmpty()) return chunk;
+        Map<Long, List<DailyMovement>> byProduct = new HashMap<>();
+        for (DailyMovement d : movementHistory.dailyForProducts(firstId, endId, from, to)) {
+            byProduct.computeIfAbsent(d.productId(), id -> new ArrayList<>()).add(d);
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        long[] demand = new long[days];
+        for (int k = 0; k < products.size(); k++) {
+            ProductStockView p = products.get(k);
+            Arrays.fill(demand, 0);
+            int first = days;
+            for (DailyMovement d : byProduct.getOrDefault(p.id(), List.of())) {
+                int i = (int) ChronoUnit.DAYS.between(from, d.day());
+                demand[i] += d.outUnits();
+                first = Math.min(first, i);
+            }
+            double[] smoothed = smooth(demand, first, days, alpha);
+            double rate = smoothed[0];
+            int reorderPoint = units(rate * leadTimeDays + serviceZ * smoothed[1] * Math.sqrt(leadTimeDays));
+            int order = p.quantity() <= reorderPoint && rate > 0 ? Math.max(0, units(reorderPoint + rate * coverDays) - p.quantity()) : 0;
+            chunk.set(k, p, rate, smoothed[1], reorderPoint, order);
+        }
+        return chunk;
+    }
+
+    // Whole units, rounded up; the tolerance keeps a rate of 9.999999999 times 7 days from becoming 71
+    private static int units(double value) {
+        return (int) Math.ceil(value - 1e-6);
+    }
+
+    // [rate, deviation] of demand[first, end); the weights are normalised so short histories are not pulled to zero
+    static double[] smooth(long[] demand, int first, int end, double alpha) {
+        double sum = 0;
+        double weight = 0;
+        double level = 0;
+        double squares = 0;
+        double squaresWeight = 0;
+        for (int i = first; i < end; i++) {
+            double d = demand[i];
+            // Each day's error against the rate known the day before
+            if (weight > 0) {
+                double error = d - level;
+                squares = (1 - alpha) * squares + alpha * error * error;
+                squaresWeight = (1 - alpha) * squaresWeight + alpha;
+            }
+            sum = (1 - alpha) * sum + alpha * d;
+            weight = (1 - alpha) * weight + alpha;
+            level = sum / weight;
+        }
+        return new double[]{level, squaresWeight > 0 ? Math.sqrt(squares / squaresWeight) : 0};
+    }
+
+    private static final class Chunk {
+        final long[] ids;
+        final float[] rate;
+        final float[] deviation;
+        final int[] quantity;
+        final int[] reorderLevel;
+        final int[] reorderPoint;
+        final int[] order;
+
+        Chunk(int size) {
+            ids = new long[size];
+            rate = new float[size];
+            deviation = new float[size];
+            quantity = new int[size];
+            reorderLevel = new int[size];
+            reorderPoint = new int[size];
+            order = new int[size];
+        }
+
+        void set(int k, ProductStockView p, double rate, double deviation, int reorderPoint, int order) {
+            this.ids[k] = p.id();
+            this.rate[k] = (float) rate;
+            this.deviation[k] = (float) deviation;
+            this.quantity[k] = p.quantity();
+            this.reorderLevel[k] = p.reorderLevel();
+            this.reorderPoint[k] = reorderPoint;
+            this.order[k] = order;
+        }
+    }
+
+    // All products of one run in id order, about 32 bytes each
+    private static final class Forecasts {
+        final long[] ids;
+        final float[] rate;
+        final float[] deviation;
+        final int[] quantity;
+        final int[] reorderLevel;
+        final int[] reorderPoint;
+        final int[] order;
+        final int[] suggested;
+        final LocalDateTime computedAt;
+
+        Forecasts(List<Chunk> chunks, LocalDateTime computedAt) {
+            int size = chunks.stream().mapToInt(c -> c.ids.length).sum();
+            ids = new long[size];
+            rate = new float[size];
+            deviation = new float[size];
+            quantity = new int[size];
+            reorderLevel = new int[size];
+            reorderPoint = new int[size];
+            order = new int[size];
+            int at = 0;
+            for (Chunk c : chunks) {
+                int n = c.ids.length;
+                System.arraycopy(c.ids, 0, ids, at, n);
+                System.arraycopy(c.rate, 0, rate, at, n);
+                System.arraycopy(c.deviation, 0, deviation, at, n);
+                System.arraycopy(c.quantity, 0, quantity, at, n);
+                System.arraycopy(c.reorderLevel, 0, reorderLevel, at, n);
+                System.arraycopy(c.reorderPoint, 0, reorderPoint, at, n);
+                System.arraycopy(c.order, 0, order, at, n);
+                at += n;
+            }
+            suggested = IntStream.range(0, size).filter(i -> order[i] > 0).boxed()
+                    .sorted(Comparator.comparingDouble((Integer i) -> daysOfCover(i)).thenComparingLong(i -> ids[i]))
+                    .limit(MAX_SUGGESTIONS)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            this.computedAt = computedAt;
+        }
+
+        private float daysOfCover(int i) {
+            return rate[i] > 0 ? quantity[i] / rate[i] : Float.POSITIVE_INFINITY;
+        }
+
+        DemandForecast get(int i) {
+            return new DemandForecast(ids[i], rate[i], deviation[i], quantity[i], reorderLevel[i], reorderPoint[i], order[i],
+                    rate[i] > 0 ? daysOfCover(i) : null, computedAt);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.inventory.service;
+
+/**
+ * An {@code Idempotency-Key} that cannot be answered: another request with it is still executing, or it was
+ * first used for a different request.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    private final boolean inProgress;
+
+    public IdempotencyConflictException(String message, boolean inProgress) {
+        super(message);
+        this.inProgress = inProgress;
+    }
+
+    public boolean isInProgress() { return inProgress; }
+}
@@ -0,0 +1,238 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.auth.AuthUser;
+import com.inventory.model.IdempotencyRecord;
+import com.inventory.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs stock movement requests at most once per {@code Idempotency-Key}.
+ * <p>
+ * Keys are scoped to the user. The first request claims its key with a row in {@code idempotency_keys}, runs, and
+ * records its response there and in a bounded in-memory tier of recent responses; retries within the TTL get that
+ * response back, marked with {@code Idempotent-Replayed}, without running again. Duplicates arriving while the
+ * first is still running wait for it for up to {@code wait}, after which they get 409: on this instance through its
+ * pending result, on another by polling the row. A key reused for a different endpoint or body gets 422.
+ * Requests that fail release their key so the client can retry. A claim older than {@code lease} is taken to be
+ * from a crashed instance and taken over; a crash between the movement's commit and recording its response can
+ * therefore still apply that one movement twice.
+ */
+@Service
+public class IdempotencyService {
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 200;
+    private static final long POLL_MILLIS = 50;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration wait;
+    private final Clock clock;
+    private final Cache<String, Stored> recent;
+    // Requests executing on this instance, which duplicates wait on
+    private final ConcurrentMap<String, CompletableFuture<Stored>> running = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository, TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${inventory.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${inventory.idempotency.hot-entries:10000}") long hotEntries,
+                              @Value("${inventory.idempotency.lease:PT30S}") Duration lease,
+                              @Value("${inventory.idempotency.wait:PT5S}") Duration wait) {
+        this(repository, transactionTemplate, objectMapper, ttl, hotEntries, lease, wait, Clock.systemDefaultZone());
+    }
+
+    IdempotencyService(IdempotencyRecordRepository repository, TransactionTemplate transactionTemplate,
+                       ObjectMapper objectMapper, Duration ttl, long hotEntries, Duration lease, Duration wait, Clock clock) {
+        if (ttl.compareTo(lease) <= 0 || lease.isNegative() || lease.isZero()) {
+            throw new IllegalStateException("inventory.idempotency.lease must be positive and shorter than the ttl");
+        }
+        if (hotEntries < 0 || wait.isNegative()) {
+            throw new IllegalStateException("inventory.idempotency hot-entries and wait must not be negative");
+        }
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.wait = wait;
+        this.clock = clock;
+        this.recent = Caffeine.newBuilder().maximumSize(hotEntries).expireAfterWrite(ttl).build();
+    }
+
+    @Scheduled(initialDelayString = "${inventory.idempotency.purge-interval:PT1H}",
+            fixedDelayString = "${inventory.idempotency.purge-interval:PT1H}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    // Drops keys older than the TTL; returns the number dropped
+    public int purge() {
+        LocalDateTime before = LocalDateTime.now(clock).minus(ttl);
+        return transactionTemplate.execute(status -> repository.deleteCreatedBefore(before));
+    }
+
+    // The action's response, or the one recorded for this user's key; without a key the action just runs
+    public ResponseEntity<?> execute(AuthUser user, String key, String endpoint, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException(KEY_HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = (user != null ? user.id() : "") + ":" + key;
+        String fingerprint = fingerprint(endpoint, request);
+
+        Stored done = recent.getIfPresent(id);
+        if (done != null) return replay(done, fingerprint);
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> other = running.putIfAbsent(id, mine);
+        if (other != null) return replay(await(other), fingerprint);
+        try {
+            Stored stored = claimed(id, fingerprint);
+            if (stored != null) {
+                mine.complete(stored);
+                return replay(stored, fingerprint);
+            }
+            ResponseEntity<?> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException | Error e) {
+                transactionTemplate.execute(status -> repository.release(id));
+                throw e;
+            }
+            stored = new Stored(fingerprint, response.getStatusCode().value(), json(response.getBody()));
+            Stored record = stored;
+            transactionTemplate.execute(status -> repository.complete(id, record.status, record.body));
+            recent.put(id, stored);
+            mine.complete(stored);
+            return response;
+        } catch (RuntimeException | Error e) {
+            // Duplicates waiting here get the same failure rather than running the request again
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(id, mine);
+        }
+    }
+
+    // Claims the key for this request, or returns the response another request recorded under it
+    private Stored claimed(String id, String fingerprint) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            try {
+                transactionTemplate.execute(status -> repository.claim(id, fingerprint, now));
+                return null;
+            } catch (DataIntegrityViolationException taken) {
+                // Held by another request, possibly one that has since finished
+            }
+            Optional<IdempotencyRecord> row = repository.findById(id);
+            if (row.isEmpty()) continue;
+            IdempotencyRecord r = row.get();
+            if (!r.getFingerprint().equals(fingerprint)) throw mismatch();
+            if (r.getStatus() != null) {
+                Stored stored = new Stored(r.getFingerprint(), r.getStatus(), r.getResponse());
+                recent.put(id, stored);
+                return stored;
+            }
+            if (transactionTemplate.execute(status -> repository.reclaim(id, fingerprint, now.minus(lease), now)) == 1) {
+                return null;
+            }
+            if (System.nanoTime() > deadline) {
+                throw inProgress();
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw inProgress();
+            }
+        }
+    }
+
+    // Waits up to `wait` for the request running on this instance; a copy times out, so the shared future does not
+    private Stored await(CompletableFuture<Stored> other) {
+        try {
+            return other.copy().orTimeout(wait.toNanos(), TimeUnit.NANOSECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) throw inProgress();
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            if (e.getCause() instanceof Error r) throw r;
+            throw e;
+        } catch (CancellationException e) {
+            throw inProgress();
+        }
+    }
+
+    private ResponseEntity<?> replay(Stored stored, String fingerprint) {
+        if (!stored.fingerprint.equals(fingerprint)) throw mismatch();
+        try {
+            return ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true")
+                    .body(stored.body != null ? objectMapper.readTree(stored.body) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static IdempotencyConflictException inProgress() {
+        return new IdempotencyConflictException("A request with this " + KEY_HEADER + " is still in progress", true);
+    }
+
+    private static IdempotencyConflictException mismatch() {
+        return new IdempotencyConflictException(KEY_HEADER + " was already used for a different request", false);
+    }
+
+    private String fingerprint(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String json(Object body) {
+        try {
+            return body != null ? objectMapper.writeValueAsString(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // A recorded response, its body as JSON text
+    private record Stored(String fingerprint, int status, String body) {
+    }
+}
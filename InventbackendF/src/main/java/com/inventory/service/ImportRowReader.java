@@ -0,0 +1,224 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads catalogue import rows one at a time from CSV (with a header row) or NDJSON, so an import never holds
+ * more than the current row. A row that cannot be parsed comes back with its error set rather than failing the
+ * whole file.
+ */
+abstract class ImportRowReader implements Closeable {
+    static final String CSV = "csv";
+    static final String NDJSON = "ndjson";
+
+    /**
+     * One parsed row. {@code line} is where the row starts in the file, counting from 1.
+     */
+    record Row(long line, String sku, String name, String description, String category, String supplier,
+               Integer quantity, Double price, String warehouseLocation, Integer reorderLevel, String error) {
+
+        static Row failed(long line, String error) {
+            return new Row(line, null, null, null, null, null, null, null, null, null, error);
+        }
+    }
+
+    // Null at the end of input
+    abstract Row next() throws IOException;
+
+    static ImportRowReader open(String format, Reader in, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(in);
+            case NDJSON -> new Ndjson(in, objectMapper);
+            default -> throw new RuntimeException("Unsupported import format: " + format);
+        };
+    }
+
+    private static final class Csv extends ImportRowReader {
+        private static final int BUFFER_SIZE = 64 * 1024;
+        // Header names match case-insensitively, ignoring separators and a BOM: reorder_level, Reorder Level
+        private static final List<String> COLUMNS = List.of("sku", "name", "description", "category", "supplier",
+                "quantity", "price", "warehouselocation", "reorderlevel");
+
+        private final Reader in;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private long line = 1;
+        private final int[] columnIndex = new int[COLUMNS.size()];
+        private final StringBuilder field = new StringBuilder();
+
+        Csv(Reader in) throws IOException {
+            this.in = in;
+            List<String> header = readRecord();
+            if (header == null) throw new RuntimeException("CSV file is empty");
+            Arrays.fill(columnIndex, -1);
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+                int column = COLUMNS.indexOf(name.equals("suppliername") ? "supplier" : name);
+                if (column >= 0) columnIndex[column] = i;
+            }
+            if (columnIndex[0] < 0 || columnIndex[1] < 0) throw new RuntimeException("CSV header must include sku and name");
+        }
+
+        @Override
+        Row next() throws IOException {
+            while (true) {
+                long start = line;
+                List<String> fields;
+                try {
+                    fields = readRecord();
+                } catch (MalformedRecord e) {
+                    return Row.failed(start, e.getMessage());
+                }
+                if (fields == null) return null;
+                if (fields.size() == 1 && fields.get(0).isEmpty()) continue; // blank line
+                try {
+                    return new Row(start, text(fields, 0), text(fields, 1), text(fields, 2), text(fields, 3), text(fields, 4),
+                            integer(fields, 5), decimal(fields, 6), text(fields, 7), integer(fields, 8), null);
+                } catch (NumberFormatException e) {
+                    return Row.failed(start, e.getMessage());
+                }
+            }
+        }
+
+        private String text(List<String> fields, int column) {
+            int i = columnIndex[column];
+            if (i < 0 || i >= fields.size()) return null;
+            String value = fields.get(i).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private Integer integer(List<String> fields, int column) {
+            String value = text(fields, column);
+            if (value == null) return null;
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("Invalid " + COLUMNS.get(column) + ": " + value);
+            }
+        }
+
+        private Double decimal(List<String> fields, int column) {
+            String value = text(fields, column);
+            if (value == null) return null;
+            try {
+                return Double.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("Invalid " + COLUMNS.get(column) + ": " + value);
+            }
+        }
+
+        // One RFC 4180 record; quoted fields may contain separators, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c < 0) return null;
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new MalformedRecord("Unterminated quoted field");
+                    } else if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c < 0) {
+                    if (c == '\n') line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class Ndjson extends ImportRowReader {
+        private final BufferedReader in;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        Ndjson(Reader in, ObjectMapper objectMapper) {
+            this.in = in instanceof BufferedReader b ? b : new BufferedReader(in, 64 * 1024);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String text;
+            do {
+                text = in.readLine();
+                line++;
+                if (text == null) return null;
+            } while (text.isBlank());
+            try {
+                JsonRow r = objectMapper.readValue(text, JsonRow.class);
+                return new Row(line, blankToNull(r.sku()), blankToNull(r.name()), blankToNull(r.description()),
+                        blankToNull(r.category()), blankToNull(r.supplier()), r.quantity(), r.price(),
+                        blankToNull(r.warehouseLocation()), r.reorderLevel(), null);
+            } catch (JsonProcessingException e) {
+                return Row.failed(line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        private static String blankToNull(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private record JsonRow(String sku, String name, String description, String category, String supplier,
+                               Integer quantity, Double price, String warehouseLocation, Integer reorderLevel) {
+        }
+    }
+
+    private static final class MalformedRecord extends IOException {
+        MalformedRecord(String message) {
+            super(message);
+        }
+    }
+}
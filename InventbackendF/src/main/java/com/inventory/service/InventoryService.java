@@ -1,64 +1,499 @@
 package com.inventory.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.BatchResult;
+import com.inventory.dto.DailyMovement;
+import com.inventory.dto.InventoryLogView;
+import com.inventory.dto.LogCursor;
+import com.inventory.dto.LogPage;
+import com.inventory.dto.MovementResult;
+import com.inventory.dto.ProductStockView;
+import com.inventory.dto.StockAt;
+import com.inventory.dto.StockLevelView;
+import com.inventory.dto.StockMovement;
 import com.inventory.model.InventoryLog;
 import com.inventory.model.Product;
+import com.inventory.model.StockLevel;
 import com.inventory.repository.InventoryLogRepository;
 import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockLevelRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "inventory.service", description = "InventoryService operations", histogram = true)
 public class InventoryService {
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 1000;
+    // Open ends of a log page's range, within MySQL's DATETIME range
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final InventoryLogRepository logRepository;
     private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final StockLedger stockLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final ReportingAggregates reportingAggregates;
+    private final CatalogCache catalogCache;
+    private final MovementHistory movementHistory;
+    private final LogWriteBehind logWriteBehind;
+    private final StockLevelRepository stockLevelRepository;
+    private final WarehouseService warehouseService;
+    private final StockHistory stockHistory;
+    private final Map<String, Counter> movedUnits = new HashMap<>();
 
-    public InventoryService(InventoryLogRepository logRepository, ProductRepository productRepository) {
+    public InventoryService(InventoryLogRepository logRepository, ProductRepository productRepository, ObjectMapper objectMapper,
+                            StockLedger stockLedger, TransactionTemplate transactionTemplate, ReportingAggregates reportingAggregates,
+                            CatalogCache catalogCache, MovementHistory movementHistory, LogWriteBehind logWriteBehind,
+                            StockLevelRepository stockLevelRepository, WarehouseService warehouseService,
+                            StockHistory stockHistory, MeterRegistry meterRegistry) {
         this.logRepository = logRepository;
         this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.stockLedger = stockLedger;
+        this.transactionTemplate = transactionTemplate;
+        this.reportingAggregates = reportingAggregates;
+        this.catalogCache = catalogCache;
+        this.movementHistory = movementHistory;
+        this.logWriteBehind = logWriteBehind;
+        this.stockLevelRepository = stockLevelRepository;
+        this.warehouseService = warehouseService;
+        this.stockHistory = stockHistory;
+        // A transfer is counted once, by its outgoing half
+        for (String type : List.of("IN", "OUT", "TRANSFER_OUT")) {
+            movedUnits.put(type, Counter.builder("inventory.stock.movement.units")
+                    .description("Units moved by committed stock movements")
+                    .tag("type", type)
+                    .register(meterRegistry));
+        }
     }
 
-    public List<InventoryLog> findAllLogs() { return logRepository.findAll(); }
+    public LogPage findLogs(Long productId, String type, LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        LogCursor after = cursor != null && !cursor.isBlank() ? LogCursor.decode(cursor) : null;
+        String normalizedType = type != null && !type.isBlank() ? type.toUpperCase() : null;
+
+        // The page ends before the cursor or at to, whichever is earlier; an id bound below every id makes to exclusive
+        LocalDateTime beforeAt = to != null ? to : LATEST;
+        long beforeId = to != null ? Long.MIN_VALUE : Long.MAX_VALUE;
+        if (after != null && after.createdAt().isBefore(beforeAt)) {
+            beforeAt = after.createdAt();
+            beforeId = after.id();
+        }
+        LocalDateTime since = from != null ? from : EARLIEST;
+
+        // Fetch one extra row to learn whether another page exists
+        List<InventoryLogView> rows = productId != null
+                ? logRepository.findProductPage(productId, normalizedType, since, beforeAt, beforeId, size + 1)
+                : logRepository.findPage(normalizedType, since, beforeAt, beforeId, size + 1);
+        if (rows.size() <= size) {
+            return new LogPage(rows, null);
+        }
+        List<InventoryLogView> items = rows.subList(0, size);
+        return new LogPage(List.copyOf(items), LogCursor.of(items.get(size - 1)).encode());
+    }
+
+    // Daily totals keep history available after raw rows have passed their retention
+    public List<DailyMovement> history(Long productId, LocalDate from, LocalDate to) {
+        return movementHistory.daily(productId, from, to);
+    }
+
+    public StockAt stockAsOf(Long productId, LocalDateTime at) {
+        return stockHistory.asOf(productId, at);
+    }
+
+    public List<StockAt> stockSeries(Long productId, LocalDateTime from, LocalDateTime to, String resolution) {
+        return stockHistory.series(productId, from, to, resolution);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLogsCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        try (Stream<InventoryLogView> rows = logRepository.streamAll()) {
+            long count = LogExportWriter.writeCsv(rows, writer);
+            writer.flush();
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLogsNdjson(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        try (Stream<InventoryLogView> rows = logRepository.streamAll()) {
+            long count = LogExportWriter.writeNdjson(rows, writer, objectMapper);
+            writer.flush();
+            return count;
+        }
+    }
 
     public InventoryLog updateStock(Long productId, int quantity, String type, String notes) {
+        return updateStock(productId, null, quantity, type, notes);
+    }
+
+    // A null warehouse is the default one
+    public InventoryLog updateStock(Long productId, Long warehouseId, int quantity, String type, String notes) {
+        String error = validateMovement(productId, quantity, type);
+        if (error != null) {
+            throw new RuntimeException(error);
+        }
+        String movement = type.toUpperCase();
+        StockLedger.Location location = new StockLedger.Location(productId, warehouseService.resolve(warehouseId));
+        // Hot locations with a known level can reject an impossible OUT without touching the database
+        OptionalInt cached = stockLedger.level(location);
+        if ("OUT".equals(movement) && cached.isPresent() && cached.getAsInt() < quantity) {
+            throw new RuntimeException("Insufficient stock");
+        }
+        int delta = "IN".equals(movement) ? quantity : -quantity;
+        InventoryLog log;
+        try (LogWriteBehind.Reservation logs = logWriteBehind.reserve(1)) {
+            log = stockLedger.withLocations(List.of(location), () -> {
+                InventoryLog committed = inTransaction(status -> applyMovement(location, movement, quantity, notes, logs));
+                logs.committed();
+                stockLedger.adjust(location, delta);
+                return committed;
+            });
+        }
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product != null) log.setProduct(product);
+        recordCommitted(List.of(log), product != null ? List.of(product) : List.of());
+        return log;
+    }
+
+    /**
+     * Moves units of a product from one warehouse to another in one transaction, logged as a TRANSFER_OUT at the
+     * source and a TRANSFER_IN at the destination. The product's total does not change.
+     */
+    public List<InventoryLog> transfer(Long productId, Long fromWarehouseId, Long toWarehouseId, int quantity, String notes) {
+        if (productId == null) {
+            throw new RuntimeException("Product is required");
+        }
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        StockLedger.Location source = new StockLedger.Location(productId, warehouseService.resolve(fromWarehouseId));
+        StockLedger.Location target = new StockLedger.Location(productId, warehouseService.resolve(toWarehouseId));
+        if (source.equals(target)) {
+            throw new RuntimeException("Source and destination warehouses must differ");
+        }
+        OptionalInt cached = stockLedger.level(source);
+        if (cached.isPresent() && cached.getAsInt() < quantity) {
+            throw new RuntimeException("Insufficient stock");
+        }
+        List<InventoryLog> moved;
+        try (LogWriteBehind.Reservation logs = logWriteBehind.reserve(2)) {
+            moved = stockLedger.withLocations(List.of(source, target), () -> {
+                List<InventoryLog> committed = inTransaction(status -> applyTransfer(source, target, quantity, notes, logs));
+                logs.committed();
+                stockLedger.adjust(source, -quantity);
+                stockLedger.adjust(target, quantity);
+                return committed;
+            });
+        }
+        recordCommitted(moved, List.of());
+        return moved;
+    }
+
+    // Units per warehouse; stock never placed anywhere is reported under the default warehouse
+    @Transactional(readOnly = true)
+    public List<StockLevelView> stockLevels(Long productId) {
         Product product = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("Product not found"));
-        if ("IN".equalsIgnoreCase(type)) {
-            product.setQuantity(product.getQuantity() + quantity);
-        } else if ("OUT".equalsIgnoreCase(type)) {
-            if (product.getQuantity() < quantity) {
-                throw new RuntimeException("Insufficient stock");
+        Long defaultId = warehouseService.defaultId();
+        Map<Long, Integer> byWarehouse = new TreeMap<>();
+        stockLevelRepository.findByProductIdOrderByWarehouseId(productId)
+                .forEach(l -> byWarehouse.put(l.getWarehouseId(), l.getQuantity()));
+        if (!byWarehouse.containsKey(defaultId)) {
+            int placed = byWarehouse.values().stream().mapToInt(Integer::intValue).sum();
+            byWarehouse.put(defaultId, product.getQuantity() - placed);
+        }
+        List<StockLevelView> levels = new ArrayList<>(byWarehouse.size());
+        byWarehouse.forEach((warehouseId, quantity) -> levels.add(new StockLevelView(productId, warehouseId, quantity)));
+        return levels;
+    }
+
+    /**
+     * Applies a batch of movements in one transaction. Items are evaluated in request order against
+     * the running balance of their location; invalid or unsatisfiable items are rejected individually
+     * without failing the rest of the batch.
+     */
+    public BatchResult updateStockBatch(List<StockMovement> movements) {
+        if (movements == null || movements.isEmpty()) {
+            throw new RuntimeException("Batch is empty");
+        }
+        if (movements.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Batch exceeds " + MAX_BATCH_SIZE + " movements");
+        }
+        MovementResult[] results = new MovementResult[movements.size()];
+        StockLedger.Location[] locations = new StockLedger.Location[movements.size()];
+        Set<StockLedger.Location> touched = new LinkedHashSet<>();
+        for (int i = 0; i < movements.size(); i++) {
+            StockMovement m = movements.get(i);
+            String error = m == null ? "Movement is empty" : validateMovement(m.productId(), m.quantity(), m.type());
+            if (error == null) {
+                try {
+                    locations[i] = new StockLedger.Location(m.productId(), warehouseService.resolve(m.warehouseId()));
+                    touched.add(locations[i]);
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                results[i] = MovementResult.rejected(i, m != null ? m.productId() : null, error);
+            }
+        }
+        if (!touched.isEmpty()) {
+            int valid = (int) Arrays.stream(results).filter(r -> r == null).count();
+            List<InventoryLog> logs;
+            try (LogWriteBehind.Reservation reservation = logWriteBehind.reserve(valid)) {
+                logs = stockLedger.withLocations(touched, () -> {
+                    Map<StockLedger.Location, Integer> levelsAfter = new HashMap<>();
+                    List<InventoryLog> committed = inTransaction(status ->
+                            applyBatch(movements, locations, results, levelsAfter, reservation));
+                    reservation.committed();
+                    levelsAfter.forEach(stockLedger::publish);
+                    return committed;
+                });
             }
-            product.setQuantity(product.getQuantity() - quantity);
+            Set<Long> moved = logs.stream().map(l -> l.getProduct().getId()).collect(Collectors.toCollection(TreeSet::new));
+            recordCommitted(logs, moved.isEmpty() ? List.of() : productRepository.findAllById(moved));
+        }
+        int applied = (int) Arrays.stream(results).filter(MovementResult::applied).count();
+        return new BatchResult(applied, results.length - applied, List.of(results));
+    }
+
+    private static String validateMovement(Long productId, Integer quantity, String type) {
+        if (productId == null) {
+            return "Product is required";
+        }
+        if (!"IN".equalsIgnoreCase(type) && !"OUT".equalsIgnoreCase(type)) {
+            return "Invalid type, must be IN or OUT";
+        }
+        if (quantity == null || quantity <= 0) {
+            return "Quantity must be positive";
+        }
+        return null;
+    }
+
+    // A rejected movement still read the committed level, which the ledger can keep for the next fast reject
+    private <T> T inTransaction(TransactionCallback<T> action) {
+        try {
+            return transactionTemplate.execute(action);
+        } catch (InsufficientStock e) {
+            stockLedger.publish(e.location, e.level);
+            throw e;
+        }
+    }
+
+    /*
+     * The location's row is updated first and the product's total last, so the product row that every location
+     * of the SKU shares is held only until commit. With write-behind (deferred) the log row is journalled, last
+     * and ahead of commit, instead of inserted here.
+     */
+    private InventoryLog applyMovement(StockLedger.Location location, String movement, int quantity, String notes,
+                                      LogWriteBehind.Reservation logs) {
+        int delta = "IN".equals(movement) ? quantity : -quantity;
+        moveAt(location, delta);
+        InventoryLog log = newLog(productRepository.getReferenceById(location.productId()), location.warehouseId(),
+                movement, quantity, notes);
+        if (!logs.deferred()) logRepository.saveAndFlush(log);
+        if (productRepository.adjustStock(location.productId(), delta) == 0) {
+            throw new RuntimeException("Product not found");
+        }
+        logs.journal(List.of(log));
+        return log;
+    }
+
+    // Rows are locked in warehouse order, as batches lock them; the product row is not touched
+    private List<InventoryLog> applyTransfer(StockLedger.Location source, StockLedger.Location target, int quantity,
+                                             String notes, LogWriteBehind.Reservation reservation) {
+        Product product = productRepository.findById(source.productId())
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (source.warehouseId() < target.warehouseId()) {
+            moveAt(source, -quantity);
+            moveAt(target, quantity);
+        } else {
+            moveAt(target, quantity);
+            moveAt(source, -quantity);
+        }
+        List<InventoryLog> logs = List.of(
+                newLog(product, source.warehouseId(), "TRANSFER_OUT", quantity, notes),
+                newLog(product, target.warehouseId(), "TRANSFER_IN", quantity, notes));
+        if (reservation.deferred()) {
+            reservation.journal(logs);
         } else {
-            throw new RuntimeException("Invalid type, must be IN or OUT");
+            logRepository.saveAll(logs);
         }
-        productRepository.save(product);
+        return logs;
+    }
 
+    // One conditional update when the location's row exists; otherwise the row is written first. Needs a transaction.
+    void moveAt(StockLedger.Location location, int delta) {
+        Long productId = location.productId();
+        Long warehouseId = location.warehouseId();
+        if (stockLevelRepository.adjust(productId, warehouseId, delta) > 0) return;
+        Optional<Integer> level = stockLevelRepository.findQuantity(productId, warehouseId);
+        if (level.isPresent()) throw new InsufficientStock(location, level.get());
+        if (warehouseId.equals(warehouseService.defaultId())) {
+            // Stock not placed at any warehouse is the default warehouse's; its row is written on first use
+            if (stockLevelRepository.materialize(productId, warehouseId) == 0) throw new RuntimeException("Product not found");
+            if (stockLevelRepository.adjust(productId, warehouseId, delta) > 0) return;
+            throw new InsufficientStock(location, stockLevelRepository.findQuantity(productId, warehouseId).orElse(0));
+        }
+        if (!productRepository.existsById(productId)) throw new RuntimeException("Product not found");
+        if (delta < 0) throw new InsufficientStock(location, 0);
+        stockLevelRepository.insert(productId, warehouseId, delta);
+    }
+
+    /*
+     * Level rows are locked up front, so quantities are adjusted in memory and flushed as one batch of updates.
+     * Product totals are adjusted after the levels, in id order, matching the lock order of single movements.
+     */
+    private List<InventoryLog> applyBatch(List<StockMovement> movements, StockLedger.Location[] locations,
+                                          MovementResult[] results, Map<StockLedger.Location, Integer> levelsAfter,
+                                          LogWriteBehind.Reservation reservation) {
+        Set<Long> productIds = new TreeSet<>();
+        Set<Long> warehouseIds = new TreeSet<>();
+        for (StockLedger.Location l : locations) {
+            if (l == null) continue;
+            productIds.add(l.productId());
+            warehouseIds.add(l.warehouseId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(p -> products.put(p.getId(), p));
+        Map<StockLedger.Location, StockLevel> levels = new HashMap<>();
+        stockLevelRepository.lockAll(productIds, warehouseIds)
+                .forEach(l -> levels.put(new StockLedger.Location(l.getProductId(), l.getWarehouseId()), l));
+        // Default rows are written before any level changes, while the totals they are derived from still hold
+        Long defaultId = warehouseService.defaultId();
+        for (StockLedger.Location l : locations) {
+            if (l == null || !l.warehouseId().equals(defaultId) || levels.containsKey(l) || !products.containsKey(l.productId())) continue;
+            stockLevelRepository.materialize(l.productId(), defaultId);
+            levels.put(l, stockLevelRepository.findById(new StockLevel.Key(l.productId(), defaultId)).orElseThrow());
+        }
+
+        List<StockLevel> created = new ArrayList<>();
+        Map<Long, Integer> totals = new TreeMap<>();
+        List<InventoryLog> logs = new ArrayList<>();
+        List<Integer> logItems = new ArrayList<>();
+        int[] quantityAfter = new int[movements.size()];
+        for (int i = 0; i < movements.size(); i++) {
+            if (results[i] != null) continue;
+            StockMovement m = movements.get(i);
+            StockLedger.Location location = locations[i];
+            Product product = products.get(m.productId());
+            if (product == null) {
+                results[i] = MovementResult.rejected(i, m.productId(), "Product not found");
+                continue;
+            }
+            StockLevel level = levels.get(location);
+            String movement = m.type().toUpperCase();
+            int available = level != null ? level.getQuantity() : 0;
+            if ("OUT".equals(movement) && available < m.quantity()) {
+                results[i] = MovementResult.rejected(i, m.productId(), "Insufficient stock");
+                continue;
+            }
+            if (level == null) {
+                level = new StockLevel();
+                level.setProductId(location.productId());
+                level.setWarehouseId(location.warehouseId());
+                levels.put(location, level);
+                created.add(level);
+            }
+            int delta = "IN".equals(movement) ? m.quantity() : -m.quantity();
+            level.setQuantity(level.getQuantity() + delta);
+            totals.merge(location.productId(), delta, Integer::sum);
+            quantityAfter[i] = level.getQuantity();
+            logs.add(newLog(product, location.warehouseId(), movement, m.quantity(), m.notes()));
+            logItems.add(i);
+        }
+        if (!created.isEmpty()) stockLevelRepository.saveAll(created);
+        if (!reservation.deferred()) logRepository.saveAll(logs);
+        // Product updates clear the persistence context, so pending level and log writes go out first
+        stockLevelRepository.flush();
+        totals.forEach((productId, delta) -> {
+            if (delta != 0) productRepository.adjustStock(productId, delta);
+        });
+        reservation.journal(logs);
+
+        for (StockLedger.Location location : locations) {
+            StockLevel level = location != null ? levels.get(location) : null;
+            if (level != null) levelsAfter.put(location, level.getQuantity());
+        }
+        for (int k = 0; k < logs.size(); k++) {
+            int i = logItems.get(k);
+            results[i] = MovementResult.applied(i, movements.get(i).productId(), logs.get(k).getId(), quantityAfter[i]);
+        }
+        return logs;
+    }
+
+    // Runs after commit, outside the location stripes: volumes only add up, and the products, read after commit,
+    // carry the row version that orders views published by concurrent movements
+    private void recordCommitted(List<InventoryLog> logs, Collection<Product> changed) {
+        for (InventoryLog log : logs) {
+            reportingAggregates.onMovement(log);
+            Counter units = movedUnits.get(log.getType());
+            if (units != null) units.increment(log.getQuantity());
+        }
+        for (Product product : changed) {
+            catalogCache.evictProduct(product.getId());
+            reportingAggregates.onProductChanged(ProductStockView.of(product));
+        }
+    }
+
+    private static InventoryLog newLog(Product product, Long warehouseId, String movement, int quantity, String notes) {
         InventoryLog log = new InventoryLog();
         log.setProduct(product);
-        log.setType(type.toUpperCase());
+        log.setWarehouseId(warehouseId);
+        log.setType(movement);
         log.setQuantity(quantity);
         log.setNotes(notes);
         log.setCreatedAt(LocalDateTime.now());
-        return logRepository.save(log);
+        return log;
     }
 
-    public Map<String, Object> reports() {
-        List<Product> products = productRepository.findAll();
-        Map<String, Object> result = new HashMap<>();
-
-        double stockValuation = products.stream().mapToDouble(p -> p.getPrice() * p.getQuantity()).sum();
-        result.put("stockValuation", stockValuation);
+    // Carries the committed level the rejected movement saw; the message is what callers get
+    private static final class InsufficientStock extends RuntimeException {
+        private final StockLedger.Location location;
+        private final int level;
 
-        // Simple heuristic for fast/slow moving: below/above reorder level
-        result.put("fastMoving", products.stream().filter(p -> p.getQuantity() > p.getReorderLevel() * 2).limit(10).toList());
-        result.put("slowMoving", products.stream().filter(p -> p.getQuantity() <= p.getReorderLevel()).limit(10).toList());
+        InsufficientStock(StockLedger.Location location, int level) {
+            super("Insufficient stock");
+            this.location = location;
+            this.level = level;
+        }
+    }
 
-        // Placeholder turnover rate
-        result.put("turnoverRate", 3.2);
-        return result;
+    public Map<String, Object> reports() {
+        return reportingAggregates.snapshot();
     }
 }
@@ -0,0 +1,75 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.InventoryLogView;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes inventory log rows one at a time so an export never holds more than a single row.
+ */
+final class LogExportWriter {
+    static final String CSV_HEADER = "id,product,type,quantity,notes,createdAt\n";
+
+    private LogExportWriter() {
+    }
+
+    static long writeCsv(Stream<InventoryLogView> rows, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        long count = 0;
+        for (Iterator<InventoryLogView> it = rows.iterator(); it.hasNext(); count++) {
+            InventoryLogView l = it.next();
+            out.write(String.valueOf(l.id()));
+            out.write(',');
+            writeCsvField(out, l.product() != null ? l.product().name() : null);
+            out.write(',');
+            writeCsvField(out, l.type());
+            out.write(',');
+            out.write(Integer.toString(l.quantity()));
+            out.write(',');
+            writeCsvField(out, l.notes());
+            out.write(',');
+            out.write(String.valueOf(l.createdAt()));
+            out.write('\n');
+        }
+        return count;
+    }
+
+    static long writeNdjson(Stream<InventoryLogView> rows, Writer out, ObjectMapper mapper) throws IOException {
+        JsonGenerator gen = mapper.getFactory().createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);
+        long count = 0;
+        for (Iterator<InventoryLogView> it = rows.iterator(); it.hasNext(); count++) {
+            gen.writeObject(it.next());
+            gen.writeRaw('\n');
+        }
+        gen.flush();
+        return count;
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks and double embedded quotes
+    static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,61 @@
+package com.inventory.service;
+
+import com.inventory.model.InventoryLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Starts the table-backed {@code inventory_logs_seq} past the existing log ids before anything inserts a log.
+ * <p>
+ * The V2 migration seeds it that way, but with {@code ddl-auto=update} (the default profile) Hibernate creates the
+ * table at 1 on a database that already holds logs from the old auto_increment column, and every insert would then
+ * collide with them. Hibernate's pooled optimizer hands out the block ending at the stored value, so it must be at
+ * least one block past the highest id. On databases with native sequences, where Hibernate creates no such table,
+ * there is nothing to do.
+ */
+@Component
+public class LogIdSequence {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // The entity manager factory creates or updates the schema first
+    public LogIdSequence(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                         EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    void start() {
+        seed();
+    }
+
+    // Raises the sequence to the first value that skips existing ids; returns the value it holds afterwards, or -1
+    // for a native sequence
+    public long seed() {
+        try {
+            jdbcTemplate.queryForList("SELECT next_val FROM inventory_logs_seq", Long.class);
+        } catch (DataAccessException nativeSequence) {
+            return -1;
+        }
+        return transactionTemplate.execute(status -> {
+            List<Long> stored = jdbcTemplate.queryForList("SELECT next_val FROM inventory_logs_seq FOR UPDATE", Long.class);
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM inventory_logs", Long.class);
+            long floor = maxId == 0 ? 1 : maxId + InventoryLog.ID_BLOCK;
+            if (stored.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO inventory_logs_seq (next_val) VALUES (?)", floor);
+                return floor;
+            }
+            long next = stored.get(0) != null ? stored.get(0) : 0;
+            if (next >= floor) return next;
+            jdbcTemplate.update("UPDATE inventory_logs_seq SET next_val = ?", floor);
+            return floor;
+        });
+    }
+}
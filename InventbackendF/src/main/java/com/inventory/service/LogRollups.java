@@ -0,0 +1,137 @@
+package com.inventory.service;
+
+import com.inventory.dto.DailyMovement;
+import com.inventory.model.InventoryLogDaily;
+import com.inventory.repository.InventoryLogDailyRepository;
+import com.inventory.repository.InventoryLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps {@code inventory_logs} bounded.
+ * <p>
+ * Each complete day is rolled up once into per-product summaries in {@code inventory_log_daily}. Raw rows older
+ * than the raw retention are then deleted one day at a time, but only for days that have been rolled up, so
+ * {@link MovementHistory} can always answer from one source or the other. Summaries older than the rollup
+ * retention are dropped. A zero retention keeps that data forever, and is the default for raw rows, which are the
+ * audit trail: deleting them is opt-in.
+ */
+@Component
+public class LogRollups {
+    static final int DAYS_PER_TRANSACTION = 7;
+
+    private final InventoryLogRepository logRepository;
+    private final InventoryLogDailyRepository dailyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LogWriteBehind logWriteBehind;
+    private final Duration rawRetention;
+    private final Duration rollupRetention;
+    private final Clock clock;
+
+    @Autowired
+    public LogRollups(InventoryLogRepository logRepository, InventoryLogDailyRepository dailyRepository,
+                      TransactionTemplate transactionTemplate, LogWriteBehind logWriteBehind,
+                      @Value("${inventory.logs.raw-retention:P0D}") Duration rawRetention,
+                      @Value("${inventory.logs.rollup-retention:P0D}") Duration rollupRetention) {
+        this(logRepository, dailyRepository, transactionTemplate, logWriteBehind, rawRetention, rollupRetention,
+                Clock.systemDefaultZone());
+    }
+
+    LogRollups(InventoryLogRepository logRepository, InventoryLogDailyRepository dailyRepository,
+               TransactionTemplate transactionTemplate, LogWriteBehind logWriteBehind, Duration rawRetention,
+               Duration rollupRetention, Clock clock) {
+        if (!rawRetention.isZero() && rawRetention.toDays() < 1) {
+            throw new IllegalStateException("inventory.logs.raw-retention must be at least one day");
+        }
+        if (!rollupRetention.isZero() && rollupRetention.toDays() < 1) {
+            throw new IllegalStateException("inventory.logs.rollup-retention must be at least one day");
+        }
+        this.logRepository = logRepository;
+        this.dailyRepository = dailyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.logWriteBehind = logWriteBehind;
+        this.rawRetention = rawRetention;
+        this.rollupRetention = rollupRetention;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelayString = "${inventory.logs.rollup-interval:PT1H}",
+            fixedDelayString = "${inventory.logs.rollup-interval:PT1H}")
+    public void run() {
+        rollUp();
+        purge();
+    }
+
+    // Summarises every complete day after the last rolled-up one; returns the number of summary rows written
+    public int rollUp() {
+        // Queued log rows carry the time of their movement; a day is summarised once, so they must be in first
+        logWriteBehind.awaitFlushed();
+        LocalDate today = LocalDate.now(clock);
+        LocalDate rolledThrough = dailyRepository.findRolledThrough();
+        LocalDate next;
+        if (rolledThrough != null) {
+            next = rolledThrough.plusDays(1);
+        } else {
+            LocalDateTime oldest = logRepository.findOldestCreatedAt();
+            if (oldest == null) return 0;
+            next = oldest.toLocalDate();
+        }
+        int written = 0;
+        while (next.isBefore(today)) {
+            LocalDate from = next;
+            LocalDate to = from.plusDays(DAYS_PER_TRANSACTION).isBefore(today) ? from.plusDays(DAYS_PER_TRANSACTION) : today;
+            written += transactionTemplate.execute(status -> {
+                List<InventoryLogDaily> rows = MovementHistory.toDays(
+                        logRepository.sumDaily(null, from.atStartOfDay(), to.atStartOfDay())).stream()
+                        .map(LogRollups::toEntity)
+                        .toList();
+                dailyRepository.saveAll(rows);
+                return rows.size();
+            });
+            next = to;
+        }
+        return written;
+    }
+
+    // Applies both retention policies; returns the number of raw and summary rows deleted
+    public long purge() {
+        LocalDate today = LocalDate.now(clock);
+        long deleted = 0;
+        LocalDate rolledThrough = dailyRepository.findRolledThrough();
+        LocalDateTime oldest = logRepository.findOldestCreatedAt();
+        if (!rawRetention.isZero() && rolledThrough != null && oldest != null) {
+            LocalDate expired = today.minusDays(rawRetention.toDays());
+            LocalDate before = expired.isAfter(rolledThrough) ? rolledThrough.plusDays(1) : expired;
+            // A day per transaction keeps each delete a short range scan on the created_at index
+            for (LocalDate day = oldest.toLocalDate(); day.isBefore(before); day = day.plusDays(1)) {
+                LocalDate from = day;
+                deleted += transactionTemplate.execute(status ->
+                        logRepository.deleteCreatedBetween(from.atStartOfDay(), from.plusDays(1).atStartOfDay()));
+            }
+        }
+        if (!rollupRetention.isZero()) {
+            LocalDate before = today.minusDays(rollupRetention.toDays());
+            deleted += transactionTemplate.execute(status -> dailyRepository.deleteDaysBefore(before));
+        }
+        return deleted;
+    }
+
+    private static InventoryLogDaily toEntity(DailyMovement m) {
+        InventoryLogDaily row = new InventoryLogDaily();
+        row.setProductId(m.productId());
+        row.setDay(m.day());
+        row.setInUnits(m.inUnits());
+        row.setOutUnits(m.outUnits());
+        row.setMovements(m.movements());
+        return row;
+    }
+}
@@ -0,0 +1,638 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.LogJournalCheckpoint;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.LogJournalCheckpointRepository;
+import com.inventory.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Optional write-behind for inventory log rows ({@code inventory.logs.write-behind.enabled}).
+ * <p>
+ * Stock movements still commit the product quantity synchronously, but journal their log entries to a local file
+ * instead of inserting them. Entries are journalled ahead of commit, inside the movement's transaction, and a
+ * movement that then rolls back appends an abort record for them. Appends are synced by group commit: a movement
+ * waits for one sync that covers its entries, and concurrent movements share it. Committed entries are queued in journal order and
+ * a single writer thread inserts them in batches. The journal is the durable queue: each batch advances a
+ * checkpoint row in the same transaction as the log rows, and on startup every journalled entry past the checkpoint
+ * that was not aborted is written before the application takes traffic. Fully flushed journal segments are deleted.
+ * <p>
+ * A committed movement's entry is therefore never lost. The reverse is possible: if the process dies while the
+ * commit itself is in flight, the entry has no outcome recorded and is written on restart whether or not the
+ * database committed it. Such entries are counted by {@code inventory.logs.write_behind.in_doubt}.
+ * <p>
+ * At most {@code capacity} entries may be unflushed. A movement reserves its slots before touching the database and
+ * is rejected with {@link RejectedExecutionException} if none free up within {@code offer-timeout}. Log listings,
+ * exports and report reconciliation see an entry once it is flushed; {@code inventory.logs.write_behind.lag} tracks
+ * how far behind that is.
+ */
+// Replay inserts logs, so the log id sequence must be seeded first
+@Component
+@DependsOn("logIdSequence")
+public class LogWriteBehind {
+    static final long SEGMENT_BYTES = 16L * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration offerTimeout;
+    private final boolean fsync;
+    private final InventoryLogRepository logRepository;
+    private final ProductRepository productRepository;
+    private final LogJournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore slots;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    // Guards the journal files, sequence numbers and unresolved entries. A lock rather than a monitor, since it is
+    // held across file writes and virtual threads must not be pinned to their carrier for those
+    private final ReentrantLock journalLock = new ReentrantLock();
+    // Held by the thread syncing the journal; movements waiting on it are covered by that sync or the next one
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final TreeMap<Long, Path> segments = new TreeMap<>(); // first sequence number -> file
+    // Journalled entries by first sequence number, until they and every entry before them commit or abort
+    private final TreeMap<Long, Prepared> unresolved = new TreeMap<>();
+    private FileChannel active;
+    // Bytes appended to the journal so far, across segments, and how many of them are known synced
+    private long written;
+    private long synced;
+    private long nextSeq;
+    private String journalId;
+    private volatile long appendedSeq;
+    private volatile long committedSeq;
+    private volatile long flushedSeq;
+    private volatile LocalDateTime oldestInFlight;
+    private volatile boolean running;
+    private Thread writer;
+    private Counter rejected;
+    private Counter dropped;
+    private Counter inDoubt;
+    private Counter syncs;
+
+    public LogWriteBehind(@Value("${inventory.logs.write-behind.enabled:false}") boolean enabled,
+                          @Value("${inventory.logs.write-behind.dir:data/log-journal}") String dir,
+                          @Value("${inventory.logs.write-behind.capacity:10000}") int capacity,
+                          @Value("${inventory.logs.write-behind.batch-size:500}") int batchSize,
+                          @Value("${inventory.logs.write-behind.linger:PT0.05S}") Duration linger,
+                          @Value("${inventory.logs.write-behind.offer-timeout:PT0.5S}") Duration offerTimeout,
+                          @Value("${inventory.logs.write-behind.fsync:true}") boolean fsync,
+                          InventoryLogRepository logRepository, ProductRepository productRepository,
+                          LogJournalCheckpointRepository checkpointRepository, TransactionTemplate transactionTemplate,
+                          ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (enabled && capacity < InventoryService.MAX_BATCH_SIZE) {
+            throw new IllegalStateException("inventory.logs.write-behind.capacity must be at least " + InventoryService.MAX_BATCH_SIZE);
+        }
+        if (enabled && (batchSize < 1 || batchSize > capacity)) {
+            throw new IllegalStateException("inventory.logs.write-behind.batch-size must be between 1 and the capacity");
+        }
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.offerTimeout = offerTimeout;
+        this.fsync = fsync;
+        this.logRepository = logRepository;
+        this.productRepository = productRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(capacity, true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves queue slots for the log entries of a movement that has not been applied yet. Callers journal the
+     * entries through the reservation inside the movement's transaction, mark it committed once that commits, and
+     * close it, which aborts entries that never committed and returns any slots left unused.
+     */
+    public Reservation reserve(int count) {
+        if (!enabled) return new Reservation(0, false);
+        try {
+            if (!slots.tryAcquire(count, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new RejectedExecutionException("Stock movements are backlogged, try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for the inventory log queue");
+        }
+        return new Reservation(count, true);
+    }
+
+    // Blocks until every entry committed so far has been written
+    public void awaitFlushed() {
+        if (!enabled) return;
+        long target = committedSeq;
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (flushedSeq < target) {
+            if (System.nanoTime() > deadline) throw new RuntimeException("Inventory log queue is not draining");
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted waiting for the inventory log queue");
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) return;
+        rejected = Counter.builder("inventory.logs.write_behind.rejected")
+                .description("Stock movements rejected because the log queue was full")
+                .register(meterRegistry);
+        dropped = Counter.builder("inventory.logs.write_behind.dropped")
+                .description("Journalled log entries that could not be stored, e.g. for a deleted product")
+                .register(meterRegistry);
+        inDoubt = Counter.builder("inventory.logs.write_behind.in_doubt")
+                .description("Journalled log entries replayed without a recorded commit, after a crash during commit")
+                .register(meterRegistry);
+        syncs = Counter.builder("inventory.logs.write_behind.syncs")
+                .description("Journal syncs; movements journalling at the same time share one")
+                .register(meterRegistry);
+        Gauge.builder("inventory.logs.write_behind.pending", this, w -> w.appendedSeq - w.flushedSeq)
+                .description("Log entries journalled but not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("inventory.logs.write_behind.lag", this, LogWriteBehind::lagSeconds)
+                .description("Age of the oldest log entry not yet written to the database")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        Files.createDirectories(dir);
+        journalId = readOrCreateJournalId();
+        long checkpoint = checkpointRepository.findById(journalId).map(LogJournalCheckpoint::getFlushedSeq).orElse(0L);
+        long lastSeq = checkpoint;
+        List<Entry> journalled = new ArrayList<>();
+        // Outcomes by first sequence number; their ranges never overlap
+        TreeMap<Long, Outcome> outcomes = new TreeMap<>();
+        List<Path> existing = listSegments();
+        for (Path segment : existing) readSegment(segment, journalled, outcomes);
+        List<Entry> pending = new ArrayList<>();
+        for (Entry entry : journalled) {
+            lastSeq = Math.max(lastSeq, entry.seq());
+            if (entry.seq() <= checkpoint) continue;
+            Map.Entry<Long, Outcome> floor = outcomes.floorEntry(entry.seq());
+            Outcome outcome = floor != null && floor.getValue().covers(entry.seq()) ? floor.getValue() : null;
+            if (outcome != null && !outcome.committed()) continue;
+            // Entries from before outcomes were recorded were journalled after commit
+            if (outcome == null && entry.prepared()) inDoubt.increment();
+            pending.add(entry);
+        }
+        flushedSeq = checkpoint;
+        appendedSeq = lastSeq;
+        nextSeq = lastSeq + 1;
+
+        // Replay before serving, so a restarted node never hides movements it committed but had not logged
+        for (int i = 0; i < pending.size(); i += batchSize) {
+            flush(pending.subList(i, Math.min(i + batchSize, pending.size())), false);
+        }
+        committedSeq = flushedSeq;
+        for (Path segment : existing) Files.deleteIfExists(segment);
+        openSegment(nextSeq);
+
+        running = true;
+        writer = new Thread(this::drain, "inventory-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (!enabled) return;
+        running = false;
+        writer.join(DRAIN_TIMEOUT.toMillis());
+        journalLock.lock();
+        try {
+            active.close();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Appends the entries of a movement that has not committed yet, unsynced; null if the journal cannot be written
+    private Prepared prepare(List<InventoryLog> logs) {
+        journalLock.lock();
+        long start = nextSeq;
+        try {
+            List<Entry> entries = new ArrayList<>(logs.size());
+            StringBuilder lines = new StringBuilder();
+            for (InventoryLog log : logs) {
+                Entry entry = new Entry(nextSeq++, log.getProduct().getId(), log.getType(), log.getQuantity(),
+                        log.getNotes(), log.getCreatedAt(), log.getWarehouseId(), true);
+                lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+                entries.add(entry);
+            }
+            long end = write(lines.toString());
+            if (end < 0) {
+                nextSeq = start;
+                return null;
+            }
+            Prepared prepared = new Prepared(entries, end);
+            unresolved.put(start, prepared);
+            appendedSeq = nextSeq - 1;
+            return prepared;
+        } catch (JsonProcessingException e) {
+            nextSeq = start;
+            return null;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Queues the entries once every entry journalled before them has committed or aborted, so queue order and the
+    // checkpoint follow journal order
+    private void resolve(Prepared prepared, boolean committed) {
+        long end;
+        journalLock.lock();
+        try {
+            Outcome outcome = new Outcome(prepared.first(), prepared.last(), committed);
+            try {
+                end = write(objectMapper.writeValueAsString(outcome) + '\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e); // Not reachable for a record of numbers
+            }
+        } finally {
+            journalLock.unlock();
+        }
+        // Only aborts are synced, before anything journalled after them is queued: entries whose commit record is
+        // lost are in doubt, and written anyway
+        if (!committed && end >= 0) awaitSynced(end);
+        journalLock.lock();
+        try {
+            prepared.committed = committed;
+            if (committed) committedSeq = Math.max(committedSeq, prepared.last());
+            while (!unresolved.isEmpty() && unresolved.firstEntry().getValue().committed != null) {
+                Prepared next = unresolved.pollFirstEntry().getValue();
+                if (next.committed) queue.addAll(next.entries);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+        if (!committed) slots.release(prepared.entries.size());
+    }
+
+    // Appends to the active segment, rolling it over when full; the caller holds the journal lock. Returns the
+    // journal position after the lines, for awaitSynced, or -1 if they could not be written
+    private long write(String lines) {
+        long position = -1;
+        try {
+            position = active.position();
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines);
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) active.write(buffer);
+            written += length;
+            long end = written;
+            if (active.size() >= SEGMENT_BYTES) openSegment(nextSeq);
+            return end;
+        } catch (IOException e) {
+            truncateQuietly(position);
+            return -1;
+        }
+    }
+
+    // Returns once the journal is synced up to the given position, syncing it unless a sync that started after
+    // the append covered it already. False if the sync failed; always true without fsync
+    private boolean awaitSynced(long position) {
+        if (!fsync) return true;
+        syncLock.lock();
+        try {
+            if (synced >= position) return true;
+            FileChannel channel;
+            long target;
+            journalLock.lock();
+            try {
+                channel = active;
+                target = written;
+            } finally {
+                journalLock.unlock();
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rolled over meanwhile; segments are synced before they are closed
+            }
+            syncs.increment();
+            synced = target;
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // Wait briefly for more entries so a trickle of movements still shares transactions
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    long wait = deadline - System.nanoTime();
+                    Entry next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                flush(batch, true);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch, boolean retry) {
+        oldestInFlight = batch.get(0).createdAt();
+        while (true) {
+            try {
+                insert(batch);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Usually a product deleted outside the service layer: store what can be stored, count the rest
+                for (Entry entry : batch) {
+                    try {
+                        insert(List.of(entry));
+                    } catch (DataIntegrityViolationException unstorable) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            } catch (RuntimeException e) {
+                // Left in the journal, so a failure at shutdown or during replay is retried on the next start
+                if (!retry || !running) throw e;
+                try {
+                    Thread.sleep(RETRY_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+        if (retry) slots.release(batch.size());
+        flushedSeq = batch.get(batch.size() - 1).seq();
+        oldestInFlight = null;
+        deleteFlushedSegments();
+    }
+
+    private void insert(List<Entry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<InventoryLog> rows = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                InventoryLog log = new InventoryLog();
+                log.setProduct(productRepository.getReferenceById(entry.productId()));
+                log.setType(entry.type());
+                log.setQuantity(entry.quantity());
+                log.setNotes(entry.notes());
+                log.setCreatedAt(entry.createdAt());
+                log.setWarehouseId(entry.warehouseId());
+                rows.add(log);
+            }
+            logRepository.saveAllAndFlush(rows);
+            LogJournalCheckpoint checkpoint = checkpointRepository.findById(journalId).orElseGet(() -> {
+                LogJournalCheckpoint fresh = new LogJournalCheckpoint();
+                fresh.setJournalId(journalId);
+                return fresh;
+            });
+            checkpoint.setFlushedSeq(Math.max(checkpoint.getFlushedSeq(), entries.get(entries.size() - 1).seq()));
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = oldestInFlight;
+        if (oldest == null) {
+            Entry head = queue.peek();
+            if (head == null) return 0;
+            oldest = head.createdAt();
+        }
+        return Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    // A closed segment can go once the segment after it starts at or before the first unflushed entry
+    private void deleteFlushedSegments() {
+        journalLock.lock();
+        try {
+            while (segments.size() > 1) {
+                Map.Entry<Long, Path> first = segments.firstEntry();
+                if (segments.higherKey(first.getKey()) - 1 > flushedSeq) break;
+                try {
+                    Files.deleteIfExists(first.getValue());
+                } catch (IOException e) {
+                    break;
+                }
+                segments.pollFirstEntry();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void openSegment(long firstSeq) throws IOException {
+        if (active != null) {
+            if (fsync) active.force(false);
+            active.close();
+        }
+        Path file = dir.resolve(SEGMENT_PREFIX + String.format("%020d", firstSeq) + SEGMENT_SUFFIX);
+        active = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.put(firstSeq, file);
+    }
+
+    private void truncateQuietly(long position) {
+        try {
+            if (position >= 0) active.truncate(position);
+        } catch (IOException ignored) {
+            // Replay may then write entries that were also stored synchronously; the journal is already failing
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> {
+                String name = f.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    // A crash mid-append can leave a torn last line; everything before it is intact
+    private void readSegment(Path segment, List<Entry> entries, TreeMap<Long, Outcome> outcomes) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (node.has("first")) {
+                        Outcome outcome = objectMapper.treeToValue(node, Outcome.class);
+                        outcomes.put(outcome.first(), outcome);
+                    } else {
+                        entries.add(objectMapper.treeToValue(node, Entry.class));
+                    }
+                } catch (JsonProcessingException e) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Identifies this node's journal, so nodes sharing a database keep separate checkpoints
+    private String readOrCreateJournalId() throws IOException {
+        Path file = dir.resolve("journal.id");
+        if (Files.exists(file)) return Files.readString(file, StandardCharsets.UTF_8).trim();
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    long flushedSeq() {
+        return flushedSeq;
+    }
+
+    // warehouseId is absent from entries journalled before stock was kept per warehouse, prepared from entries
+    // journalled after commit, before outcomes were recorded
+    record Entry(long seq, Long productId, String type, int quantity, String notes, LocalDateTime createdAt,
+                 Long warehouseId, boolean prepared) {
+    }
+
+    // The outcome of the movement that journalled entries first..last
+    record Outcome(long first, long last, boolean committed) {
+        boolean covers(long seq) {
+            return seq >= first && seq <= last;
+        }
+    }
+
+    private static final class Prepared {
+        final List<Entry> entries;
+        // Journal position after the entries
+        final long end;
+        // Null until the movement commits or aborts
+        Boolean committed;
+
+        Prepared(List<Entry> entries, long end) {
+            this.entries = entries;
+            this.end = end;
+        }
+
+        long first() {
+            return entries.get(0).seq();
+        }
+
+        long last() {
+            return entries.get(entries.size() - 1).seq();
+        }
+    }
+
+    /**
+     * Queue slots held for one movement. Slots of journalled entries are released once written, or when the
+     * movement aborts; the rest are released on close.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final boolean deferred;
+        private int held;
+        private Prepared prepared;
+
+        private Reservation(int held, boolean deferred) {
+            this.held = held;
+            this.deferred = deferred;
+        }
+
+        // True when log rows are left to the writer instead of being inserted with the movement
+        public boolean deferred() {
+            return deferred;
+        }
+
+        /*
+         * Call inside the movement's transaction, once its changes are applied: journals the entries ahead of
+         * commit. If the journal cannot be written the rows are inserted with the movement instead.
+         */
+        public void journal(List<InventoryLog> logs) {
+            if (!deferred || logs.isEmpty()) return;
+            if (prepared != null) throw new IllegalStateException("Log entries already journalled");
+            if (logs.size() > held) throw new IllegalStateException("More log entries than reserved slots");
+            prepared = prepare(logs);
+            if (prepared != null && !awaitSynced(prepared.end)) {
+                // Appended but not durable: abort the entries, which returns their slots
+                resolve(prepared, false);
+                prepared = null;
+                held -= logs.size();
+            }
+            if (prepared == null) {
+                logRepository.saveAll(logs);
+                return;
+            }
+            held -= logs.size();
+        }
+
+        // Call after the movement commits, while its product stripes are still held
+        public void committed() {
+            if (prepared == null) return;
+            resolve(prepared, true);
+            prepared = null;
+        }
+
+        @Override
+        public void close() {
+            if (prepared != null) {
+                resolve(prepared, false);
+                prepared = null;
+            }
+            if (held > 0) {
+                slots.release(held);
+                held = 0;
+            }
+        }
+    }
+}
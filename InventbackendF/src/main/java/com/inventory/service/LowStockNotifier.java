@@ -0,0 +1,83 @@
+package com.inventory.service;
+
+import com.inventory.dto.LowStockEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes {@link LowStockEvent}s to Server-Sent Events subscribers so clients stop polling {@code /low-stock}.
+ * <p>
+ * Events are written from a single dispatcher thread, in publication order, so a slow client never holds up the
+ * stock movement that caused the event. Subscribers that fail a write are dropped; a periodic comment keeps idle
+ * connections open through proxies and finds dead ones.
+ */
+@Component
+public class LowStockNotifier {
+    static final String EVENT_NAME = "low-stock";
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "low-stock-sse");
+        t.setDaemon(true);
+        return t;
+    });
+    private final long timeoutMillis;
+
+    public LowStockNotifier(@Value("${inventory.low-stock.stream-timeout:PT30M}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onLowStock(LowStockEvent event) {
+        if (subscribers.isEmpty()) return;
+        dispatcher.execute(() -> broadcast(SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON)));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) return;
+        dispatcher.execute(() -> broadcast(SseEmitter.event().comment("keepalive")));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.inventory.service;
+
+import com.inventory.dto.DailyMovement;
+import com.inventory.repository.InventoryLogDailyRepository;
+import com.inventory.repository.InventoryLogRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Movement totals over time, read from the daily rollups for days that have been summarised and from
+ * {@code inventory_logs} for the days after them. Both sources are read in one transaction, and a day is
+ * only ever in one of them as far as a reader can tell, so nothing is counted twice.
+ */
+@Service
+public class MovementHistory {
+    static final int MAX_DAYS = 366;
+
+    private final InventoryLogRepository logRepository;
+    private final InventoryLogDailyRepository dailyRepository;
+
+    public MovementHistory(InventoryLogRepository logRepository, InventoryLogDailyRepository dailyRepository) {
+        this.logRepository = logRepository;
+        this.dailyRepository = dailyRepository;
+    }
+
+    // [in, out] units per product from the start of the given day up to an instant
+    @Transactional(readOnly = true)
+    public Map<Long, long[]> unitsBetween(LocalDate from, LocalDateTime before) {
+        Map<Long, long[]> totals = new HashMap<>();
+        LocalDateTime rawFrom = from.atStartOfDay();
+        LocalDate rolledThrough = dailyRepository.findRolledThrough();
+        if (rolledThrough != null && !rolledThrough.isBefore(from)) {
+            for (Object[] row : dailyRepository.sumUnitsBetween(from, rolledThrough)) {
+                long[] v = totals.computeIfAbsent((Long) row[0], id -> new long[2]);
+                v[0] += ((Number) row[1]).longValue();
+                v[1] += ((Number) row[2]).longValue();
+            }
+            rawFrom = rolledThrough.plusDays(1).atStartOfDay();
+        }
+        for (Object[] row : logRepository.sumQuantitiesBetween(rawFrom, before)) {
+            long[] v = totals.computeIfAbsent((Long) row[0], id -> new long[2]);
+            v["OUT".equals(row[1]) ? 1 : 0] += ((Number) row[2]).longValue();
+        }
+        return totals;
+    }
+
+    // Per-product daily movements between two days, inclusive, ordered by day then product
+    @Transactional(readOnly = true)
+    public List<DailyMovement> daily(Long productId, LocalDate from, LocalDate to) {
+        if (from == null) {
+            throw new RuntimeException("from is required");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (from.isAfter(end)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        if (from.plusDays(MAX_DAYS).isBefore(end)) {
+            throw new RuntimeException("History is limited to " + MAX_DAYS + " days per request");
+        }
+        List<DailyMovement> days = new ArrayList<>();
+        LocalDate rawFrom = from;
+        LocalDate rolledThrough = dailyRepository.findRolledThrough();
+        if (rolledThrough != null && !rolledThrough.isBefore(from)) {
+            days.addAll(dailyRepository.findDays(productId, from, rolledThrough.isBefore(end) ? rolledThrough : end));
+            rawFrom = rolledThrough.plusDays(1);
+        }
+        if (!rawFrom.isAfter(end)) {
+            days.addAll(toDays(logRepository.sumDaily(productId, rawFrom.atStartOfDay(), end.plusDays(1).atStartOfDay())));
+        }
+        return days;
+    }
+
+    // Daily movements of products with ids in [firstId, endId) between two days, inclusive, in no particular order
+    @Transactional(readOnly = true)
+    public List<DailyMovement> dailyForProducts(long firstId, long endId, LocalDate from, LocalDate to) {
+        List<DailyMovement> days = new ArrayList<>();
+        LocalDate rawFrom = from;
+        LocalDate rolledThrough = dailyRepository.findRolledThrough();
+        if (rolledThrough != null && !rolledThrough.isBefore(from)) {
+            for (Object[] row : dailyRepository.findDaysForProducts(firstId, endId, from, rolledThrough.isBefore(to) ? rolledThrough : to)) {
+                LocalDate day = row[0] instanceof Date date ? date.toLocalDate() : (LocalDate) row[0];
+                days.add(new DailyMovement(day, ((Number) row[1]).longValue(), ((Number) row[2]).longValue(),
+                        ((Number) row[3]).longValue(), ((Number) row[4]).intValue()));
+            }
+            rawFrom = rolledThrough.plusDays(1);
+        }
+        if (!rawFrom.isAfter(to)) {
+            days.addAll(toDays(logRepository.sumDailyForProducts(firstId, endId, rawFrom.atStartOfDay(), to.plusDays(1).atStartOfDay())));
+        }
+        return days;
+    }
+
+    // Merges [productId, day, type, quantity, movements] rows into one entry per product and day
+    static List<DailyMovement> toDays(List<Object[]> rows) {
+        Map<List<Object>, long[]> merged = new HashMap<>();
+        for (Object[] row : rows) {
+            long[] v = merged.computeIfAbsent(List.of(row[1], row[0]), k -> new long[3]);
+            v["OUT".equals(row[2]) ? 1 : 0] += ((Number) row[3]).longValue();
+            v[2] += ((Number) row[4]).longValue();
+        }
+        List<DailyMovement> days = new ArrayList<>(merged.size());
+        merged.forEach((key, v) -> days.add(new DailyMovement((LocalDate) key.get(0), (Long) key.get(1), v[0], v[1], (int) v[2])));
+        days.sort(Comparator.comparing(DailyMovement::day).thenComparing(DailyMovement::productId));
+        return days;
+    }
+}
@@ -0,0 +1,359 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.ImportError;
+import com.inventory.dto.ImportStatus;
+import com.inventory.model.Supplier;
+import com.inventory.repository.SupplierRepository;
+import com.inventory.search.CatalogSearch;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk catalogue import from CSV or NDJSON.
+ * <p>
+ * An upload is spooled to a temporary file and imported in the background, one job at a time. Rows are parsed as a
+ * stream and validated one by one, suppliers are resolved by name from a map loaded once per job, and products are
+ * upserted on their SKU in JDBC batches, one transaction per chunk. New products take every field; existing ones
+ * keep their stock quantity (which only changes through stock movements) and any field the row leaves empty.
+ * Search, reports and the product cache are refreshed once the job ends. Job status is kept in memory on the node
+ * that ran the import.
+ */
+@Service
+public class ProductImportService {
+    static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_JOBS = 50;
+    private static final int MAX_TEXT = 255;
+    private static final int MAX_SKU = 64;
+
+    private static final String INSERT = "INSERT INTO products (sku, name, description, category, supplier_id, quantity, " +
+            "price, warehouse_location, reorder_level, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE = "UPDATE products SET version = version + 1, name = ?, " +
+            "description = COALESCE(?, description), category = COALESCE(?, category), " +
+            "supplier_id = COALESCE(?, supplier_id), price = COALESCE(?, price), warehouse_location = COALESCE(?, warehouse_location), reorder_level = COALESCE(?, reorder_level) WHERE id = ?";
+    private static final String EXISTING = "SELECT sku, id FROM products WHERE sku IN (:skus)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SupplierRepository supplierRepository;
+    private final ObjectMapper objectMapper;
+    private final CatalogSearch catalogSearch;
+    private final ReportingAggregates reportingAggregates;
+    private final CatalogCache catalogCache;
+    private final int chunkSize;
+    private final int batchSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "product-import");
+        t.setDaemon(true);
+        return t;
+    });
+    // Most recent jobs, oldest first
+    private final Map<String, Job> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > MAX_JOBS;
+        }
+    };
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                SupplierRepository supplierRepository, ObjectMapper objectMapper, CatalogSearch catalogSearch,
+                                ReportingAggregates reportingAggregates, CatalogCache catalogCache,
+                                @Value("${inventory.import.chunk-size:5000}") int chunkSize,
+                                @Value("${inventory.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.supplierRepository = supplierRepository;
+        this.objectMapper = objectMapper;
+        this.catalogSearch = catalogSearch;
+        this.reportingAggregates = reportingAggregates;
+        this.catalogCache = catalogCache;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public ImportStatus submit(InputStream body, String format) throws IOException {
+        if (!ImportRowReader.CSV.equals(format) && !ImportRowReader.NDJSON.equals(format)) {
+            throw new RuntimeException("Unsupported import format, use csv or ndjson");
+        }
+        Path spool = Files.createTempFile("product-import-", "." + format);
+        try {
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+        Job job = register(format);
+        executor.execute(() -> {
+            try (Reader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+                run(job, reader);
+            } catch (IOException e) {
+                job.fail(e.getMessage());
+            } finally {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException ignored) {
+                    // Left for the OS to clean up with the rest of the temp directory
+                }
+            }
+        });
+        return job.snapshot();
+    }
+
+    public Optional<ImportStatus> status(String id) {
+        synchronized (jobs) {
+            Job job = jobs.get(id);
+            return job != null ? Optional.of(job.snapshot()) : Optional.empty();
+        }
+    }
+
+    // Newest first
+    public List<ImportStatus> recent() {
+        synchronized (jobs) {
+            List<ImportStatus> list = new ArrayList<>(jobs.size());
+            jobs.values().forEach(job -> list.add(0, job.snapshot()));
+            return list;
+        }
+    }
+
+    // Runs an import on the calling thread
+    ImportStatus importNow(Reader reader, String format) {
+        Job job = register(format);
+        run(job, reader);
+        return job.snapshot();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Job register(String format) {
+        Job job = new Job(UUID.randomUUID().toString(), format);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        return job;
+    }
+
+    private void run(Job job, Reader reader) {
+        job.start();
+        try (ImportRowReader rows = ImportRowReader.open(job.format, reader, objectMapper)) {
+            Map<String, Long> suppliers = new HashMap<>();
+            for (Supplier s : supplierRepository.findAll()) suppliers.putIfAbsent(key(s.getName()), s.getId());
+
+            // Keyed by SKU, so a SKU repeated within a chunk is written once, with its last row
+            Map<String, ImportRowReader.Row> chunk = new LinkedHashMap<>();
+            for (ImportRowReader.Row row = rows.next(); row != null; row = rows.next()) {
+                job.rowsRead++;
+                String error = row.error() != null ? row.error() : validate(row, suppliers);
+                if (error != null) {
+                    job.reject(row.line(), error);
+                    continue;
+                }
+                chunk.put(row.sku(), row);
+                if (chunk.size() >= chunkSize) {
+                    write(chunk.values(), suppliers, job);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) write(chunk.values(), suppliers, job);
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+        } finally {
+            // Rows were written around the service layer, so derived state is rebuilt from the database
+            if (job.inserted + job.updated > 0) {
+                catalogCache.evictAllProducts();
+                catalogSearch.rebuild();
+                reportingAggregates.reconcile();
+            }
+        }
+    }
+
+    private static String validate(ImportRowReader.Row row, Map<String, Long> suppliers) {
+        if (row.sku() == null) return "sku is required";
+        if (row.sku().length() > MAX_SKU) return "sku is longer than " + MAX_SKU + " characters";
+        if (row.name() == null) return "name is required";
+        if (tooLong(row.name()) || tooLong(row.description()) || tooLong(row.category()) || tooLong(row.warehouseLocation())) {
+            return "Text fields are limited to " + MAX_TEXT + " characters";
+        }
+        if (row.quantity() != null && row.quantity() < 0) return "quantity must not be negative";
+        if (row.price() != null && (row.price() < 0 || row.price().isNaN() || row.price().isInfinite())) return "price must not be negative";
+        if (row.reorderLevel() != null && row.reorderLevel() < 0) return "reorderLevel must not be negative";
+        if (row.supplier() != null && !suppliers.containsKey(key(row.supplier()))) return "Unknown supplier: " + row.supplier();
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_TEXT;
+    }
+
+    private static String key(String supplierName) {
+        return supplierName == null ? null : supplierName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void write(Collection<ImportRowReader.Row> rows, Map<String, Long> suppliers, Job job) {
+        try {
+            int[] counts = transactionTemplate.execute(status -> upsert(rows, suppliers));
+            job.inserted += counts[0];
+            job.updated += counts[1];
+        } catch (DataAccessException e) {
+            // Find the offending rows: retry one at a time, each in its own transaction
+            for (ImportRowReader.Row row : rows) {
+                try {
+                    int[] counts = transactionTemplate.execute(status -> upsert(List.of(row), suppliers));
+                    job.inserted += counts[0];
+                    job.updated += counts[1];
+                } catch (DataAccessException rowError) {
+                    Throwable cause = rowError.getMostSpecificCause();
+                    job.reject(row.line(), "Could not be stored: " + cause.getMessage());
+                }
+            }
+        }
+    }
+
+    // Returns {inserted, updated}
+    private int[] upsert(Collection<ImportRowReader.Row> rows, Map<String, Long> suppliers) {
+        Map<String, Long> existing = new HashMap<>();
+        List<String> skus = rows.stream().map(ImportRowReader.Row::sku).toList();
+        for (int i = 0; i < skus.size(); i += batchSize) {
+            namedJdbcTemplate.query(EXISTING, new MapSqlParameterSource("skus", skus.subList(i, Math.min(i + batchSize, skus.size()))),
+                    rs -> {
+                        existing.put(rs.getString(1), rs.getLong(2));
+                    });
+        }
+        List<ImportRowReader.Row> inserts = new ArrayList<>();
+        List<ImportRowReader.Row> updates = new ArrayList<>();
+        for (ImportRowReader.Row row : rows) (existing.containsKey(row.sku()) ? updates : inserts).add(row);
+
+        jdbcTemplate.batchUpdate(INSERT, inserts, batchSize, (ps, row) -> {
+            ps.setString(1, row.sku());
+            ps.setString(2, row.name());
+            setString(ps, 3, row.description());
+            setString(ps, 4, row.category());
+            setLong(ps, 5, suppliers.get(key(row.supplier())));
+            ps.setInt(6, row.quantity() != null ? row.quantity() : 0);
+            ps.setDouble(7, row.price() != null ? row.price() : 0);
+            setString(ps, 8, row.warehouseLocation());
+            ps.setInt(9, row.reorderLevel() != null ? row.reorderLevel() : 0);
+        });
+        jdbcTemplate.batchUpdate(UPDATE, updates, batchSize, (ps, row) -> {
+            ps.setString(1, row.name());
+            setString(ps, 2, row.description());
+            setString(ps, 3, row.category());
+            setLong(ps, 4, suppliers.get(key(row.supplier())));
+            if (row.price() != null) ps.setDouble(5, row.price());
+            else ps.setNull(5, Types.DOUBLE);
+            setString(ps, 6, row.warehouseLocation());
+            if (row.reorderLevel() != null) ps.setInt(7, row.reorderLevel());
+            else ps.setNull(7, Types.INTEGER);
+            ps.setLong(8, existing.get(row.sku()));
+        });
+        return new int[]{inserts.size(), updates.size()};
+    }
+
+    private static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) ps.setString(index, value);
+        else ps.setNull(index, Types.VARCHAR);
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) ps.setLong(index, value);
+        else ps.setNull(index, Types.BIGINT);
+    }
+
+    // Written only by the import thread; counters may be read slightly stale by status requests
+    private static final class Job {
+        final String id;
+        final String format;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final List<ImportError> errors = new ArrayList<>();
+        volatile String state = "QUEUED";
+        volatile String message;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile long startNanos;
+        volatile long endNanos;
+        volatile long rowsRead;
+        volatile long inserted;
+        volatile long updated;
+        volatile long rejected;
+
+        Job(String id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            startNanos = System.nanoTime();
+            state = "RUNNING";
+        }
+
+        void reject(long line, String error) {
+            rejected++;
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportError(line, error));
+            }
+        }
+
+        void complete() {
+            finish("COMPLETED", null);
+        }
+
+        void fail(String reason) {
+            finish("FAILED", reason != null ? reason : "Import failed");
+        }
+
+        private void finish(String finalState, String reason) {
+            endNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            message = reason;
+            state = finalState;
+        }
+
+        ImportStatus snapshot() {
+            List<ImportError> reported;
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+            long elapsed = startNanos == 0 ? 0 : (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+            double rate = elapsed > 0 ? rowsRead / (elapsed / (double) Duration.ofSeconds(1).toNanos()) : 0;
+            return new ImportStatus(id, format, state, rowsRead, inserted, updated, rejected, reported, rate, message,
+                    submittedAt, startedAt, finishedAt);
+        }
+    }
+}
@@ -1,39 +1,153 @@
 package com.inventory.service;
 
+import com.inventory.config.CacheConfig;
+import com.inventory.dto.ProductChanges;
+import com.inventory.dto.ProductStockView;
+import com.inventory.dto.ProductView;
 import com.inventory.model.Product;
 import com.inventory.model.Supplier;
 import com.inventory.repository.ProductRepository;
-import com.inventory.repository.SupplierRepository;
+import com.inventory.repository.StockLevelRepository;
+import com.inventory.search.CatalogSearch;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
     private final ProductRepository productRepository;
-    private final SupplierRepository supplierRepository;
+    private final SupplierService supplierService;
+    private final StockLedger stockLedger;
+    private final ReportingAggregates reportingAggregates;
+    private final CatalogCache catalogCache;
+    private final CatalogSearch catalogSearch;
+    private final LogWriteBehind logWriteBehind;
+    private final CatalogVersions catalogVersions;
+    private final InventoryService inventoryService;
+    private final WarehouseService warehouseService;
+    private final StockLevelRepository stockLevelRepository;
+    private final TransactionTemplate transactionTemplate;
 
-    public ProductService(ProductRepository productRepository, SupplierRepository supplierRepository) {
+    public ProductService(ProductRepository productRepository, SupplierService supplierService,
+                          StockLedger stockLedger, ReportingAggregates reportingAggregates, CatalogCache catalogCache,
+                          CatalogSearch catalogSearch, LogWriteBehind logWriteBehind, CatalogVersions catalogVersions,
+                          InventoryService inventoryService, WarehouseService warehouseService,
+                          StockLevelRepository stockLevelRepository, TransactionTemplate transactionTemplate) {
         this.productRepository = productRepository;
-        this.supplierRepository = supplierRepository;
+        this.supplierService = supplierService;
+        this.stockLedger = stockLedger;
+        this.reportingAggregates = reportingAggregates;
+        this.catalogCache = catalogCache;
+        this.catalogSearch = catalogSearch;
+        this.logWriteBehind = logWriteBehind;
+        this.catalogVersions = catalogVersions;
+        this.inventoryService = inventoryService;
+        this.warehouseService = warehouseService;
+        this.stockLevelRepository = stockLevelRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    public List<Product> findAll() { return productRepository.findAll(); }
+    public List<ProductView> findAll() { return productRepository.findAllViews(); }
 
-    public Optional<Product> findById(Long id) { return productRepository.findById(id); }
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id", sync = true)
+    public Optional<ProductView> findById(Long id) { return productRepository.findViewById(id); }
 
-    public List<Product> search(String q) { return productRepository.search(q); }
+    public List<ProductView> search(String q, Integer limit) {
+        if (!catalogSearch.isReady()) return productRepository.search(q);
+        List<Long> ids = catalogSearch.searchProducts(q, limit);
+        if (ids.isEmpty()) return List.of();
+        Map<Long, ProductView> byId = productRepository.findViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductView::id, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
 
-    public List<Product> lowStock() { return productRepository.findLowStock(); }
+    // Products changed since a version from an earlier call, or all of them when that version is too old or unknown
+    public ProductChanges changesSince(String version) {
+        CatalogVersions.Changes changes = catalogVersions.productChangesSince(version);
+        if (changes.ids() == null) {
+            return new ProductChanges(changes.version(), true, productRepository.findAllViews(), List.of());
+        }
+        if (changes.ids().isEmpty()) return new ProductChanges(changes.version(), false, List.of(), List.of());
+        List<ProductView> changed = productRepository.findViewsByIdIn(changes.ids()).stream()
+                .sorted(Comparator.comparing(ProductView::id))
+                .toList();
+        Set<Long> found = changed.stream().map(ProductView::id).collect(Collectors.toSet());
+        List<Long> removed = changes.ids().stream().filter(id -> !found.contains(id)).sorted().toList();
+        return new ProductChanges(changes.version(), false, changed, removed);
+    }
+
+    // The low-stock set is maintained in memory, so this reads only the matching rows by primary key
+    public List<ProductView> lowStock() {
+        List<Long> ids = reportingAggregates.lowStockIds();
+        if (ids.isEmpty()) return List.of();
+        return productRepository.findViewsByIdIn(ids).stream()
+                .sorted(Comparator.comparing(ProductView::id))
+                .toList();
+    }
 
     public Product save(Product p) {
         if (p.getSupplier() != null && p.getSupplier().getId() != null) {
-            Supplier s = supplierRepository.findById(p.getSupplier().getId()).orElse(null);
+            Supplier s = supplierService.findById(p.getSupplier().getId()).orElse(null);
             p.setSupplier(s);
+            // Reports resolve supplier names by id; make sure this one is known even if it was written elsewhere
+            if (s != null) reportingAggregates.onSupplierChanged(s);
+        }
+        if (p.getId() == null) {
+            p.setVersion(null);
+            Product saved = productRepository.save(p);
+            // Drops a cached miss for the new id
+            catalogCache.evictProduct(saved.getId());
+            catalogSearch.indexProduct(saved);
+            reportingAggregates.onProductChanged(ProductStockView.of(saved));
+            return saved;
         }
-        return productRepository.save(p);
+        // Serialize with stock movements so derived stock state never outlives this write
+        return stockLedger.withLock(p.getId(), () -> {
+            Product saved = transactionTemplate.execute(status -> {
+                Long current = productRepository.findVersionById(p.getId())
+                        .orElseThrow(() -> new RuntimeException("Product not found"));
+                // A client that sends no version overwrites whatever is current; one that does gets a conflict if it is stale
+                if (p.getVersion() == null) {
+                    p.setVersion(current);
+                } else if (!p.getVersion().equals(current)) {
+                    throw new ObjectOptimisticLockingFailureException(Product.class, p.getId());
+                }
+                // An edited total is taken up by the default warehouse, before the product row is locked
+                int delta = p.getQuantity() - productRepository.findQuantityById(p.getId()).orElse(p.getQuantity());
+                if (delta != 0) inventoryService.moveAt(new StockLedger.Location(p.getId(), warehouseService.defaultId()), delta);
+                return productRepository.save(p);
+            });
+            stockLedger.invalidate(p.getId());
+            catalogCache.evictProduct(p.getId());
+            catalogSearch.indexProduct(saved);
+            reportingAggregates.onProductChanged(ProductStockView.of(saved));
+            return saved;
+        });
     }
 
-    public void delete(Long id) { productRepository.deleteById(id); }
+    public void delete(Long id) {
+        stockLedger.withLock(id, () -> {
+            // Queued log rows still reference the product; write them first so the delete sees them
+            logWriteBehind.awaitFlushed();
+            transactionTemplate.executeWithoutResult(status -> {
+                stockLevelRepository.deleteByProductId(id);
+                productRepository.deleteById(id);
+            });
+            stockLedger.invalidate(id);
+            catalogCache.evictProduct(id);
+            catalogSearch.removeProduct(id);
+            reportingAggregates.onProductRemoved(id);
+            return null;
+        });
+    }
 }
@@ -0,0 +1,329 @@
+package com.inventory.service;
+
+import com.inventory.dto.LowStockEvent;
+import com.inventory.dto.ProductMovement;
+import com.inventory.dto.ProductStockView;
+import com.inventory.dto.SupplierRef;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Supplier;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
+
+/**
+ * Running stock report aggregates, updated as products and movements change so reads never scan the catalogue.
+ * <p>
+ * Valuations are kept exactly with {@link BigDecimal}. IN/OUT volumes cover a rolling window, starting at
+ * midnight, that is re-based from {@link MovementHistory} on every reconciliation, which also rebuilds the
+ * fast/slow-moving rankings and corrects any drift from writes made outside the service layer.
+ * <p>
+ * The set of products below their reorder level is kept here too. Every change that moves a product across the
+ * threshold, including corrections found by reconciliation, publishes a {@link LowStockEvent}.
+ */
+@Component
+public class ReportingAggregates {
+    private static final int RANKED_LIMIT = 10;
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final String UNASSIGNED = "Unassigned";
+
+    private final ProductRepository productRepository;
+    private final MovementHistory movementHistory;
+    private final SupplierRepository supplierRepository;
+    private final LogWriteBehind logWriteBehind;
+    private final int windowDays;
+    private final ApplicationEventPublisher events;
+
+    private final Object lock = new Object();
+    private State state = new State();
+    // Product upserts (views), removals (ids), supplier renames and movements (logs) seen while a reconciliation is
+    // loading, replayed onto the rebuilt state
+    private List<Object> changedDuringRebuild;
+
+    public ReportingAggregates(ProductRepository productRepository, MovementHistory movementHistory,
+                               SupplierRepository supplierRepository, LogWriteBehind logWriteBehind,
+                               @Value("${inventory.reports.window-days:30}") int windowDays,
+                               MeterRegistry meterRegistry, ApplicationEventPublisher events) {
+        this.productRepository = productRepository;
+        this.movementHistory = movementHistory;
+        this.supplierRepository = supplierRepository;
+        this.logWriteBehind = logWriteBehind;
+        this.windowDays = windowDays;
+        this.events = events;
+        Gauge.builder("inventory.stock.low_skus", this, a -> a.read(s -> s.lowStock.size()))
+                .description("Products below their reorder level")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.out_of_stock_skus", this, a -> a.read(s -> s.outOfStockSkus))
+                .description("Products with no units on hand")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.units", this, a -> a.read(s -> s.totalUnits))
+                .description("Units on hand across all products")
+                .register(meterRegistry);
+    }
+
+    // Movements at different warehouses publish the same product concurrently; a view older than the held one is dropped
+    public void onProductChanged(ProductStockView product) {
+        ProductStockView old;
+        synchronized (lock) {
+            ProductStockView held = state.products.get(product.id());
+            if (held != null && product.olderThan(held)) return;
+            old = state.put(product);
+            if (changedDuringRebuild != null) changedDuringRebuild.add(product);
+        }
+        boolean wasLow = old != null && old.lowStock();
+        if (wasLow != product.lowStock()) events.publishEvent(LowStockEvent.of(product, product.lowStock()));
+    }
+
+    public void onProductRemoved(Long productId) {
+        ProductStockView old;
+        synchronized (lock) {
+            old = state.remove(productId);
+            if (changedDuringRebuild != null) changedDuringRebuild.add(productId);
+        }
+        if (old != null && old.lowStock()) events.publishEvent(LowStockEvent.of(old, false));
+    }
+
+    // Ids of products below their reorder level, ascending
+    public List<Long> lowStockIds() {
+        synchronized (lock) {
+            return new ArrayList<>(state.lowStock);
+        }
+    }
+
+    public void onSupplierChanged(Supplier supplier) {
+        synchronized (lock) {
+            state.supplierNames.put(supplier.getId(), supplier.getName());
+            if (changedDuringRebuild != null) changedDuringRebuild.add(supplier);
+        }
+    }
+
+    public void onMovement(InventoryLog log) {
+        synchronized (lock) {
+            state.addVolume(log.getProduct().getId(), log.getType(), log.getQuantity());
+            if (changedDuringRebuild != null) changedDuringRebuild.add(log);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        synchronized (lock) {
+            return report(state);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${inventory.reports.reconcile-interval:PT5M}",
+            fixedDelayString = "${inventory.reports.reconcile-interval:PT5M}")
+    public void reconcile() {
+        LocalDateTime cutoff;
+        synchronized (lock) {
+            changedDuringRebuild = new ArrayList<>();
+            // Volumes are loaded for movements made before the cutoff; later ones are all seen here and replayed
+            cutoff = LocalDateTime.now();
+        }
+        State rebuilt;
+        try {
+            // Queued log rows of movements already made must be in the table the load reads
+            logWriteBehind.awaitFlushed();
+            rebuilt = load(cutoff);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changedDuringRebuild = null;
+            }
+            throw e;
+        }
+        List<LowStockEvent> corrections = new ArrayList<>();
+        synchronized (lock) {
+            for (Object change : changedDuringRebuild) {
+                if (change instanceof Long id) rebuilt.remove(id);
+                else if (change instanceof Supplier supplier) rebuilt.supplierNames.put(supplier.getId(), supplier.getName());
+                else if (change instanceof ProductStockView view) {
+                    ProductStockView loaded = rebuilt.products.get(view.id());
+                    if (loaded == null || !view.olderThan(loaded)) rebuilt.put(view);
+                } else if (change instanceof InventoryLog log && !log.getCreatedAt().isBefore(cutoff)) {
+                    rebuilt.addVolume(log.getProduct().getId(), log.getType(), log.getQuantity());
+                }
+            }
+            changedDuringRebuild = null;
+            rebuilt.rank();
+            // Threshold crossings made outside the service layer only show up as a difference between the two states
+            for (Long id : state.lowStock) {
+                if (!rebuilt.lowStock.contains(id)) {
+                    ProductStockView now = rebuilt.products.get(id);
+                    corrections.add(LowStockEvent.of(now != null ? now : state.products.get(id), false));
+                }
+            }
+            for (Long id : rebuilt.lowStock) {
+                if (!state.lowStock.contains(id)) corrections.add(LowStockEvent.of(rebuilt.products.get(id), true));
+            }
+            state = rebuilt;
+        }
+        corrections.forEach(events::publishEvent);
+    }
+
+    // Full recompute from the database; used to verify the running aggregates
+    State load() {
+        return load(LocalDateTime.now());
+    }
+
+    /*
+     * Volumes count movements made before the cutoff. Read last, so a movement made before it has until then to
+     * commit; one still uncommitted by then is only counted by the next reconciliation.
+     */
+    State load(LocalDateTime cutoff) {
+        State fresh = new State();
+        supplierRepository.findAll().forEach(s -> fresh.supplierNames.put(s.getId(), s.getName()));
+        productRepository.findAllStockViews().forEach(fresh::put);
+        movementHistory.unitsBetween(LocalDate.now().minusDays(windowDays), cutoff).forEach((productId, v) -> {
+            fresh.addVolume(productId, "IN", v[0]);
+            fresh.addVolume(productId, "OUT", v[1]);
+        });
+        fresh.reconciledAt = LocalDateTime.now();
+        return fresh;
+    }
+
+    Map<String, Object> report(State s) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stockValuation", s.totalValuation.doubleValue());
+        result.put("valuationByCategory", toDoubles(s.byCategory));
+        result.put("valuationBySupplier", s.valuationBySupplierName());
+        result.put("totalUnits", s.totalUnits);
+        result.put("windowDays", windowDays);
+        result.put("outVolume", s.outUnits);
+        // Annualized units turnover: OUT units over the window relative to units on hand
+        result.put("turnoverRate", s.totalUnits > 0 ? s.outUnits * (365.0 / windowDays) / s.totalUnits : 0.0);
+        result.put("fastMoving", s.fastMoving);
+        result.put("slowMoving", s.slowMoving);
+        result.put("reconciledAt", s.reconciledAt);
+        return result;
+    }
+
+    private double read(ToLongFunction<State> metric) {
+        synchronized (lock) {
+            return metric.applyAsLong(state);
+        }
+    }
+
+    long[] volumes(Long productId) {
+        synchronized (lock) {
+            long[] v = state.volumes.get(productId);
+            return v != null ? v.clone() : new long[2];
+        }
+    }
+
+    private static Map<String, Double> toDoubles(Map<String, BigDecimal> values) {
+        Map<String, Double> out = new HashMap<>();
+        values.forEach((k, v) -> out.put(k, v.doubleValue()));
+        return out;
+    }
+
+    static final class State {
+        final Map<Long, ProductStockView> products = new HashMap<>();
+        final Map<Long, long[]> volumes = new HashMap<>(); // [in, out] over the window
+        final Map<String, BigDecimal> byCategory = new HashMap<>();
+        final Map<Long, BigDecimal> bySupplier = new HashMap<>(); // null key: no supplier
+        final Map<Long, String> supplierNames = new HashMap<>();
+        BigDecimal totalValuation = BigDecimal.ZERO;
+        long totalUnits;
+        long outUnits;
+        final NavigableSet<Long> lowStock = new TreeSet<>();
+        long outOfStockSkus;
+        List<ProductMovement> fastMoving = List.of();
+        List<ProductMovement> slowMoving = List.of();
+        LocalDateTime reconciledAt;
+
+        ProductStockView put(ProductStockView p) {
+            ProductStockView old = remove(p.id());
+            products.put(p.id(), p);
+            contribute(p, 1);
+            return old;
+        }
+
+        ProductStockView remove(Long productId) {
+            ProductStockView old = products.remove(productId);
+            if (old != null) contribute(old, -1);
+            return old;
+        }
+
+        void addVolume(Long productId, String type, long quantity) {
+            long[] v = volumes.computeIfAbsent(productId, id -> new long[2]);
+            // Transfers between warehouses move no units in or out
+            if ("OUT".equals(type)) {
+                v[1] += quantity;
+                outUnits += quantity;
+            } else if ("IN".equals(type)) {
+                v[0] += quantity;
+            }
+        }
+
+        private void contribute(ProductStockView p, int sign) {
+            BigDecimal value = BigDecimal.valueOf(p.price()).multiply(BigDecimal.valueOf(p.quantity()));
+            if (sign < 0) value = value.negate();
+            totalValuation = totalValuation.add(value);
+            totalUnits += (long) sign * p.quantity();
+            if (p.lowStock()) {
+                if (sign > 0) lowStock.add(p.id());
+                else lowStock.remove(p.id());
+            }
+            if (p.quantity() == 0) outOfStockSkus += sign;
+            adjust(byCategory, p.category() != null ? p.category() : UNCATEGORIZED, value);
+            adjust(bySupplier, p.supplierId(), value);
+        }
+
+        private static <K> void adjust(Map<K, BigDecimal> totals, K key, BigDecimal delta) {
+            BigDecimal next = totals.getOrDefault(key, BigDecimal.ZERO).add(delta);
+            if (next.signum() == 0) totals.remove(key);
+            else totals.put(key, next);
+        }
+
+        Map<String, Double> valuationBySupplierName() {
+            Map<String, BigDecimal> byName = new HashMap<>();
+            bySupplier.forEach((id, v) -> byName.merge(supplierName(id), v, BigDecimal::add));
+            return toDoubles(byName);
+        }
+
+        private String supplierName(Long supplierId) {
+            if (supplierId == null) return UNASSIGNED;
+            return supplierNames.getOrDefault(supplierId, "Supplier #" + supplierId);
+        }
+
+        void rank() {
+            List<ProductMovement> all = products.values().stream().map(this::toMovement).toList();
+            fastMoving = all.stream()
+                    .filter(m -> m.outVolume() > 0)
+                    .sorted(Comparator.comparingLong(ProductMovement::outVolume).reversed())
+                    .limit(RANKED_LIMIT)
+                    .toList();
+            slowMoving = all.stream()
+                    .filter(m -> m.quantity() > 0)
+                    .sorted(Comparator.comparingLong(ProductMovement::outVolume)
+                            .thenComparing(Comparator.comparingInt(ProductMovement::quantity).reversed()))
+                    .limit(RANKED_LIMIT)
+                    .toList();
+        }
+
+        private ProductMovement toMovement(ProductStockView p) {
+            long[] v = volumes.getOrDefault(p.id(), new long[2]);
+            SupplierRef supplier = p.supplierId() != null ? new SupplierRef(p.supplierId(), supplierNames.get(p.supplierId())) : null;
+            return new ProductMovement(p.id(), p.name(), p.category(), supplier, p.quantity(), v[0], v[1]);
+        }
+    }
+}
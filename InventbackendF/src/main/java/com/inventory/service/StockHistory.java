@@ -0,0 +1,152 @@
+package com.inventory.service;
+
+import com.inventory.dto.DailyMovement;
+import com.inventory.dto.StockAt;
+import com.inventory.model.StockSnapshot;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Total stock at past instants.
+ * <p>
+ * An as-of query starts from the product's nearest snapshot before the instant and adds the movements after it.
+ * Snapshots are written for every day a product moves, so that replay never spans more than the instant's own day
+ * plus any days not yet snapshotted, however long the history is. Instants before a product's first snapshot are
+ * answered backwards from that snapshot, or from the current quantity when there is none yet. Replays read raw log
+ * rows, so they are exact only while those rows are within the raw retention.
+ */
+@Service
+public class StockHistory {
+    static final int MAX_POINTS = 1000;
+
+    public enum Resolution {
+        HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS), WEEK(ChronoUnit.WEEKS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        static Resolution parse(String value) {
+            if (value == null || value.isBlank()) return DAY;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Resolution must be HOUR, DAY or WEEK");
+            }
+        }
+
+        // Points fall on hour or day boundaries
+        LocalDateTime align(LocalDateTime at) {
+            return at.truncatedTo(this == HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+        }
+    }
+
+    private final StockSnapshotRepository snapshotRepository;
+    private final InventoryLogRepository logRepository;
+    private final ProductRepository productRepository;
+    private final MovementHistory movementHistory;
+    private final Clock clock;
+
+    @Autowired
+    public StockHistory(StockSnapshotRepository snapshotRepository, InventoryLogRepository logRepository,
+                        ProductRepository productRepository, MovementHistory movementHistory) {
+        this(snapshotRepository, logRepository, productRepository, movementHistory, Clock.systemDefaultZone());
+    }
+
+    StockHistory(StockSnapshotRepository snapshotRepository, InventoryLogRepository logRepository,
+                 ProductRepository productRepository, MovementHistory movementHistory, Clock clock) {
+        this.snapshotRepository = snapshotRepository;
+        this.logRepository = logRepository;
+        this.productRepository = productRepository;
+        this.movementHistory = movementHistory;
+        this.clock = clock;
+    }
+
+    @Transactional(readOnly = true)
+    public StockAt asOf(Long productId, LocalDateTime at) {
+        if (productId == null) {
+            throw new RuntimeException("productId is required");
+        }
+        if (at == null) {
+            throw new RuntimeException("at is required");
+        }
+        int current = productRepository.findQuantityById(productId).orElseThrow(() -> new RuntimeException("Product not found"));
+        return new StockAt(productId, at, quantityAt(productId, at, current));
+    }
+
+    // Quantity at each step boundary from the start of from's hour or day through to, ending at the last boundary
+    @Transactional(readOnly = true)
+    public List<StockAt> series(Long productId, LocalDateTime from, LocalDateTime to, String resolution) {
+        if (from == null) {
+            throw new RuntimeException("from is required");
+        }
+        Resolution step = Resolution.parse(resolution);
+        LocalDateTime start = step.align(from);
+        LocalDateTime end = to != null ? to : LocalDateTime.now(clock);
+        if (start.isAfter(end)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        long points = step.unit.between(start, end) + 1;
+        if (points > MAX_POINTS) {
+            throw new RuntimeException("Series is limited to " + MAX_POINTS + " points per request");
+        }
+        LocalDateTime last = start.plus(points - 1, step.unit);
+
+        // Net units moved in each step, then a running sum from the quantity at the first point
+        long[] net = new long[(int) points];
+        if (step == Resolution.HOUR) {
+            for (Object[] row : logRepository.findMovementsBetween(productId, start, last)) {
+                int i = (int) ChronoUnit.HOURS.between(start, (LocalDateTime) row[0]);
+                net[i] += "OUT".equals(row[1]) ? -((Number) row[2]).longValue() : ((Number) row[2]).longValue();
+            }
+        } else if (points > 1) {
+            // Daily totals also cover days whose raw rows have been rolled up and purged; read in windows within the
+            // daily history's per-request limit, since up to MAX_POINTS days or weeks can span several years
+            LocalDate through = last.toLocalDate().minusDays(1);
+            for (LocalDate window = start.toLocalDate(); !window.isAfter(through); window = window.plusDays(MovementHistory.MAX_DAYS)) {
+                LocalDate windowEnd = window.plusDays(MovementHistory.MAX_DAYS - 1);
+                for (DailyMovement d : movementHistory.daily(productId, window, windowEnd.isBefore(through) ? windowEnd : through)) {
+                    int i = (int) step.unit.between(start, d.day().atStartOfDay());
+                    net[i] += d.inUnits() - d.outUnits();
+                }
+            }
+        }
+        long quantity = asOf(productId, start).quantity();
+        List<StockAt> series = new ArrayList<>((int) points);
+        for (int i = 0; i < points; i++) {
+            series.add(new StockAt(productId, start.plus(i, step.unit), (int) quantity));
+            quantity += net[i];
+        }
+        return series;
+    }
+
+    private int quantityAt(Long productId, LocalDateTime at, int current) {
+        Optional<StockSnapshot> floor =
+                snapshotRepository.findFirstByProductIdAndDayLessThanEqualOrderByDayDesc(productId, at.toLocalDate().minusDays(1));
+        if (floor.isPresent()) {
+            LocalDateTime closed = floor.get().getDay().plusDays(1).atStartOfDay();
+            return (int) (floor.get().getQuantity() + logRepository.sumNetBetween(productId, closed, at));
+        }
+        Optional<StockSnapshot> earliest = snapshotRepository.findFirstByProductIdOrderByDayAsc(productId);
+        if (earliest.isPresent()) {
+            LocalDateTime closed = earliest.get().getDay().plusDays(1).atStartOfDay();
+            return (int) (earliest.get().getQuantity() - logRepository.sumNetBetween(productId, at, closed));
+        }
+        return (int) (current - logRepository.sumNetBetween(productId, at, LocalDateTime.now(clock)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.inventory.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Lock stripes for stock writes plus a bounded cache of last committed stock levels per location.
+ * <p>
+ * Stock movements hold their product's stripe shared and their locations' stripes exclusively, so movements of
+ * one product at different warehouses run in parallel while those at the same warehouse queue. Product edits and
+ * deletes hold the product's stripe exclusively and so wait for every location. Cached levels change only after
+ * the transaction commits, under the location stripe, so publish order matches commit order and a cached level is
+ * exact for this node's writes. The database conditional update stays the authority; the cache only lets hot
+ * locations reject impossible OUT movements without a round trip.
+ */
+@Component
+public class StockLedger {
+    private static final int STRIPES = 64;
+    private static final int LOCATION_STRIPES = 256;
+
+    /**
+     * One product at one warehouse.
+     */
+    public record Location(Long productId, Long warehouseId) {
+    }
+
+    private final ReentrantReadWriteLock[] productLocks = new ReentrantReadWriteLock[STRIPES];
+    private final ReentrantLock[] locationLocks = new ReentrantLock[LOCATION_STRIPES];
+    private final Map<Location, Integer> levels = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final boolean enabled;
+
+    public StockLedger(@Value("${inventory.stock-cache.max-entries:10000}") int maxEntries,
+                       @Value("${inventory.stock-cache.enabled:true}") boolean enabled) {
+        for (int i = 0; i < STRIPES; i++) productLocks[i] = new ReentrantReadWriteLock();
+        for (int i = 0; i < LOCATION_STRIPES; i++) locationLocks[i] = new ReentrantLock();
+        this.maxEntries = maxEntries;
+        this.enabled = enabled;
+    }
+
+    // Exclusive over every location of the product
+    public <T> T withLock(Long productId, Supplier<T> action) {
+        Lock lock = productLocks[stripe(productId.hashCode(), STRIPES)].writeLock();
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Product stripes before location stripes, each in index order, so overlapping callers cannot deadlock
+    public <T> T withLocations(Collection<Location> locations, Supplier<T> action) {
+        int[] products = locations.stream().mapToInt(l -> stripe(l.productId().hashCode(), STRIPES)).distinct().sorted().toArray();
+        int[] places = locations.stream().mapToInt(l -> stripe(l.hashCode(), LOCATION_STRIPES)).distinct().sorted().toArray();
+        Lock[] held = new Lock[products.length + places.length];
+        int count = 0;
+        try {
+            for (int s : products) {
+                held[count] = productLocks[s].readLock();
+                held[count].lock();
+                count++;
+            }
+            for (int s : places) {
+                held[count] = locationLocks[s];
+                held[count].lock();
+                count++;
+            }
+            return action.get();
+        } finally {
+            for (int i = count - 1; i >= 0; i--) held[i].unlock();
+        }
+    }
+
+    public OptionalInt level(Location location) {
+        Integer level = enabled ? levels.get(location) : null;
+        return level != null ? OptionalInt.of(level) : OptionalInt.empty();
+    }
+
+    // Callers must hold the location's stripe and call this only after commit (or after reading the committed level)
+    void publish(Location location, int quantity) {
+        if (!enabled) return;
+        if (levels.size() >= maxEntries && !levels.containsKey(location)) {
+            Iterator<Location> it = levels.keySet().iterator();
+            if (it.hasNext()) levels.remove(it.next());
+        }
+        levels.put(location, quantity);
+    }
+
+    // Applies a committed movement to a cached level; an uncached one stays unknown
+    void adjust(Location location, int delta) {
+        levels.computeIfPresent(location, (l, level) -> level + delta);
+    }
+
+    public void invalidate(Long productId) {
+        levels.keySet().removeIf(l -> l.productId().equals(productId));
+    }
+
+    private static int stripe(int h, int stripes) {
+        return (h ^ (h >>> 16)) & (stripes - 1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.inventory.service;
+
+import com.inventory.dto.DailyMovement;
+import com.inventory.dto.ProductStockView;
+import com.inventory.model.StockSnapshot;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes per-product closing quantities to {@code stock_snapshots} for every complete day, the starting points
+ * for {@link StockHistory}.
+ * <p>
+ * A day's close is the current quantity minus the IN/OUT units moved since, both read in one transaction, so
+ * snapshots agree with the live totals even where a total was edited without a movement; such an edit shows up on
+ * the first day snapshotted after it. Rows are sparse: a product gets one only on days it moved or its close
+ * differs from its previous snapshot, so between two of a product's snapshots there are no movements to replay.
+ * Days missed while the job was not running are backfilled up to {@code backfill-days}.
+ */
+@Component
+public class StockSnapshots {
+    private final StockSnapshotRepository snapshotRepository;
+    private final ProductRepository productRepository;
+    private final MovementHistory movementHistory;
+    private final LogWriteBehind logWriteBehind;
+    private final TransactionTemplate transactionTemplate;
+    private final int backfillDays;
+    private final Clock clock;
+
+    @Autowired
+    public StockSnapshots(StockSnapshotRepository snapshotRepository, ProductRepository productRepository,
+                          MovementHistory movementHistory, LogWriteBehind logWriteBehind, TransactionTemplate transactionTemplate,
+                          @Value("${inventory.snapshots.backfill-days:31}") int backfillDays) {
+        this(snapshotRepository, productRepository, movementHistory, logWriteBehind, transactionTemplate, backfillDays,
+                Clock.systemDefaultZone());
+    }
+
+    StockSnapshots(StockSnapshotRepository snapshotRepository, ProductRepository productRepository,
+                   MovementHistory movementHistory, LogWriteBehind logWriteBehind, TransactionTemplate transactionTemplate,
+                   int backfillDays, Clock clock) {
+        // Movements from the first backfilled day through today are read in one history request
+        if (backfillDays < 1 || backfillDays >= MovementHistory.MAX_DAYS) {
+            throw new IllegalStateException("inventory.snapshots.backfill-days must be between 1 and " + (MovementHistory.MAX_DAYS - 1));
+        }
+        this.snapshotRepository = snapshotRepository;
+        this.productRepository = productRepository;
+        this.movementHistory = movementHistory;
+        this.logWriteBehind = logWriteBehind;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillDays = backfillDays;
+        this.clock = clock;
+    }
+
+    // Snapshots every complete day after the last snapshotted one; returns the number of rows written
+    @Scheduled(initialDelayString = "${inventory.snapshots.interval:PT1H}",
+            fixedDelayString = "${inventory.snapshots.interval:PT1H}")
+    public int snapshot() {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate latest = snapshotRepository.findLatestDay();
+        LocalDate earliest = today.minusDays(backfillDays);
+        LocalDate first = latest != null && latest.isAfter(earliest) ? latest.plusDays(1) : earliest;
+        if (!first.isBefore(today)) return 0;
+        // Queued log rows are part of the movements subtracted from the current quantities
+        logWriteBehind.awaitFlushed();
+        return transactionTemplate.execute(status -> write(first, today));
+    }
+
+    private int write(LocalDate first, LocalDate today) {
+        // Net units per product and day, first day through today; only days with movements have an entry
+        Map<Long, Map<LocalDate, Long>> moved = new HashMap<>();
+        for (DailyMovement m : movementHistory.daily(null, first, today)) {
+            moved.computeIfAbsent(m.productId(), id -> new HashMap<>()).merge(m.day(), m.inUnits() - m.outUnits(), Long::sum);
+        }
+        Map<Long, StockSnapshot> previous = new HashMap<>();
+        for (StockSnapshot s : snapshotRepository.findLatestPerProduct()) previous.put(s.getProductId(), s);
+
+        int days = (int) ChronoUnit.DAYS.between(first, today);
+        List<StockSnapshot> rows = new ArrayList<>();
+        long[] closing = new long[days];
+        for (ProductStockView p : productRepository.findAllStockViews()) {
+            Map<LocalDate, Long> byDay = moved.getOrDefault(p.id(), Map.of());
+            // Walk back from the current quantity, undoing one day at a time
+            long quantity = p.quantity() - byDay.getOrDefault(today, 0L);
+            for (int i = days - 1; i >= 0; i--) {
+                closing[i] = quantity;
+                quantity -= byDay.getOrDefault(first.plusDays(i), 0L);
+            }
+            StockSnapshot before = previous.get(p.id());
+            Integer last = before != null ? before.getQuantity() : null;
+            for (int i = 0; i < days; i++) {
+                LocalDate day = first.plusDays(i);
+                // Quiet days leave the latest day behind, so a rerun can revisit days a product already has
+                if (before != null && !day.isAfter(before.getDay())) continue;
+                if (!byDay.containsKey(day) && last != null && last == closing[i]) continue;
+                rows.add(toEntity(p.id(), day, (int) closing[i]));
+                last = (int) closing[i];
+            }
+        }
+        snapshotRepository.saveAll(rows);
+        return rows.size();
+    }
+
+    private static StockSnapshot toEntity(Long productId, LocalDate day, int quantity) {
+        StockSnapshot row = new StockSnapshot();
+        row.setProductId(productId);
+        row.setDay(day);
+        row.setQuantity(quantity);
+        return row;
+    }
+}
@@ -1,27 +1,72 @@
 package com.inventory.service;
 
+import com.inventory.config.CacheConfig;
 import com.inventory.model.Supplier;
+import com.inventory.repository.ProductRepository;
 import com.inventory.repository.SupplierRepository;
+import com.inventory.search.CatalogSearch;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class SupplierService {
     private final SupplierRepository supplierRepository;
+    private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final CatalogSearch catalogSearch;
+    private final ReportingAggregates reportingAggregates;
 
-    public SupplierService(SupplierRepository supplierRepository) {
+    public SupplierService(SupplierRepository supplierRepository, ProductRepository productRepository,
+                           CatalogCache catalogCache, CatalogSearch catalogSearch, ReportingAggregates reportingAggregates) {
         this.supplierRepository = supplierRepository;
+        this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.catalogSearch = catalogSearch;
+        this.reportingAggregates = reportingAggregates;
     }
 
     public List<Supplier> findAll() { return supplierRepository.findAll(); }
 
+    @Cacheable(cacheNames = CacheConfig.SUPPLIERS, key = "#id", sync = true)
     public Optional<Supplier> findById(Long id) { return supplierRepository.findById(id); }
 
-    public List<Supplier> search(String q) { return supplierRepository.search(q); }
+    public List<Supplier> search(String q, Integer limit) {
+        if (!catalogSearch.isReady()) return supplierRepository.search(q);
+        List<Long> ids = catalogSearch.searchSuppliers(q, limit);
+        if (ids.isEmpty()) return List.of();
+        Map<Long, Supplier> byId = supplierRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Supplier::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
 
-    public Supplier save(Supplier s) { return supplierRepository.save(s); }
+    public Supplier save(Supplier s) {
+        // Saving a new supplier assigns its id, and no products can reference it yet
+        boolean existing = s.getId() != null;
+        if (!existing) {
+            s.setVersion(null);
+        } else if (s.getVersion() == null) {
+            // No version from the client: overwrite whatever is current
+            s.setVersion(supplierRepository.findVersionById(s.getId())
+                    .orElseThrow(() -> new RuntimeException("Supplier not found")));
+        }
+        Supplier saved = supplierRepository.save(s);
+        if (existing) productRepository.touchBySupplier(saved.getId());
+        catalogCache.evictSupplier(saved.getId());
+        catalogSearch.indexSupplier(saved);
+        reportingAggregates.onSupplierChanged(saved);
+        return saved;
+    }
 
-    public void delete(Long id) { supplierRepository.deleteById(id); }
+    public void delete(Long id) {
+        supplierRepository.deleteById(id);
+        catalogCache.evictSupplier(id);
+        catalogSearch.removeSupplier(id);
+    }
 }
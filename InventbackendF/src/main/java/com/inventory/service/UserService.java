@@ -1,34 +1,74 @@
 package com.inventory.service;
 
+import com.inventory.auth.PasswordHasher;
 import com.inventory.model.Role;
 import com.inventory.model.User;
 import com.inventory.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
     }
 
     public Optional<User> authenticate(String email, String password) {
-        return userRepository.findByEmailAndPassword(email, password);
+        Optional<User> user = email != null ? userRepository.findByEmail(email) : Optional.empty();
+        if (user.isEmpty()) {
+            passwordHasher.matchDummy(password);
+            return Optional.empty();
+        }
+        User u = user.get();
+        if (!passwordHasher.matches(password, u.getPassword())) return Optional.empty();
+        // Upgrades legacy plaintext and hashes made with an older work factor while the raw password is at hand
+        if (passwordHasher.needsRehash(u.getPassword())) {
+            u.setPassword(passwordHasher.hash(password));
+            userRepository.save(u);
+        }
+        return user;
+    }
+
+    public Optional<User> findById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    @Transactional
+    public void revokeTokens(Long id) {
+        userRepository.incrementTokenVersion(id);
     }
 
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
+    // Relies on the unique email constraint rather than a lookup first, which would still race
     public User register(String name, String email, String password, Role role) {
         User user = new User();
         user.setName(name);
         user.setEmail(email);
-        user.setPassword(password);
+        user.setPassword(passwordHasher.hash(password));
         user.setRole(role);
-        return userRepository.save(user);
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Email already registered");
+        }
+    }
+
+    /**
+     * Registers the first admin of a fresh deployment, or returns empty once an admin exists. Serialized on this
+     * instance; two instances bootstrapping at the same moment could each create one.
+     */
+    public synchronized Optional<User> registerFirstAdmin(String name, String email, String password) {
+        if (userRepository.existsByRole(Role.ADMIN)) return Optional.empty();
+        return Optional.of(register(name, email, password, Role.ADMIN));
     }
 }
@@ -0,0 +1,90 @@
+package com.inventory.service;
+
+import com.inventory.model.Warehouse;
+import com.inventory.repository.WarehouseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock locations. Movements that name no warehouse go to the default one, which is created on first use, so
+ * callers that predate warehouses keep working against a single location.
+ */
+@Service
+public class WarehouseService {
+    private final WarehouseRepository warehouseRepository;
+    private final String defaultCode;
+    // Warehouses are never deleted, so an id seen once stays valid
+    private final Set<Long> known = ConcurrentHashMap.newKeySet();
+    private volatile Long defaultId;
+
+    public WarehouseService(WarehouseRepository warehouseRepository,
+                            @Value("${inventory.warehouses.default-code:MAIN}") String defaultCode) {
+        this.warehouseRepository = warehouseRepository;
+        this.defaultCode = defaultCode;
+    }
+
+    public List<Warehouse> findAll() { return warehouseRepository.findAll(); }
+
+    public Optional<Warehouse> findById(Long id) { return warehouseRepository.findById(id); }
+
+    public Warehouse save(Warehouse w) {
+        if (w.getCode() == null || w.getCode().isBlank()) {
+            throw new RuntimeException("Warehouse code is required");
+        }
+        if (w.getName() == null || w.getName().isBlank()) w.setName(w.getCode());
+        if (w.getId() != null && !warehouseRepository.existsById(w.getId())) {
+            throw new RuntimeException("Warehouse not found");
+        }
+        Warehouse existing = warehouseRepository.findByCode(w.getCode()).orElse(null);
+        if (existing != null && !existing.getId().equals(w.getId())) {
+            throw new RuntimeException("Warehouse code already in use");
+        }
+        if (w.getId() != null && w.getId().equals(defaultId) && !defaultCode.equals(w.getCode())) {
+            throw new RuntimeException("The default warehouse's code cannot change");
+        }
+        Warehouse saved = warehouseRepository.save(w);
+        known.add(saved.getId());
+        return saved;
+    }
+
+    public Long defaultId() {
+        Long id = defaultId;
+        if (id != null) return id;
+        synchronized (this) {
+            if (defaultId == null) {
+                Warehouse main = warehouseRepository.findByCode(defaultCode).orElseGet(this::createDefault);
+                known.add(main.getId());
+                defaultId = main.getId();
+            }
+            return defaultId;
+        }
+    }
+
+    // The warehouse a movement targets: the default one when none is named
+    public Long resolve(Long warehouseId) {
+        if (warehouseId == null) return defaultId();
+        if (!known.contains(warehouseId)) {
+            if (!warehouseRepository.existsById(warehouseId)) throw new RuntimeException("Warehouse not found");
+            known.add(warehouseId);
+        }
+        return warehouseId;
+    }
+
+    // Another node may create it at the same moment; the unique code makes one of them win
+    private Warehouse createDefault() {
+        Warehouse w = new Warehouse();
+        w.setCode(defaultCode);
+        w.setName("Main warehouse");
+        try {
+            return warehouseRepository.save(w);
+        } catch (DataIntegrityViolationException e) {
+            return warehouseRepository.findByCode(defaultCode).orElseThrow(() -> e);
+        }
+    }
+}
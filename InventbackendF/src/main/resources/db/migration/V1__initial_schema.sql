@@ -0,0 +1,47 @@
+-- The schema ddl-auto=update created for the original entities, before migrations existed. Databases that already
+-- have these tables are baselined at this version (spring.flyway.baseline-on-migrate), skip this script and are
+-- brought up to date by the later ones.
+
+create table suppliers (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    email varchar(255),
+    contact_info varchar(255),
+    address varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table products (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    category varchar(255),
+    description varchar(255),
+    quantity integer not null,
+    price float(53) not null,
+    reorder_level integer not null,
+    warehouse_location varchar(255),
+    supplier_id bigint,
+    primary key (id),
+    constraint fk_products_supplier foreign key (supplier_id) references suppliers (id)
+) engine=InnoDB;
+
+create table inventory_logs (
+    id bigint not null auto_increment,
+    product_id bigint not null,
+    type varchar(255) not null,
+    quantity integer not null,
+    notes varchar(255),
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint fk_inventory_logs_product foreign key (product_id) references products (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    role enum ('ADMIN','STAFF') not null,
+    primary key (id),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
@@ -0,0 +1,112 @@
+-- Everything the entities gained since V1, applied to new and baselined databases alike. Columns added to tables
+-- that may already hold rows get a default so existing rows are valid.
+
+-- Optimistic locking of catalogue rows, and product SKUs for imports
+alter table suppliers add column version bigint not null default 0;
+alter table products add column version bigint not null default 0;
+alter table products add column sku varchar(64);
+alter table products add constraint uk_products_sku unique (sku);
+
+-- Revoking a user's tokens
+alter table users add column token_version integer not null default 0;
+
+-- Warehouses and per-warehouse stock
+create table warehouses (
+    id bigint not null auto_increment,
+    code varchar(32) not null,
+    name varchar(255) not null,
+    address varchar(255),
+    primary key (id),
+    constraint uk_warehouses_code unique (code)
+) engine=InnoDB;
+
+create table stock_levels (
+    product_id bigint not null,
+    warehouse_id bigint not null,
+    quantity integer not null,
+    primary key (product_id, warehouse_id)
+) engine=InnoDB;
+
+create index idx_stock_levels_warehouse on stock_levels (warehouse_id);
+
+-- Log ids come from a table-backed sequence in blocks of 50 instead of auto_increment, so batched inserts stay
+-- batched. Hibernate's pooled optimizer treats the stored value as the top of the first block it hands out, so
+-- existing rows are skipped by starting it 50 past the highest id (or at 1 for an empty table)
+alter table inventory_logs modify column id bigint not null;
+alter table inventory_logs add column warehouse_id bigint;
+
+-- Descending, the order log pages are read in
+create index idx_inventory_logs_created on inventory_logs (created_at desc, id desc);
+create index idx_inventory_logs_product_created on inventory_logs (product_id, created_at desc, id desc);
+
+create table inventory_logs_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into inventory_logs_seq select coalesce(max(id) + 50, 1) from inventory_logs;
+
+-- Daily log rollups
+create table inventory_log_daily (
+    id bigint not null,
+    product_id bigint not null,
+    movement_date date not null,
+    in_units bigint not null,
+    out_units bigint not null,
+    movements integer not null,
+    primary key (id),
+    constraint uk_inventory_log_daily_day_product unique (movement_date, product_id)
+) engine=InnoDB;
+
+create index idx_inventory_log_daily_product_day on inventory_log_daily (product_id, movement_date);
+
+create table inventory_log_daily_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into inventory_log_daily_seq values (1);
+
+-- Write-behind journal checkpoints
+create table log_journal_checkpoints (
+    journal_id varchar(64) not null,
+    flushed_seq bigint not null,
+    primary key (journal_id)
+) engine=InnoDB;
+
+-- Daily stock snapshots
+create table stock_snapshots (
+    id bigint not null,
+    product_id bigint not null,
+    snapshot_date date not null,
+    quantity integer not null,
+    primary key (id),
+    constraint uk_stock_snapshots_product_day unique (product_id, snapshot_date)
+) engine=InnoDB;
+
+create index idx_stock_snapshots_day on stock_snapshots (snapshot_date);
+
+create table stock_snapshots_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into stock_snapshots_seq values (1);
+
+-- Idempotency keys
+create table idempotency_keys (
+    id varchar(255) not null,
+    fingerprint varchar(64) not null,
+    status integer,
+    response mediumtext,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_idempotency_keys_created on idempotency_keys (created_at);
+
+-- Shared catalogue change counters
+create table catalog_revisions (
+    name varchar(32) not null,
+    epoch varchar(16) not null,
+    revision bigint not null,
+    modified_at bigint not null,
+    primary key (name)
+) engine=InnoDB;
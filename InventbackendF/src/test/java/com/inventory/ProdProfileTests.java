@@ -0,0 +1,105 @@
+package com.inventory;
+
+import com.inventory.controller.ForecastController;
+import com.inventory.model.InventoryLog;
+import com.inventory.service.InventoryService;
+import com.inventory.service.LogIdSequence;
+import com.inventory.service.LogRollups;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The prod profile's startup against an empty database: the migrations create the schema and Hibernate's
+ * validation of it against the entities passes, so the context starts. H2 runs the MySQL scripts, and Hibernate
+ * validates with the MySQL dialect so it expects the same types and table-backed sequences as production. Lazy
+ * initialization leaves controllers to their first request but not the beans that must start with the context.
+ * A database created before migrations existed is baselined and upgraded on its first start.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"})
+@ActiveProfiles("prod")
+class ProdProfileTests {
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private LogIdSequence logIdSequence;
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void migrationsCreateTheSchemaTheEntitiesExpect() {
+        assertEquals("2", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void scheduledBeansStartEagerlyAndControllersOnFirstUse() {
+        assertTrue(beanFactory.containsSingleton(beanName(LogRollups.class)));
+        assertFalse(beanFactory.containsSingleton(beanName(ForecastController.class)));
+    }
+
+    @Test
+    void logIdSequenceIsMovedPastExistingIds() {
+        // As ddl-auto=update leaves it on a database that already has logs
+        jdbcTemplate.update("INSERT INTO products (id, name, quantity, price, reorder_level) VALUES (900, 'Seeded', 5, 1.5, 2)");
+        jdbcTemplate.update("INSERT INTO inventory_logs (id, product_id, type, quantity, created_at) VALUES (1000, 900, 'IN', 1, NOW())");
+        jdbcTemplate.update("UPDATE inventory_logs_seq SET next_val = 1");
+        try {
+            assertEquals(1000 + InventoryLog.ID_BLOCK, logIdSequence.seed());
+            assertEquals(1000 + InventoryLog.ID_BLOCK, logIdSequence.seed());
+            InventoryLog log = inventoryService.updateStock(900L, 1, "IN", null);
+            assertTrue(log.getId() > 1000, "log id " + log.getId());
+        } finally {
+            jdbcTemplate.update("DELETE FROM inventory_logs WHERE product_id = 900");
+            jdbcTemplate.update("DELETE FROM stock_levels WHERE product_id = 900");
+            jdbcTemplate.update("DELETE FROM products WHERE id = 900");
+        }
+    }
+
+    @Test
+    void upgradesADatabaseCreatedBeforeMigrations() {
+        String url = "jdbc:h2:mem:upgrade;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        // The original schema with data in it and no migration history, as ddl-auto=update left it
+        Flyway.configure().dataSource(url, "sa", "").target("1").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbc.execute("DROP TABLE flyway_schema_history");
+        jdbc.update("INSERT INTO products (id, name, quantity, price, reorder_level) VALUES (1, 'Legacy', 5, 1.5, 2)");
+        for (long id = 1; id <= 3; id++) {
+            jdbc.update("INSERT INTO inventory_logs (id, product_id, type, quantity, created_at) VALUES (?, 1, 'IN', 1, NOW())", id);
+        }
+
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(CicdBackendApplication.class).profiles("prod").run(
+                "--server.port=0",
+                "--inventory.auth.token-secret=upgrade-test-secret-upgrade-test-secret",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect")) {
+            Flyway upgraded = ctx.getBean(Flyway.class);
+            assertEquals("2", upgraded.info().current().getVersion().getVersion());
+            // New log ids start past the ones the old auto_increment column handed out
+            InventoryLog log = ctx.getBean(InventoryService.class).updateStock(1L, 4, "IN", null);
+            assertTrue(log.getId() > 3, "log id " + log.getId());
+            assertEquals(9, jdbc.queryForObject("SELECT quantity FROM products WHERE id = 1", Integer.class));
+        }
+    }
+
+    private String beanName(Class<?> type) {
+        return beanFactory.getBeanNamesForType(type, true, false)[0];
+    }
+}
@@ -0,0 +1,176 @@
+package com.inventory;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Time to first request for the jar {@code spring-boot-maven-plugin} builds, from process start to the first 200
+ * from {@code /actuator/health}, for each startup option in turn:
+ * <ul>
+ *     <li>{@code fat-jar}: {@code java -jar} with the default profile (ddl-auto=update), the baseline;</li>
+ *     <li>{@code prod}: the prod profile, Flyway migrations and schema validation instead of update;</li>
+ *     <li>{@code extracted}: the same, run from the jar extracted with {@code -Djarmode=tools};</li>
+ *     <li>{@code extracted+cds}: plus a class data sharing archive from a training run without a database, as in
+ *     {@code backend.Dockerfile};</li>
+ *     <li>{@code extracted+cds+aot}: plus the ahead-of-time processed context, when the jar was built with
+ *     {@code -Pprod}; this is how the image starts.</li>
+ * </ul>
+ * Each option starts {@code bench.startup.runs} times (3 by default) against a fresh in-memory H2 database in
+ * MySQL mode, added to the classpath from the test classpath; the median is printed. Build the jar first:
+ * {@code mvn -Pprod -DskipTests package && mvn test -Pbenchmark -Dtest=StartupTimeBenchmarkTests}.
+ */
+@Tag("benchmark")
+class StartupTimeBenchmarkTests {
+    private static final int RUNS = Integer.getInteger("bench.startup.runs", 3);
+    private static final Path WORK = Path.of("target", "startup");
+    private static final String MAIN = CicdBackendApplication.class.getName();
+    private static final String AOT_INITIALIZER = "BOOT-INF/classes/" + MAIN.replace('.', '/') + "__ApplicationContextInitializer.class";
+
+    @Test
+    void timeToFirstRequest() throws Exception {
+        Path jar = packagedJar();
+        assumeTrue(jar != null, "No packaged jar in target/, run mvn -Pprod -DskipTests package first");
+        boolean aot;
+        try (JarFile file = new JarFile(jar.toFile())) {
+            aot = file.getEntry(AOT_INITIALIZER) != null;
+        }
+        String h2 = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(p -> p.contains("h2")).findFirst().orElseThrow();
+        Path extracted = WORK.resolve("extracted");
+        run(List.of(java(), "-Djarmode=tools", "-jar", jar.toString(), "extract", "--force", "--destination", extracted.toString()),
+                WORK.resolve("extract.log"), true);
+        String app = extracted.resolve(jar.getFileName()) + File.pathSeparator + h2;
+        String fat = jar + File.pathSeparator + h2;
+
+        Path cds = WORK.resolve("app.jsa");
+        train(cds, app, List.of());
+
+        Map<String, Long> medians = new LinkedHashMap<>();
+        medians.put("fat-jar", median("fat-jar", List.of(), fat, "org.springframework.boot.loader.launch.JarLauncher", false));
+        medians.put("prod", median("prod", List.of(), fat, "org.springframework.boot.loader.launch.JarLauncher", true));
+        medians.put("extracted", median("extracted", List.of(), app, MAIN, true));
+        medians.put("extracted+cds", median("extracted+cds", List.of("-XX:SharedArchiveFile=" + cds), app, MAIN, true));
+        if (aot) {
+            // Trained with AOT on as well, as the archive only covers classes its training run loaded
+            Path aotCds = WORK.resolve("app-aot.jsa");
+            train(aotCds, app, List.of("-Dspring.aot.enabled=true"));
+            medians.put("extracted+cds+aot", median("extracted+cds+aot",
+                    List.of("-XX:SharedArchiveFile=" + aotCds, "-Dspring.aot.enabled=true"), app, MAIN, true));
+        }
+
+        long baseline = medians.get("fat-jar");
+        medians.forEach((name, millis) -> System.out.printf("%-18s %,6d ms to first request (%+.0f%%)%n",
+                name, millis, 100.0 * (millis - baseline) / baseline));
+        long best = medians.values().stream().mapToLong(Long::longValue).min().orElseThrow();
+        assertTrue(best < baseline, "no option started faster than the fat jar");
+    }
+
+    private static long median(String name, List<String> jvmArgs, String classpath, String main, boolean prod) throws Exception {
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) millis[i] = start(name + "-" + i, jvmArgs, classpath, main, prod);
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+
+    // Starts the application and waits for its first successful request; returns the milliseconds that took
+    private static long start(String name, List<String> jvmArgs, String classpath, String main, boolean prod) throws Exception {
+        int port = freePort();
+        long started = System.nanoTime();
+        Process process = launch(name, jvmArgs, classpath, main, prod, port, List.of());
+        try {
+            URI health = URI.create("http://localhost:" + port + "/actuator/health");
+            while (true) {
+                assertTrue(process.isAlive(), name + " exited, see " + WORK.resolve(name + ".log"));
+                assertTrue(System.nanoTime() - started < TimeUnit.MINUTES.toNanos(3), name + " did not start");
+                try {
+                    HttpURLConnection connection = (HttpURLConnection) health.toURL().openConnection();
+                    if (connection.getResponseCode() == 200) return (System.nanoTime() - started) / 1_000_000;
+                } catch (IOException notListening) {
+                    // Not accepting connections yet
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // The training run of backend.Dockerfile: the prod context without migrations, validation or JDBC metadata, exiting
+    // once it is refreshed and archiving the classes loaded on the way. The classpath and other JVM flags must match
+    // the runs using it
+    private static void train(Path archive, String classpath, List<String> jvmArgs) throws Exception {
+        List<String> training = new ArrayList<>(List.of("-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh"));
+        training.addAll(jvmArgs);
+        Process process = launch("train-" + archive.getFileName(), training, classpath, MAIN, true, freePort(), List.of(
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false"));
+        assertTrue(process.waitFor(3, TimeUnit.MINUTES), "train did not finish");
+        assertTrue(Files.exists(archive), "no archive, see " + WORK.resolve("train-" + archive.getFileName() + ".log"));
+    }
+
+    private static Process launch(String name, List<String> jvmArgs, String classpath, String main, boolean prod, int port,
+                                  List<String> args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-cp", classpath, main,
+                "--server.port=" + port,
+                "--inventory.auth.token-secret=startup-bench-secret-startup-bench-secret",
+                // A fresh database per process: the baseline creates the schema with update, prod with migrations
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--logging.level.root=WARN"));
+        if (prod) {
+            command.add("--spring.profiles.active=prod");
+            // Validates against H2 as MySQL, as in ProdProfileTests
+            command.add("--spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect");
+        }
+        command.addAll(args);
+        Files.createDirectories(WORK);
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(WORK.resolve(name + ".log").toFile()).start();
+    }
+
+    private static void run(List<String> command, Path log, boolean check) throws Exception {
+        Files.createDirectories(WORK);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        assertTrue(process.waitFor(2, TimeUnit.MINUTES) && (!check || process.exitValue() == 0), "failed: " + command);
+    }
+
+    private static Path packagedJar() throws IOException {
+        try (var files = Files.list(Path.of("target"))) {
+            return files.filter(p -> p.toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.inventory.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.model.Role;
+import com.inventory.repository.UserRepository;
+import com.inventory.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthFilterTests {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        userRepository.deleteAll();
+        userService.register("Asha", "asha@example.com", "secret", Role.ADMIN);
+        userService.register("Ravi", "ravi@example.com", "secret", Role.STAFF);
+    }
+
+    @Test
+    void apiRequiresAValidBearerToken() throws Exception {
+        mvc.perform(get("/api/products")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/products").header("Authorization", "Bearer junk")).andExpect(status().isUnauthorized());
+
+        JsonNode login = login();
+        mvc.perform(get("/api/products").header("Authorization", "Bearer " + login.get("accessToken").asText()))
+                .andExpect(status().isOk())
+                .andExpect(request().sessionAttributeDoesNotExist(AuthFilter.USER));
+        mvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + login.get("accessToken").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("asha@example.com"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void refreshRotatesAndLogoutRevokes() throws Exception {
+        String refresh = login().get("refreshToken").asText();
+        String rotated = read(mvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(body(refresh)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").exists())
+                .andReturn().getResponse().getContentAsString()).get("refreshToken").asText();
+
+        mvc.perform(post("/api/auth/logout").contentType(MediaType.APPLICATION_JSON).content(body(rotated)))
+                .andExpect(status().isOk());
+        mvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body(rotated)))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body(refresh)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void actuatorOtherThanHealthIsForAdmins() throws Exception {
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mvc.perform(get("/actuator")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator;x/metrics")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + login("ravi@example.com").get("accessToken").asText()))
+                .andExpect(status().isForbidden());
+
+        String admin = "Bearer " + login().get("accessToken").asText();
+        mvc.perform(get("/actuator/metrics").header("Authorization", admin)).andExpect(status().isOk());
+        mvc.perform(delete("/actuator/caches")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator").header("Authorization", admin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.caches").doesNotExist());
+    }
+
+    @Test
+    void onlyAdminsRegisterAdmins() throws Exception {
+        String admin = "{\"name\":\"Mina\",\"email\":\"mina@example.com\",\"password\":\"secret\",\"role\":\"ADMIN\"}";
+        mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(admin))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(admin)
+                        .header("Authorization", "Bearer " + login("ravi@example.com").get("accessToken").asText()))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Kiran\",\"email\":\"kiran@example.com\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("STAFF"));
+
+        mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(admin)
+                        .header("Authorization", "Bearer " + login().get("accessToken").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("ADMIN"));
+    }
+
+    @Test
+    void anyoneRegistersTheFirstAdminOnly() throws Exception {
+        userRepository.deleteAll();
+        mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Asha\",\"email\":\"asha@example.com\",\"password\":\"secret\",\"role\":\"ADMIN\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("ADMIN"));
+        mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Mina\",\"email\":\"mina@example.com\",\"password\":\"secret\",\"role\":\"ADMIN\"}"))
+                .andExpect(status().isForbidden());
+        assertEquals("ADMIN", login().get("role").asText());
+    }
+
+    private JsonNode login() throws Exception {
+        return login("asha@example.com");
+    }
+
+    private JsonNode login(String email) throws Exception {
+        return read(mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private String body(String refreshToken) {
+        return "{\"refreshToken\":\"" + refreshToken + "\"}";
+    }
+
+    private JsonNode read(String json) throws Exception {
+        return objectMapper.readTree(json);
+    }
+}
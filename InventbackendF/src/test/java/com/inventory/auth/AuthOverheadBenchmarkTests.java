@@ -0,0 +1,118 @@
+package com.inventory.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.CicdBackendApplication;
+import com.inventory.model.Role;
+import com.inventory.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-request authentication overhead of bearer tokens versus servlet sessions, measured against two
+ * application instances sharing one database and token secret, as they would behind a load balancer.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AuthOverheadBenchmarkTests {
+    private static final int WARMUP = 2_000;
+    private static final int REQUESTS = 10_000;
+    private static final String SECRET = "benchmark-secret-benchmark-secret";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void tokensScaleAcrossInstancesWhereSessionsNeedStickyRouting() throws Exception {
+        try (ConfigurableApplicationContext a = start("token", true);
+             ConfigurableApplicationContext b = start("token", false)) {
+            a.getBean(UserService.class).register("Bench", "bench@example.com", "secret", Role.STAFF);
+            String token = "Bearer " + login(a, "token").get("accessToken").asText();
+            List<String> urls = List.of(url(a), url(b));
+
+            report("token, pinned to one instance", run(List.of(url(a)), "Authorization", token));
+            report("token, round-robin across 2 instances", run(urls, "Authorization", token));
+        }
+
+        try (ConfigurableApplicationContext a = start("session", true);
+             ConfigurableApplicationContext b = start("session", false)) {
+            a.getBean(UserService.class).register("Bench", "bench@example.com", "secret", Role.STAFF);
+            String cookie = login(a, "session").get("cookie").asText();
+
+            report("session, pinned to issuing instance", run(List.of(url(a)), "Cookie", cookie));
+
+            int rejected = 0;
+            for (int i = 0; i < 100; i++) {
+                if (get(i % 2 == 0 ? url(a) : url(b), "Cookie", cookie) == 401) rejected++;
+            }
+            System.out.printf("session, round-robin across 2 instances: %d/100 requests rejected%n", rejected);
+            assertEquals(50, rejected);
+        }
+    }
+
+    private long[] run(List<String> urls, String header, String value) throws Exception {
+        for (int i = 0; i < WARMUP; i++) assertEquals(200, get(urls.get(i % urls.size()), header, value));
+        long[] nanos = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            assertEquals(200, get(urls.get(i % urls.size()), header, value));
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private int get(String url, String header, String value) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/auth/me")).header(header, value).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private JsonNode login(ConfigurableApplicationContext ctx, String mode) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url(ctx) + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"bench@example.com\",\"password\":\"secret\"}"))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        JsonNode body = objectMapper.readTree(response.body());
+        if ("session".equals(mode)) {
+            String cookie = response.headers().firstValue("Set-Cookie").orElseThrow().split(";")[0];
+            return objectMapper.createObjectNode().put("cookie", cookie);
+        }
+        return body;
+    }
+
+    private static ConfigurableApplicationContext start(String mode, boolean createSchema) {
+        return new SpringApplicationBuilder(CicdBackendApplication.class).run(
+                "--server.port=0",
+                "--inventory.auth.mode=" + mode,
+                "--inventory.auth.token-secret=" + SECRET,
+                "--spring.datasource.url=jdbc:h2:mem:auth_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=" + (createSchema ? "create-drop" : "none"));
+    }
+
+    private static String url(ConfigurableApplicationContext ctx) {
+        return "http://localhost:" + ((ServletWebServerApplicationContext) ctx).getWebServer().getPort();
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1_000.0;
+        System.out.printf("%s: mean %.1f us, p50 %.1f us, p99 %.1f us over %d requests%n", label, mean,
+                sorted[sorted.length / 2] / 1_000.0, sorted[(int) (sorted.length * 0.99)] / 1_000.0, sorted.length);
+        assertTrue(mean > 0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.inventory.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one password check at several BCrypt work factors, uncached versus served from the verified cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PasswordHashBenchmark {
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    private PasswordHasher uncached;
+    private PasswordHasher cached;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        uncached = new PasswordHasher(strength, 0, Duration.ofMinutes(10));
+        cached = new PasswordHasher(strength, 10_000, Duration.ofMinutes(10));
+        stored = cached.hash("correct horse battery staple");
+        cached.matches("correct horse battery staple", stored);
+    }
+
+    @Benchmark
+    public boolean bcrypt() {
+        return uncached.matches("correct horse battery staple", stored);
+    }
+
+    @Benchmark
+    public boolean verifiedCacheHit() {
+        return cached.matches("correct horse battery staple", stored);
+    }
+}
@@ -0,0 +1,34 @@
+package com.inventory.auth;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs {@link PasswordHashBenchmark} under JMH. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PasswordHashBenchmarkTests {
+    @Test
+    void loginCostByWorkFactor() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(PasswordHashBenchmark.class.getName())
+                .forks(1)
+                .jvmArgsAppend("-Djava.class.path=" + System.getProperty("java.class.path"))
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(2))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        assertFalse(results.isEmpty());
+    }
+}
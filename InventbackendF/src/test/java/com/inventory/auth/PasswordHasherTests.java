@@ -0,0 +1,51 @@
+package com.inventory.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTests {
+    private final PasswordHasher hasher = new PasswordHasher(4, 100, Duration.ofMinutes(10));
+
+    @Test
+    void hashesAreSaltedAndVerify() {
+        String a = hasher.hash("secret");
+        String b = hasher.hash("secret");
+        assertNotEquals(a, b);
+        assertTrue(hasher.matches("secret", a));
+        assertFalse(hasher.matches("Secret", a));
+        assertFalse(hasher.matches(null, a));
+        assertFalse(hasher.needsRehash(a));
+    }
+
+    @Test
+    void legacyPlaintextVerifiesButNeedsRehash() {
+        assertTrue(hasher.matches("secret", "secret"));
+        assertFalse(hasher.matches("secreT", "secret"));
+        assertTrue(hasher.needsRehash("secret"));
+    }
+
+    @Test
+    void weakerWorkFactorNeedsRehash() {
+        PasswordHasher stronger = new PasswordHasher(5, 100, Duration.ofMinutes(10));
+        assertTrue(stronger.needsRehash(hasher.hash("secret")));
+        assertFalse(hasher.needsRehash(stronger.hash("secret")));
+    }
+
+    @Test
+    void onlySuccessfulChecksAreCached() {
+        String stored = hasher.hash("secret");
+        assertFalse(hasher.matches("wrong", stored));
+        assertFalse(hasher.matches("wrong", stored));
+        assertEquals(0, hasher.verifiedCacheHits());
+
+        assertTrue(hasher.matches("secret", stored));
+        assertTrue(hasher.matches("secret", stored));
+        assertTrue(hasher.matches("secret", stored));
+        assertEquals(2, hasher.verifiedCacheHits());
+        // A cached entry for the right password must not vouch for a different one
+        assertFalse(hasher.matches("wrong", stored));
+    }
+}
@@ -0,0 +1,94 @@
+package com.inventory.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.model.Role;
+import com.inventory.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTests {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final AuthUser USER = new AuthUser(7L, "Asha", "asha@example.com", Role.ADMIN);
+
+    private final MutableClock clock = new MutableClock();
+    private final TokenService tokens = new TokenService(new ObjectMapper(), SECRET,
+            Duration.ofMinutes(15), Duration.ofDays(7), clock);
+
+    @Test
+    void accessTokenRoundTripsWithoutLookup() {
+        assertEquals(USER, tokens.verifyAccess(tokens.issueAccess(USER)).orElseThrow());
+    }
+
+    @Test
+    void rejectsTamperedForeignAndExpiredTokens() {
+        String token = tokens.issueAccess(USER);
+        String payload = token.substring(0, token.indexOf('.'));
+        String forged = payload.substring(0, payload.length() - 2) + "AA" + token.substring(token.indexOf('.'));
+        assertTrue(tokens.verifyAccess(forged).isEmpty());
+        assertTrue(tokens.verifyAccess(token + "x").isEmpty());
+        assertTrue(tokens.verifyAccess("not-a-token").isEmpty());
+
+        TokenService otherKey = new TokenService(new ObjectMapper(), SECRET.toUpperCase(),
+                Duration.ofMinutes(15), Duration.ofDays(7), clock);
+        assertTrue(otherKey.verifyAccess(token).isEmpty());
+
+        clock.advance(Duration.ofMinutes(15));
+        assertTrue(tokens.verifyAccess(token).isEmpty());
+    }
+
+    @Test
+    void refreshTokensAreNotAccessTokens() {
+        User user = new User();
+        user.setId(7L);
+        user.setTokenVersion(3);
+        String refresh = tokens.issueRefresh(user);
+
+        assertTrue(tokens.verifyAccess(refresh).isEmpty());
+        assertTrue(tokens.verifyRefresh(tokens.issueAccess(USER)).isEmpty());
+        assertEquals(new TokenService.RefreshClaims(7L, 3), tokens.verifyRefresh(refresh).orElseThrow());
+    }
+
+    @Test
+    void rejectsShortSecrets() {
+        assertThrows(IllegalStateException.class, () -> new TokenService(new ObjectMapper(), "short",
+                Duration.ofMinutes(15), Duration.ofDays(7), clock));
+    }
+
+    @Test
+    void tokenModeNeedsAConfiguredSecret() {
+        assertThrows(IllegalStateException.class, () -> new TokenService(new ObjectMapper(), " ", "token",
+                Duration.ofMinutes(15), Duration.ofDays(7)));
+        // Session mode does not rely on tokens, so a per-process key will do
+        TokenService session = new TokenService(new ObjectMapper(), "", "session", Duration.ofMinutes(15), Duration.ofDays(7));
+        assertEquals(USER, session.verifyAccess(session.issueAccess(USER)).orElseThrow());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
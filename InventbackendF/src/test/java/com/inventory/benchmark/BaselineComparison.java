@@ -0,0 +1,64 @@
+package com.inventory.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file with a stored baseline of the same format and lists regressions.
+ * <p>
+ * Benchmarks are matched on name plus parameters. A score regresses when it is worse than the baseline by more
+ * than the threshold fraction: higher for time-per-operation modes, lower for throughput. Benchmarks missing
+ * from either side are ignored.
+ */
+final class BaselineComparison {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BaselineComparison() {
+    }
+
+    static List<String> regressions(Path results, Path baseline, double threshold) throws IOException {
+        Map<String, JsonNode> before = index(MAPPER.readTree(baseline.toFile()));
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> e : index(MAPPER.readTree(results.toFile())).entrySet()) {
+            JsonNode old = before.get(e.getKey());
+            if (old == null) continue;
+            JsonNode run = e.getValue();
+            double current = run.path("primaryMetric").path("score").asDouble();
+            double reference = old.path("primaryMetric").path("score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(run.path("mode").asText());
+            double change = reference == 0 ? 0 : (current - reference) / reference;
+            if (higherIsBetter ? change < -threshold : change > threshold) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s (%+.0f%%)", e.getKey(), reference, current,
+                        run.path("primaryMetric").path("scoreUnit").asText(), change * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static Map<String, JsonNode> index(JsonNode runs) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode run : runs) byKey.put(key(run), run);
+        return byKey;
+    }
+
+    private static String key(JsonNode run) {
+        StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+        JsonNode params = run.path("params");
+        if (!params.isMissingNode()) {
+            key.append(' ');
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> p = it.next();
+                key.append(p.getKey()).append('=').append(p.getValue().asText()).append(it.hasNext() ? "," : "");
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.inventory.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaselineComparisonTests {
+    @TempDir
+    Path dir;
+
+    @Test
+    void flagsOnlyChangesBeyondTheThresholdInTheWrongDirection() throws Exception {
+        Path baseline = write("baseline.json", run("a.Search.product", "avgt", 100, "query", "valve"),
+                run("a.Search.product", "avgt", 100, "query", "sensr"),
+                run("a.Api.thrpt", "thrpt", 1000, null, null),
+                run("a.Api.gone", "avgt", 5, null, null));
+        Path results = write("results.json", run("a.Search.product", "avgt", 140, "query", "valve"),
+                run("a.Search.product", "avgt", 60, "query", "sensr"),
+                run("a.Api.thrpt", "thrpt", 700, null, null),
+                run("a.Api.new", "avgt", 5, null, null));
+
+        List<String> regressions = BaselineComparison.regressions(results, baseline, 0.25);
+        assertEquals(2, regressions.size());
+        assertTrue(regressions.get(0).startsWith("a.Search.product query=valve: 100.000 -> 140.000"));
+        assertTrue(regressions.get(1).startsWith("a.Api.thrpt: 1000.000 -> 700.000"));
+        assertTrue(BaselineComparison.regressions(results, baseline, 0.5).isEmpty());
+    }
+
+    private Path write(String name, String... runs) throws Exception {
+        return Files.writeString(dir.resolve(name), "[" + String.join(",", runs) + "]");
+    }
+
+    private static String run(String benchmark, String mode, double score, String param, String value) {
+        String params = param != null ? ",\"params\":{\"" + param + "\":\"" + value + "\"}" : "";
+        return "{\"benchmark\":\"" + benchmark + "\",\"mode\":\"" + mode + "\"" + params
+                + ",\"primaryMetric\":{\"score\":" + score + ",\"scoreUnit\":\"us/op\"}}";
+    }
+}
@@ -0,0 +1,112 @@
+package com.inventory.benchmark;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import com.inventory.search.CatalogSearch;
+import com.inventory.service.ReportingAggregates;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boots the application without a web server on in-memory H2 and seeds it for the JMH benchmarks.
+ * <p>
+ * Volumes come from {@code bench.suppliers}, {@code bench.products} and {@code bench.logs}; JMH forwards them
+ * to the forked JVM through {@link JmhBenchmarkTests}.
+ */
+final class BenchmarkData {
+    static final int SUPPLIERS = Integer.getInteger("bench.suppliers", 200);
+    static final int PRODUCTS = Integer.getInteger("bench.products", 10_000);
+    static final int LOGS = Integer.getInteger("bench.logs", 100_000);
+
+    private static final String[] WORDS = {"steel", "bolt", "widget", "cable", "panel", "sensor", "valve", "gear",
+            "bracket", "filter", "pump", "hinge", "spring", "washer", "clamp", "relay"};
+    private static final String[] CATEGORIES = {"Hardware", "Electrical", "Plumbing", "Tools", "Safety"};
+
+    private BenchmarkData() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(CicdBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN");
+        seed(ctx);
+        // Seeding bypasses the services, so rebuild the derived in-memory state from the database
+        ctx.getBean(CatalogSearch.class).rebuild();
+        ctx.getBean(ReportingAggregates.class).reconcile();
+        return ctx;
+    }
+
+    static List<Long> productIds(ConfigurableApplicationContext ctx) {
+        return ctx.getBean(ProductRepository.class).findAll().stream().map(Product::getId).toList();
+    }
+
+    private static void seed(ConfigurableApplicationContext ctx) {
+        Random random = new Random(42);
+        SupplierRepository suppliers = ctx.getBean(SupplierRepository.class);
+        ProductRepository products = ctx.getBean(ProductRepository.class);
+        InventoryLogRepository logs = ctx.getBean(InventoryLogRepository.class);
+
+        List<Supplier> savedSuppliers = new ArrayList<>();
+        for (int i = 0; i < SUPPLIERS; i++) {
+            Supplier s = new Supplier();
+            s.setName(word(random) + " " + word(random) + " Supply " + i);
+            s.setEmail("sales" + i + "@supplier" + i + ".example.com");
+            s.setAddress(i + " " + word(random) + " Road");
+            savedSuppliers.add(s);
+        }
+        savedSuppliers = suppliers.saveAll(savedSuppliers);
+
+        List<Product> batch = new ArrayList<>();
+        List<Product> savedProducts = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product p = new Product();
+            p.setName(word(random) + " " + word(random) + " " + i);
+            p.setDescription("Grade " + random.nextInt(10) + " " + word(random) + " for " + word(random) + " use");
+            p.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            p.setSupplier(savedSuppliers.get(random.nextInt(savedSuppliers.size())));
+            p.setQuantity(1_000 + random.nextInt(1_000));
+            p.setPrice(1 + random.nextInt(100_000) / 100.0);
+            p.setReorderLevel(random.nextInt(1_200));
+            p.setWarehouseLocation("A" + random.nextInt(40));
+            batch.add(p);
+            if (batch.size() == 1_000) {
+                savedProducts.addAll(products.saveAll(batch));
+                batch.clear();
+            }
+        }
+        savedProducts.addAll(products.saveAll(batch));
+
+        List<InventoryLog> logBatch = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < LOGS; i++) {
+            InventoryLog l = new InventoryLog();
+            l.setProduct(savedProducts.get(random.nextInt(savedProducts.size())));
+            l.setType(random.nextBoolean() ? "IN" : "OUT");
+            l.setQuantity(1 + random.nextInt(20));
+            l.setNotes(random.nextInt(4) == 0 ? "Cycle count, \"recount\"" : null);
+            l.setCreatedAt(now.minusMinutes(LOGS - i));
+            logBatch.add(l);
+            if (logBatch.size() == 5_000) {
+                logs.saveAll(logBatch);
+                logBatch.clear();
+            }
+        }
+        logs.saveAll(logBatch);
+    }
+
+    static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
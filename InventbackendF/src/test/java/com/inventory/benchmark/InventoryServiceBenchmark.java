@@ -0,0 +1,84 @@
+package com.inventory.benchmark;
+
+import com.inventory.model.InventoryLog;
+import com.inventory.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock movements, the reports snapshot and the full CSV export against the seeded database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InventoryServiceBenchmark {
+    private ConfigurableApplicationContext ctx;
+    private InventoryService inventoryService;
+    private List<Long> productIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        ctx = BenchmarkData.start();
+        inventoryService = ctx.getBean(InventoryService.class);
+        productIds = BenchmarkData.productIds(ctx);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        ctx.close();
+    }
+
+    // Alternates IN and OUT of one unit across products so stock levels stay put
+    @Benchmark
+    public InventoryLog updateStock() {
+        int i = next++;
+        Long productId = productIds.get((i >> 1) % productIds.size());
+        return inventoryService.updateStock(productId, 1, (i & 1) == 0 ? "IN" : "OUT", null);
+    }
+
+    @Benchmark
+    public Map<String, Object> reports() {
+        return inventoryService.reports();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long exportCsv(Blackhole blackhole) throws IOException {
+        return inventoryService.exportLogsCsv(new BlackholeOutputStream(blackhole));
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.inventory.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the JMH suites in this package, writes results to {@code target/jmh/results.json} and fails on
+ * regressions against the stored baseline. Run with {@code mvn test -Pbenchmark -Dtest=JmhBenchmarkTests}.
+ * <p>
+ * Options (system properties): {@code jmh.include} (regex, default every benchmark here), {@code jmh.iterations},
+ * {@code jmh.warmup-iterations}, {@code jmh.threshold} (allowed slowdown, default 0.25), {@code jmh.baseline}
+ * and {@code jmh.update-baseline=true} to record the current results as the new baseline. Baselines are only
+ * meaningful on the machine that recorded them, so record one per CI runner. Data volumes: {@code bench.*}, see
+ * {@link BenchmarkData}.
+ */
+@Tag("benchmark")
+class JmhBenchmarkTests {
+    private static final Path RESULTS = Path.of("target", "jmh", "results.json");
+
+    @Test
+    void runAndCompareWithBaseline() throws Exception {
+        Files.createDirectories(RESULTS.getParent());
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", JmhBenchmarkTests.class.getPackageName() + "\\..*Benchmark"))
+                .forks(1)
+                .jvmArgsAppend("-Djava.class.path=" + System.getProperty("java.class.path"),
+                        "-Dbench.suppliers=" + BenchmarkData.SUPPLIERS,
+                        "-Dbench.products=" + BenchmarkData.PRODUCTS,
+                        "-Dbench.logs=" + BenchmarkData.LOGS)
+                .warmupIterations(Integer.getInteger("jmh.warmup-iterations", 2))
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(Integer.getInteger("jmh.iterations", 3))
+                .measurementTime(TimeValue.seconds(2))
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS.toString())
+                .build();
+        new Runner(options).run();
+
+        Path baseline = Path.of(System.getProperty("jmh.baseline", "src/test/resources/jmh/baseline.json"));
+        if (Boolean.getBoolean("jmh.update-baseline")) {
+            Files.createDirectories(baseline.getParent());
+            Files.copy(RESULTS, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Recorded JMH baseline at " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No JMH baseline at " + baseline + "; record one with -Djmh.update-baseline=true");
+            return;
+        }
+        List<String> regressions = BaselineComparison.regressions(RESULTS, baseline,
+                Double.parseDouble(System.getProperty("jmh.threshold", "0.25")));
+        regressions.forEach(r -> System.out.println("REGRESSION " + r));
+        assertTrue(regressions.isEmpty(), regressions.size() + " benchmark(s) regressed against " + baseline);
+    }
+}
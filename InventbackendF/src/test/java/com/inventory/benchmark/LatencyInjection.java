@@ -0,0 +1,57 @@
+package com.inventory.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wraps the pooled DataSource so every statement execution sleeps {@code load.db-latency-ms} first, while holding
+ * its connection, like a slow database would. Add it as an extra source when starting the application; it is not
+ * annotated, so component scanning never picks it up.
+ */
+public class LatencyInjection {
+    public static final long DB_LATENCY_MS = Long.getLong("load.db-latency-ms", 20);
+
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate", "executeBatch",
+            "executeLargeUpdate", "executeLargeBatch");
+
+    @Bean
+    static BeanPostProcessor latencyInjectingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ds ? proxy(DataSource.class, ds) : bean;
+            }
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            if (EXECUTE.contains(method.getName())) Thread.sleep(DB_LATENCY_MS);
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection c && method.getReturnType() == Connection.class) {
+                return proxy(Connection.class, c);
+            }
+            if (result instanceof Statement s && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy(statementType(method.getReturnType()), s);
+            }
+            return result;
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends Statement> Class<S> statementType(Class<?> declared) {
+        return (Class<S>) declared;
+    }
+}
@@ -0,0 +1,66 @@
+package com.inventory.benchmark;
+
+import com.inventory.dto.ProductView;
+import com.inventory.model.Supplier;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.ProductService;
+import com.inventory.service.SupplierService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product and supplier search through the services (in-memory index), plus the SQL fallback for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+    // An exact word, a prefix and a typo
+    @Param({"valve", "brack", "sensr"})
+    public String query;
+
+    private ConfigurableApplicationContext ctx;
+    private ProductService productService;
+    private SupplierService supplierService;
+    private ProductRepository productRepository;
+
+    @Setup(Level.Trial)
+    public void start() {
+        ctx = BenchmarkData.start();
+        productService = ctx.getBean(ProductService.class);
+        supplierService = ctx.getBean(SupplierService.class);
+        productRepository = ctx.getBean(ProductRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public List<ProductView> productSearch() {
+        return productService.search(query, null);
+    }
+
+    @Benchmark
+    public List<Supplier> supplierSearch() {
+        return supplierService.search(query, null);
+    }
+
+    @Benchmark
+    public List<ProductView> productSqlSearch() {
+        return productRepository.search(query);
+    }
+}
@@ -0,0 +1,96 @@
+package com.inventory.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.inventory.dto.InventoryLogView;
+import com.inventory.dto.ProductView;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.model.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product and log pages, as entity graphs and as the read-model records the API returns.
+ * Needs no database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    @Param({"50", "500"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private List<Product> products;
+    private List<ProductView> productViews;
+    private List<InventoryLog> logs;
+    private List<InventoryLogView> logViews;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        products = new ArrayList<>(size);
+        logs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Supplier s = new Supplier();
+            s.setId((long) i % 20);
+            s.setName(BenchmarkData.word(random) + " Supply");
+            s.setEmail("sales@example.com");
+            s.setAddress(i + " Long Road");
+            Product p = new Product();
+            p.setId((long) i);
+            p.setName(BenchmarkData.word(random) + " " + BenchmarkData.word(random) + " " + i);
+            p.setDescription("Grade " + i % 10 + " part");
+            p.setCategory("Hardware");
+            p.setSupplier(s);
+            p.setQuantity(random.nextInt(1_000));
+            p.setPrice(random.nextInt(100_000) / 100.0);
+            p.setWarehouseLocation("A" + i % 40);
+            p.setReorderLevel(10);
+            products.add(p);
+            InventoryLog l = new InventoryLog();
+            l.setId((long) i);
+            l.setProduct(p);
+            l.setType(i % 2 == 0 ? "IN" : "OUT");
+            l.setQuantity(1 + i % 20);
+            l.setNotes("Cycle count");
+            l.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i));
+            logs.add(l);
+        }
+        productViews = products.stream().map(ProductView::of).toList();
+        logViews = logs.stream().map(InventoryLogView::of).toList();
+    }
+
+    @Benchmark
+    public byte[] productEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productViews() throws Exception {
+        return objectMapper.writeValueAsBytes(productViews);
+    }
+
+    @Benchmark
+    public byte[] logEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(logs);
+    }
+
+    @Benchmark
+    public byte[] logViews() throws Exception {
+        return objectMapper.writeValueAsBytes(logViews);
+    }
+}
@@ -0,0 +1,98 @@
+package com.inventory.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.inventory.config.WireFormatConfig;
+import com.inventory.dto.InventoryLogView;
+import com.inventory.dto.ProductView;
+import com.inventory.dto.SupplierRef;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Payload size and serialization CPU per wire format for {@code bench.wire.rows} product views and as many log
+ * views, each also gzipped as the server would. CPU is the best of several runs on this thread. Needs no database.
+ * Run with {@code mvn test -Pbenchmark -Dtest=WireFormatBenchmarkTests}.
+ */
+@Tag("benchmark")
+class WireFormatBenchmarkTests {
+    private static final int ROWS = Integer.getInteger("bench.wire.rows", 100_000);
+    private static final int RUNS = 5;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void payloadSizeAndCpuPerFormat() throws IOException {
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", Jackson2ObjectMapperBuilder.json().build());
+        formats.put("cbor", WireFormatConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory()));
+        formats.put("smile", WireFormatConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new SmileFactory()));
+
+        Random random = new Random(42);
+        List<ProductView> products = new ArrayList<>(ROWS);
+        List<InventoryLogView> logs = new ArrayList<>(ROWS);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < ROWS; i++) {
+            long supplierId = i % 200;
+            products.add(new ProductView((long) i, "SKU-" + i, BenchmarkData.word(random) + " " + BenchmarkData.word(random) + " " + i,
+                    "Grade " + i % 10 + " part", "Hardware", new SupplierRef(supplierId, "Supplier " + supplierId),
+                    random.nextInt(1_000), random.nextInt(100_000) / 100.0, "A" + i % 40, 10, 3L));
+            long productId = random.nextInt(10_000);
+            logs.add(new InventoryLogView((long) i, productId, "Product " + productId, random.nextBoolean() ? "IN" : "OUT",
+                    1 + random.nextInt(20), null, start.plusSeconds(i * 7L), null));
+        }
+
+        long jsonLogBytes = 0;
+        long smileLogBytes = 0;
+        System.out.printf("%,d rows        %12s %10s %12s %10s%n", ROWS, "bytes", "cpu ms", "gzip bytes", "+gzip ms");
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            for (Map.Entry<String, Object> payload : Map.<String, Object>of("products", products, "logs", logs).entrySet()) {
+                long[] plain = measure(format.getValue(), payload.getValue(), false);
+                long[] gzipped = measure(format.getValue(), payload.getValue(), true);
+                System.out.printf("%-6s %-9s %,12d %,10d %,12d %,10d%n", format.getKey(), payload.getKey(),
+                        plain[0], plain[1] / 1_000_000, gzipped[0], gzipped[1] / 1_000_000);
+                if (payload.getKey().equals("logs") && format.getKey().equals("json")) jsonLogBytes = plain[0];
+                if (payload.getKey().equals("logs") && format.getKey().equals("smile")) smileLogBytes = plain[0];
+            }
+        }
+        assertTrue(smileLogBytes < jsonLogBytes);
+    }
+
+    // {bytes, best CPU nanos}
+    private long[] measure(ObjectMapper mapper, Object payload, boolean gzip) throws IOException {
+        long bytes = 0;
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS + 1; run++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+            long cpu = threads.getCurrentThreadCpuTime();
+            if (gzip) {
+                try (GZIPOutputStream zip = new GZIPOutputStream(out, 8192)) {
+                    mapper.writeValue(zip, payload);
+                }
+            } else {
+                mapper.writeValue(out, payload);
+            }
+            cpu = threads.getCurrentThreadCpuTime() - cpu;
+            // First run is warmup
+            if (run > 0) best = Math.min(best, cpu);
+            bytes = out.size();
+        }
+        return new long[]{bytes, best};
+    }
+}
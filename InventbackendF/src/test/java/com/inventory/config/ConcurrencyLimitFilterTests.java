@@ -0,0 +1,81 @@
+package com.inventory.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTests {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(20), registry);
+
+    @Test
+    void shedsRequestsBeyondTheLimitWith503() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (req, res) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> run(blocking));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse shed = run(new MockFilterChain());
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("inventory.web.concurrency.rejected").counter().count());
+        assertEquals(1.0, registry.get("inventory.web.concurrency.in_flight").gauge().value());
+
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(200, run(new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void asyncResponsesHoldTheirPermitUntilComplete() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(503, run(new MockFilterChain()).getStatus());
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(200, run(new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void ignoresNonApiPaths() throws Exception {
+        MockHttpServletRequest actuator = new MockHttpServletRequest("GET", "/actuator/health");
+        CountDownLatch done = new CountDownLatch(1);
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) ->
+                filter.doFilter(actuator, new MockHttpServletResponse(), (r, s) -> done.countDown()));
+        assertEquals(0, done.getCount());
+    }
+
+    private MockHttpServletResponse run(FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request(), response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/products");
+    }
+}
@@ -0,0 +1,80 @@
+package com.inventory.config;
+
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.ProductService;
+import com.inventory.service.ReportingAggregates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "inventory.auth.metrics-token=scrape-token")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTests {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private ReportingAggregates reportingAggregates;
+
+    private Long productId;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        Product p = new Product();
+        p.setName("Gauge");
+        p.setQuantity(10);
+        p.setReorderLevel(8);
+        productId = productService.save(p).getId();
+        reportingAggregates.reconcile();
+    }
+
+    @Test
+    void prometheusExposesHotPathMetrics() throws Exception {
+        String token = "Bearer " + tokenService.issueAccess(new AuthUser(1L, "Ops", "ops@example.com", Role.ADMIN));
+        mvc.perform(post("/api/inventory/update-stock").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":" + productId + ",\"quantity\":4,\"type\":\"OUT\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer wrong-token")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/prometheus").header("Authorization", token)).andExpect(status().isOk());
+        mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer scrape-token"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{error=\"none\",exception=\"none\","
+                        + "method=\"POST\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/inventory/update-stock\"")))
+                .andExpect(content().string(containsString("inventory_service_seconds_bucket")))
+                .andExpect(content().string(containsString("method=\"updateStock\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("inventory_stock_movement_units_total{type=\"OUT\"} 4.0")))
+                .andExpect(content().string(containsString("inventory_stock_low_skus 1.0")))
+                .andExpect(content().string(containsString("inventory_stock_out_of_stock_skus 0.0")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+}
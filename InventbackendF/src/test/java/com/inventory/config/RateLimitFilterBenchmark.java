@@ -0,0 +1,92 @@
+package com.inventory.config;
+
+import com.inventory.auth.AuthFilter;
+import com.inventory.auth.AuthUser;
+import com.inventory.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time one request spends in {@link RateLimitFilter}, with threads hitting the same endpoint class concurrently:
+ * an unlimited path, each thread on its own bucket, and every thread on one shared bucket (the contended case).
+ * {@code noFilter} is the cost of the request plumbing alone. Limits are high enough that nothing is rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class RateLimitFilterBenchmark {
+    private static final FilterChain CHAIN = (req, res) -> { };
+    private static final AtomicLong USERS = new AtomicLong();
+
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() {
+        filter = new RateLimitFilter(true, List.of("reports:1000000000:1000000000", "logs:1000:10"),
+                List.of("/api/inventory/reports/export=reports", "/api/inventory/reports=reports",
+                        "/api/inventory/logs=logs", "/api/products/search=logs"),
+                100_000, new SimpleMeterRegistry(), Clock.systemUTC());
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+        MockHttpServletRequest unlimited;
+        MockHttpServletRequest own;
+        MockHttpServletRequest shared;
+        MockHttpServletResponse response;
+
+        @Setup
+        public void setUp() {
+            unlimited = request("/api/products", 1L);
+            own = request("/api/inventory/reports", USERS.incrementAndGet() + 1);
+            shared = request("/api/inventory/reports", 1L);
+            response = new MockHttpServletResponse();
+        }
+
+        private static MockHttpServletRequest request(String path, long userId) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+            request.setAttribute(AuthFilter.USER, new AuthUser(userId, "User " + userId, "user@example.com", Role.STAFF));
+            return request;
+        }
+    }
+
+    @Benchmark
+    public int noFilter(Requests r) throws Exception {
+        CHAIN.doFilter(r.shared, r.response);
+        return r.response.getStatus();
+    }
+
+    @Benchmark
+    public int unlimitedPath(Requests r) throws Exception {
+        filter.doFilter(r.unlimited, r.response, CHAIN);
+        return r.response.getStatus();
+    }
+
+    @Benchmark
+    public int ownBucket(Requests r) throws Exception {
+        filter.doFilter(r.own, r.response, CHAIN);
+        return r.response.getStatus();
+    }
+
+    @Benchmark
+    public int sharedBucket(Requests r) throws Exception {
+        filter.doFilter(r.shared, r.response, CHAIN);
+        return r.response.getStatus();
+    }
+}
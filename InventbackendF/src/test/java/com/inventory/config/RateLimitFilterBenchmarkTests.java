@@ -0,0 +1,40 @@
+package com.inventory.config;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link RateLimitFilterBenchmark} under JMH and checks the filter adds microseconds at most, even with every
+ * thread on one bucket. Run with {@code mvn test -Pbenchmark -Dtest=RateLimitFilterBenchmarkTests}.
+ */
+@Tag("benchmark")
+class RateLimitFilterBenchmarkTests {
+    @Test
+    void filterOverheadUnderContention() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(RateLimitFilterBenchmark.class.getName())
+                .forks(1)
+                .jvmArgsAppend("-Djava.class.path=" + System.getProperty("java.class.path"))
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(2))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        assertFalse(results.isEmpty());
+        for (RunResult r : results) {
+            double nanos = r.getPrimaryResult().getScore();
+            assertTrue(nanos < 10_000, r.getParams().getBenchmark() + " took " + nanos + " ns");
+        }
+    }
+}
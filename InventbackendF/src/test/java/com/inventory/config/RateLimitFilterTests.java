@@ -0,0 +1,164 @@
+package com.inventory.config;
+
+import com.inventory.auth.AuthFilter;
+import com.inventory.auth.AuthUser;
+import com.inventory.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTests {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private final RateLimitFilter filter = new RateLimitFilter(true,
+            List.of("reports:3:1", "logs:10:2"),
+            List.of("/api/inventory/reports=reports", "/api/inventory/logs=logs", "/api/inventory/history=logs*4"),
+            1000, registry, clock);
+
+    @Test
+    void bucketsAllowABurstThenRefillAtTheirRate() {
+        for (int i = 0; i < 3; i++) assertEquals(200, run("/api/inventory/reports", 1L).getStatus());
+        MockHttpServletResponse limited = run("/api/inventory/reports", 1L);
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("inventory.web.ratelimit.rejected").tag("class", "reports").counter().count());
+
+        clock.advance(Duration.ofMillis(999));
+        assertEquals(429, run("/api/inventory/reports", 1L).getStatus());
+        clock.advance(Duration.ofMillis(1));
+        assertEquals(200, run("/api/inventory/reports", 1L).getStatus());
+        assertEquals(429, run("/api/inventory/reports", 1L).getStatus());
+    }
+
+    @Test
+    void bucketsArePerUserAndEndpointClassAndRoutesHaveCosts() {
+        for (int i = 0; i < 3; i++) run("/api/inventory/reports", 1L);
+        assertEquals(429, run("/api/inventory/reports", 1L).getStatus());
+        assertEquals(200, run("/api/inventory/reports", 2L).getStatus());
+        assertEquals(200, run("/api/inventory/logs", 1L).getStatus());
+
+        // 1 token used by the log page, then two history queries at 4 tokens each
+        assertEquals(200, run("/api/inventory/history", 1L).getStatus());
+        assertEquals(200, run("/api/inventory/history", 1L).getStatus());
+        MockHttpServletResponse limited = run("/api/inventory/history", 1L);
+        assertEquals(429, limited.getStatus());
+        assertEquals("2", limited.getHeader("Retry-After"));
+        assertEquals(200, run("/api/inventory/logs", 1L).getStatus());
+    }
+
+    @Test
+    void otherPathsAreNotLimitedAndAnonymousClientsGoByAddress() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, run("/api/products", 1L).getStatus());
+            assertEquals(200, run("/api/inventory/reports-archive", 1L).getStatus());
+        }
+        for (int i = 0; i < 3; i++) assertEquals(200, run("/api/inventory/reports/export/csv", null).getStatus());
+        assertEquals(429, run("/api/inventory/reports", null).getStatus());
+
+        RateLimitFilter disabled = new RateLimitFilter(false, List.of("reports:1:1"), List.of("/api/inventory/reports=reports"),
+                1000, registry, clock);
+        for (int i = 0; i < 5; i++) assertEquals(200, run(disabled, "/api/inventory/reports", 1L).getStatus());
+    }
+
+    @Test
+    void pathsAreMatchedAsTheyAreMapped() {
+        // MVC maps all of these to the reports endpoints, so they draw on the same bucket
+        for (String path : List.of("/api/inventory/reports;x", "/api/inventory/reports;x/export/csv", "/api/inventory/%72eports")) {
+            assertEquals(200, run(path, 1L).getStatus());
+        }
+        assertEquals(429, run("/api/inventory//reports", 1L).getStatus());
+        assertEquals(429, run("/api/inventory/reports;jsessionid=1", 1L).getStatus());
+    }
+
+    @Test
+    void concurrentRequestsNeverTakeMoreThanTheBucketHolds() throws Exception {
+        RateLimitFilter burst = new RateLimitFilter(true, List.of("reports:500:1"), List.of("/api/inventory/reports=reports"),
+                1000, registry, clock);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> allowed = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                allowed.add(pool.submit(() -> {
+                    start.await();
+                    int ok = 0;
+                    for (int i = 0; i < 200; i++) {
+                        if (run(burst, "/api/inventory/reports", 1L).getStatus() == 200) ok++;
+                    }
+                    return ok;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> f : allowed) total += f.get(30, TimeUnit.SECONDS);
+            assertEquals(500, total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalStateException.class, () -> new RateLimitFilter(true, List.of("reports:0:1"),
+                List.of(), 1000, registry, clock));
+        assertThrows(IllegalStateException.class, () -> new RateLimitFilter(true, List.of("reports:3:1"),
+                List.of("/api/inventory/reports=exports"), 1000, registry, clock));
+        assertThrows(IllegalStateException.class, () -> new RateLimitFilter(true, List.of("reports:3:1"),
+                List.of("/api/inventory/reports=reports*4"), 1000, registry, clock));
+    }
+
+    private MockHttpServletResponse run(String path, Long userId) {
+        return run(filter, path, userId);
+    }
+
+    private static MockHttpServletResponse run(RateLimitFilter filter, String path, Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (userId != null) request.setAttribute(AuthFilter.USER, new AuthUser(userId, "User", "user@example.com", Role.ADMIN));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
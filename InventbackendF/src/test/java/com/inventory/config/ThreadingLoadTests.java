@@ -0,0 +1,128 @@
+package com.inventory.config;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.benchmark.LatencyInjection;
+import com.inventory.model.Role;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load-test harness comparing platform and virtual request threads when the database is slow.
+ * <p>
+ * Each run starts the application against in-memory H2 with {@code load.db-latency-ms} of latency injected
+ * into every statement, then drives it with N concurrent clients issuing requests back to back for
+ * {@code load.duration-seconds}. Client counts come from {@code load.clients} (default {@code 1000,10000}).
+ * Virtual-thread runs are skipped on runtimes older than Java 21. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadingLoadTests {
+    private static final String SECRET = "load-test-secret-load-test-secret";
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration-seconds", 20));
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        List<Integer> clientCounts = Arrays.stream(System.getProperty("load.clients", "1000,10000").split(","))
+                .map(String::trim).map(Integer::valueOf).toList();
+        for (boolean virtual : List.of(false, true)) {
+            if (virtual && Runtime.version().feature() < 21) {
+                System.out.println("virtual threads: skipped, Java " + Runtime.version().feature() + " runtime");
+                continue;
+            }
+            try (ConfigurableApplicationContext ctx = start(virtual)) {
+                String token = "Bearer " + ctx.getBean(TokenService.class)
+                        .issueAccess(new AuthUser(1L, "Load", "load@example.com", Role.STAFF));
+                String url = "http://localhost:" + ((ServletWebServerApplicationContext) ctx).getWebServer().getPort()
+                        + "/api/inventory/logs?limit=10";
+                for (int clients : clientCounts) {
+                    report(virtual ? "virtual" : "platform", clients, drive(url, token, clients));
+                }
+            }
+        }
+    }
+
+    private Result drive(String url, String token, int clients) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2)))
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).header("Authorization", token)
+                .timeout(Duration.ofSeconds(60)).GET().build();
+        Result result = new Result();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        List<CompletableFuture<Void>> loops = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) loops.add(loop(http, request, deadline, result));
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).get();
+        return result;
+    }
+
+    // One client: the next request is sent as soon as the previous one completes
+    private CompletableFuture<Void> loop(HttpClient http, HttpRequest request, long deadline, Result result) {
+        if (System.nanoTime() >= deadline) return CompletableFuture.completedFuture(null);
+        long start = System.nanoTime();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null) result.errors.incrementAndGet();
+                    else if (response.statusCode() == 503) result.shed.incrementAndGet();
+                    else if (response.statusCode() == 200) result.latencies.add(System.nanoTime() - start);
+                    else result.errors.incrementAndGet();
+                    return null;
+                })
+                .thenCompose(ignored -> loop(http, request, deadline, result));
+    }
+
+    private static void report(String mode, int clients, Result r) {
+        long[] sorted = r.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        assertTrue(sorted.length > 0, "no successful requests");
+        System.out.printf("%-8s %6d clients: %8.1f ok/s, p50 %7.1f ms, p90 %7.1f ms, p99 %7.1f ms, max %7.1f ms, "
+                        + "503s %d, errors %d%n", mode, clients, sorted.length / (double) DURATION.toSeconds(),
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6, r.shed.get(), r.errors.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(CicdBackendApplication.class, LatencyInjection.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--inventory.auth.token-secret=" + SECRET,
+                "--spring.datasource.url=jdbc:h2:mem:load_" + virtual + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                // Production pool, Tomcat and admission settings; the test properties file does not carry them
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--spring.datasource.hikari.minimum-idle=20",
+                "--spring.datasource.hikari.connection-timeout=2000",
+                "--server.tomcat.threads.max=200",
+                "--server.tomcat.max-connections=10000",
+                "--server.tomcat.accept-count=200",
+                "--inventory.web.concurrency.max-in-flight=100",
+                "--inventory.web.concurrency.acquire-timeout=PT0.1S");
+    }
+
+    private static final class Result {
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final AtomicLong shed = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+    }
+}
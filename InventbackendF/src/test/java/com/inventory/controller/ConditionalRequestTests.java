@@ -0,0 +1,227 @@
+package com.inventory.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import com.inventory.service.CatalogVersions;
+import com.inventory.service.InventoryService;
+import com.inventory.service.ProductService;
+import com.inventory.service.SupplierService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag / Last-Modified handling on catalogue reads, and what it saves a client that polls the product list.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalRequestTests {
+    private static final int PRODUCTS = 200;
+    private static final int POLLS = 30;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SupplierService supplierService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private Supplier supplier;
+    private List<Product> products;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+        Supplier s = new Supplier();
+        s.setName("Acme");
+        supplier = supplierRepository.save(s);
+        products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product p = new Product();
+            p.setName("Widget " + i);
+            p.setDescription("A widget for polling clients to fetch again and again");
+            p.setQuantity(100);
+            p.setSupplier(supplier);
+            products.add(p);
+        }
+        products = productRepository.saveAll(products);
+        // Seeded around the services, as another node would
+        catalogVersions.crossCheck();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void conditionalPollingSavesBytesAndQueries() throws Exception {
+        long[] plain = poll(false);
+        long[] conditional = poll(true);
+
+        // Every tenth poll follows a stock movement, so the conditional client refetches three times
+        assertEquals(POLLS, plain[1]);
+        assertEquals(3, conditional[1]);
+        assertTrue(conditional[0] * 5 < plain[0]);
+    }
+
+    @Test
+    void productEtagFollowsRowVersion() throws Exception {
+        Long id = products.get(0).getId();
+        MvcResult first = mvc.perform(get("/api/products/" + id).header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        // Cached view: a matching ETag costs no query
+        statistics.clear();
+        mvc.perform(get("/api/products/" + id).header("Authorization", bearer()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // The view embeds the supplier's name, so renaming the supplier is a new product version
+        Supplier renamed = supplierRepository.findById(supplier.getId()).orElseThrow();
+        renamed.setName("Acme Industries");
+        renamed.setVersion(null);
+        supplierService.save(renamed);
+        MvcResult after = mvc.perform(get("/api/products/" + id).header("Authorization", bearer()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, after.getResponse().getHeader("ETag"));
+        assertEquals("Acme Industries", objectMapper.readTree(after.getResponse().getContentAsString()).at("/supplier/name").asText());
+    }
+
+    @Test
+    void staleVersionOnUpdateIsAConflict() throws Exception {
+        Long id = products.get(0).getId();
+        long version = objectMapper.readTree(mvc.perform(get("/api/products/" + id).header("Authorization", bearer()))
+                .andReturn().getResponse().getContentAsString()).get("version").asLong();
+        inventoryService.updateStock(id, 1, "IN", null);
+
+        mvc.perform(put("/api/products/" + id).header("Authorization", bearer())
+                        .contentType("application/json")
+                        .content("{\"name\":\"Renamed\",\"version\":" + version + "}"))
+                .andExpect(status().isConflict());
+        // Without a version the write goes through
+        mvc.perform(put("/api/products/" + id).header("Authorization", bearer())
+                        .contentType("application/json")
+                        .content("{\"name\":\"Renamed\",\"quantity\":101}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deltaReturnsOnlyChangedAndRemovedProducts() throws Exception {
+        JsonNode full = changes(null);
+        assertTrue(full.get("full").asBoolean());
+        assertEquals(PRODUCTS, full.get("products").size());
+
+        Product moved = products.get(3);
+        Product deleted = products.get(7);
+        inventoryService.updateStock(moved.getId(), 5, "OUT", null);
+        productService.delete(deleted.getId());
+
+        JsonNode delta = changes(full.get("version").asText());
+        assertFalse(delta.get("full").asBoolean());
+        assertEquals(1, delta.get("products").size());
+        assertEquals(moved.getId(), delta.get("products").get(0).get("id").asLong());
+        assertEquals(95, delta.get("products").get(0).get("quantity").asInt());
+        assertEquals(deleted.getId(), delta.get("removed").get(0).asLong());
+
+        JsonNode none = changes(delta.get("version").asText());
+        assertEquals(0, none.get("products").size());
+        assertEquals(delta.get("version").asText(), none.get("version").asText());
+
+        // Publishing this node's own writes keeps deltas going
+        catalogVersions.crossCheck();
+        JsonNode published = changes(none.get("version").asText());
+        assertFalse(published.get("full").asBoolean());
+        assertEquals(0, published.get("products").size());
+
+        // A write around the services bumps the shared revision, and sends delta clients back to a full fetch
+        jdbcTemplate.update("UPDATE products SET quantity = 1, version = version + 1 WHERE id = ?", moved.getId());
+        jdbcTemplate.update("UPDATE catalog_revisions SET revision = revision + 1 WHERE name = 'products'");
+        catalogVersions.crossCheck();
+        assertTrue(changes(published.get("version").asText()).get("full").asBoolean());
+    }
+
+    // {bytes received, SQL statements} for POLLS list requests, with a stock movement before every tenth
+    private long[] poll(boolean conditional) throws Exception {
+        long bytes = 0;
+        String etag = null;
+        statistics.clear();
+        long movementStatements = 0;
+        for (int i = 0; i < POLLS; i++) {
+            if (i % 10 == 0) {
+                long before = statistics.getPrepareStatementCount();
+                inventoryService.updateStock(products.get(i).getId(), 1, "IN", null);
+                movementStatements += statistics.getPrepareStatementCount() - before;
+            }
+            var request = get("/api/products").header("Authorization", bearer());
+            if (conditional && etag != null) request.header("If-None-Match", etag);
+            MvcResult result = mvc.perform(request).andReturn();
+            int code = result.getResponse().getStatus();
+            assertTrue(code == 200 || code == 304);
+            bytes += result.getResponse().getContentAsByteArray().length;
+            etag = result.getResponse().getHeader("ETag");
+            assertNotNull(result.getResponse().getHeader("Last-Modified"));
+        }
+        return new long[]{bytes, statistics.getPrepareStatementCount() - movementStatements};
+    }
+
+    private JsonNode changes(String since) throws Exception {
+        var request = get("/api/products/changes").header("Authorization", bearer());
+        if (since != null) request.param("since", since);
+        return objectMapper.readTree(mvc.perform(request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private String bearer() {
+        return "Bearer " + tokenService.issueAccess(new AuthUser(1L, "Staff", "staff@example.com", Role.ADMIN));
+    }
+}
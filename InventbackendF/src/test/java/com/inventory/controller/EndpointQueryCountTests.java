@@ -0,0 +1,145 @@
+package com.inventory.controller;
+
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import com.inventory.search.CatalogSearch;
+import com.inventory.service.ReportingAggregates;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each listing endpoint issues, so N+1 regressions fail the build.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointQueryCountTests {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private CatalogSearch catalogSearch;
+    @Autowired
+    private ReportingAggregates reportingAggregates;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TokenService tokenService;
+
+    private Statistics statistics;
+    private Long productId;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+
+        List<Supplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Supplier s = new Supplier();
+            s.setName("Supplier " + i);
+            suppliers.add(supplierRepository.save(s));
+        }
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Product p = new Product();
+            p.setName("Widget " + i);
+            p.setQuantity(i);
+            p.setReorderLevel(5);
+            p.setSupplier(suppliers.get(i % 3));
+            products.add(productRepository.save(p));
+        }
+        List<InventoryLog> logs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            InventoryLog l = new InventoryLog();
+            l.setProduct(products.get(i % products.size()));
+            l.setType("IN");
+            l.setQuantity(1);
+            logs.add(l);
+        }
+        logRepository.saveAll(logs);
+        productId = products.get(0).getId();
+
+        catalogSearch.rebuild();
+        reportingAggregates.reconcile();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void productListIsOneStatement() throws Exception {
+        mvc.perform(get("/api/products").header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(12))
+                .andExpect(jsonPath("$[0].supplier.name").value("Supplier 0"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void lowStockIsOneStatement() throws Exception {
+        mvc.perform(get("/api/products/low-stock").header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void productByIdIsOneStatement() throws Exception {
+        mvc.perform(get("/api/products/" + productId).header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.supplier.name").value("Supplier 0"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchIsOneStatement() throws Exception {
+        mvc.perform(get("/api/products/search").param("q", "widget").header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(12));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void logPageIsOneStatement() throws Exception {
+        mvc.perform(get("/api/inventory/logs").param("limit", "20").header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(20))
+                .andExpect(jsonPath("$.items[0].product.name").exists());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private String bearer() {
+        return "Bearer " + tokenService.issueAccess(new AuthUser(1L, "Staff", "staff@example.com", Role.STAFF));
+    }
+}
@@ -0,0 +1,163 @@
+package com.inventory.controller;
+
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.repository.IdempotencyRecordRepository;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.LogWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Idempotency-Key on stock movements: retries and concurrent duplicates apply a movement once.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyTests {
+    private static final int THREADS = 16;
+    private static final int KEYS = 20;
+    private static final int COPIES = 8;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRepository;
+    @Autowired
+    private LogWriteBehind logWriteBehind;
+    @Autowired
+    private TokenService tokenService;
+
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        clean();
+        Product p = new Product();
+        p.setName("Scanned");
+        p.setQuantity(100);
+        product = productRepository.save(p);
+    }
+
+    @AfterEach
+    void clean() {
+        logWriteBehind.awaitFlushed();
+        idempotencyRepository.deleteAll();
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void retriesGetTheFirstResponseWithoutMovingStockAgain() throws Exception {
+        MvcResult first = move("scan-1", 5, "IN", 1L);
+        MvcResult retry = move("scan-1", 5, "IN", 1L);
+
+        assertEquals(200, retry.getResponse().getStatus());
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+        assertNull(first.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals("true", retry.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals(105, quantity());
+        logWriteBehind.awaitFlushed();
+        assertEquals(1, logRepository.count());
+
+        // Keys belong to the user, and requests without one are never deduplicated
+        move("scan-1", 5, "IN", 2L);
+        move(null, 5, "IN", 1L);
+        move(null, 5, "IN", 1L);
+        assertEquals(120, quantity());
+    }
+
+    @Test
+    void aKeyIsNotReusedForAnotherRequest() throws Exception {
+        move("scan-2", 5, "IN", 1L);
+        MvcResult other = move("scan-2", 6, "IN", 1L);
+
+        assertEquals(422, other.getResponse().getStatus());
+        assertEquals(105, quantity());
+    }
+
+    @Test
+    void failedRequestsReleaseTheirKey() throws Exception {
+        assertEquals(400, move("scan-3", 500, "OUT", 1L).getResponse().getStatus());
+        assertFalse(idempotencyRepository.existsById("1:scan-3"));
+
+        move(null, 400, "IN", 1L);
+        assertEquals(200, move("scan-3", 500, "OUT", 1L).getResponse().getStatus());
+        assertEquals(0, quantity());
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) keys.add("burst-" + i);
+        Map<String, Set<String>> bodies = new ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int copy = 0; copy < COPIES; copy++) {
+                for (String key : keys) {
+                    statuses.add(pool.submit(() -> {
+                        start.await();
+                        MvcResult r = move(key, 1, "OUT", 1L);
+                        bodies.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(r.getResponse().getContentAsString());
+                        return r.getResponse().getStatus();
+                    }));
+                }
+            }
+            start.countDown();
+            Set<Integer> seen = new HashSet<>();
+            for (Future<Integer> f : statuses) seen.add(f.get(60, TimeUnit.SECONDS));
+            assertEquals(Set.of(200), seen);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(100 - KEYS, quantity());
+        logWriteBehind.awaitFlushed();
+        assertEquals(KEYS, logRepository.count());
+        for (String key : keys) assertEquals(1, bodies.get(key).size(), key);
+    }
+
+    private MvcResult move(String key, int quantity, String type, Long userId) throws Exception {
+        var request = post("/api/inventory/update-stock")
+                .header("Authorization", "Bearer " + tokenService.issueAccess(
+                        new AuthUser(userId, "Scanner " + userId, "scanner" + userId + "@example.com", Role.ADMIN)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\":" + product.getId() + ",\"quantity\":" + quantity + ",\"type\":\"" + type + "\"}");
+        if (key != null) request.header("Idempotency-Key", key);
+        return mvc.perform(request).andReturn();
+    }
+
+    private int quantity() {
+        return productRepository.findById(product.getId()).orElseThrow().getQuantity();
+    }
+}
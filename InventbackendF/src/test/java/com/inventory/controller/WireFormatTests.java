@@ -0,0 +1,123 @@
+package com.inventory.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class WireFormatTests {
+    private static final String CBOR = "application/cbor";
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private TokenService tokenService;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+        List<Supplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Supplier s = new Supplier();
+            s.setName("Supplier " + i);
+            suppliers.add(supplierRepository.save(s));
+        }
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Product p = new Product();
+            p.setName("Widget " + i);
+            p.setSupplier(suppliers.get(i % 2));
+            products.add(productRepository.save(p));
+        }
+        List<InventoryLog> logs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            InventoryLog l = new InventoryLog();
+            l.setProduct(products.get(i % 3));
+            l.setType("IN");
+            l.setQuantity(1);
+            logs.add(l);
+        }
+        logRepository.saveAll(logs);
+    }
+
+    @Test
+    void cborProductListNamesEachSupplierOnce() throws Exception {
+        JsonNode json = new ObjectMapper().readTree(fetch("/api/products", "application/json"));
+        byte[] cbor = fetch("/api/products", CBOR);
+        JsonNode products = new ObjectMapper(new CBORFactory()).readTree(cbor);
+
+        assertEquals(6, products.size());
+        assertEquals("Supplier 0", products.get(0).get("supplier").get("name").asText());
+        assertEquals("Supplier 1", products.get(1).get("supplier").get("name").asText());
+        // Later references to the same supplier are just its id
+        assertEquals(json.get(2).get("supplier").get("id").asLong(), products.get(2).get("supplier").asLong());
+        assertEquals(json.get(2).get("name"), products.get(2).get("name"));
+    }
+
+    @Test
+    void smileLogPageNamesEachProductOnce() throws Exception {
+        byte[] json = fetch("/api/inventory/logs?limit=30", "application/json");
+        byte[] smile = fetch("/api/inventory/logs?limit=30", SMILE);
+        JsonNode items = new ObjectMapper(new SmileFactory()).readTree(smile).get("items");
+
+        assertEquals(30, items.size());
+        long named = 0;
+        for (JsonNode item : items) if (item.get("product").isObject()) named++;
+        assertEquals(3, named);
+        assertTrue(smile.length * 2 < json.length, smile.length + " vs " + json.length + " bytes");
+    }
+
+    @Test
+    void jsonStaysTheDefault() throws Exception {
+        mvc.perform(get("/api/products").header("Authorization", bearer()).header("Accept", "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/json"));
+    }
+
+    private byte[] fetch(String url, String accept) throws Exception {
+        MvcResult result = mvc.perform(get(url).header("Authorization", bearer()).header("Accept", accept))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", accept))
+                .andReturn();
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    private String bearer() {
+        return "Bearer " + tokenService.issueAccess(new AuthUser(1L, "Staff", "staff@example.com", Role.STAFF));
+    }
+}
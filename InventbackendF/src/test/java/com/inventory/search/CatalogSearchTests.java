@@ -0,0 +1,82 @@
+package com.inventory.search;
+
+import com.inventory.model.Product;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import com.inventory.service.ProductService;
+import com.inventory.service.SupplierService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CatalogSearchTests {
+    @Autowired
+    private CatalogSearch catalogSearch;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SupplierService supplierService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+
+    @BeforeEach
+    void reset() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+        catalogSearch.rebuild();
+    }
+
+    @Test
+    void searchFollowsSavesAndDeletes() {
+        assertTrue(catalogSearch.isReady());
+        Supplier acme = new Supplier();
+        acme.setName("Acme Hardware");
+        acme.setEmail("orders@acme.example");
+        acme = supplierService.save(acme);
+
+        Product drill = new Product();
+        drill.setName("Cordless Drill");
+        drill.setCategory("Power Tools");
+        drill = productService.save(drill);
+        Product bits = new Product();
+        bits.setName("Drill Bits");
+        bits.setCategory("Accessories");
+        bits = productService.save(bits);
+
+        assertEquals(2, productService.search("drill", null).size());
+        assertEquals("Cordless Drill", productService.search("cordles", null).get(0).name());
+        assertEquals(acme.getId(), supplierService.search("acme", null).get(0).getId());
+
+        drill.setName("Impact Driver");
+        productService.save(drill);
+        assertEquals(1, productService.search("drill", null).size());
+        assertEquals(1, productService.search("impact", 5).size());
+
+        productService.delete(bits.getId());
+        assertTrue(productService.search("drill", null).isEmpty());
+        supplierService.delete(acme.getId());
+        assertTrue(supplierService.search("acme", null).isEmpty());
+    }
+
+    @Test
+    void rebuildIndexesExistingRows() {
+        Product p = new Product();
+        p.setName("Torque Wrench");
+        productRepository.save(p);
+        assertTrue(productService.search("torque", null).isEmpty());
+
+        catalogSearch.rebuild();
+        assertEquals(1, productService.search("torque", null).size());
+    }
+}
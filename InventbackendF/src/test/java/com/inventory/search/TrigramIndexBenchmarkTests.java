@@ -0,0 +1,52 @@
+package com.inventory.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Build time and query latency of the search index over a million generated products, with exact, prefix and
+ * misspelt queries that all match. Run with {@code mvn test -Pbenchmark -Dtest=TrigramIndexBenchmarkTests}.
+ */
+@Tag("benchmark")
+class TrigramIndexBenchmarkTests {
+    @Test
+    void queryLatencyAtOneMillionProducts() {
+        String[] adjectives = {"heavy", "compact", "cordless", "industrial", "stainless", "premium", "mini", "digital",
+                "rugged", "smart", "classic", "portable", "precision", "magnetic", "waterproof", "ergonomic"};
+        String[] nouns = {"drill", "hammer", "wrench", "saw", "screwdriver", "pliers", "ladder", "sander", "grinder",
+                "clamp", "chisel", "level", "tape", "torch", "vacuum", "compressor", "router", "jigsaw", "stapler", "vise"};
+        String[] categories = {"power tools", "hand tools", "accessories", "safety", "storage", "electrical", "plumbing"};
+        Random random = new Random(7);
+        TrigramIndex index = new TrigramIndex(3f, 2f, 1f);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000_000; i++) {
+            String name = adjectives[random.nextInt(adjectives.length)] + " " + nouns[random.nextInt(nouns.length)]
+                    + " model" + random.nextInt(20_000);
+            index.put(i, name, categories[random.nextInt(categories.length)],
+                    adjectives[random.nextInt(adjectives.length)] + " " + nouns[random.nextInt(nouns.length)] + " for workshops");
+        }
+        long buildMs = (System.nanoTime() - start) / 1_000_000;
+
+        String[] queries = {"cordless drill", "model1234", "hammr", "stainles wrench", "prec", "jigsaw plumbing", "compresor",
+                "magnetic level model99", "tape", "safety vise"};
+        int runs = 500;
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            String query = queries[i % queries.length];
+            long t = System.nanoTime();
+            List<TrigramIndex.Hit> hits = index.search(query, 20);
+            nanos[i] = System.nanoTime() - t;
+            assertFalse(hits.isEmpty(), query);
+        }
+        Arrays.sort(nanos);
+        System.out.printf("1M products: build %d ms, query p50 %.2f ms, p99 %.2f ms%n",
+                buildMs, nanos[runs / 2] / 1e6, nanos[runs * 99 / 100] / 1e6);
+    }
+}
@@ -0,0 +1,64 @@
+package com.inventory.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTests {
+
+    @Test
+    void ranksExactThenPrefixThenTypoMatches() {
+        TrigramIndex index = new TrigramIndex(3f, 2f, 1f);
+        index.put(1, "Cordless Drill", "Power Tools", "18V drill with two batteries");
+        index.put(2, "Drill Bits Set", "Accessories", null);
+        index.put(3, "Drillmaster Press", "Power Tools", null);
+        index.put(4, "Hammer", "Hand Tools", "Steel claw hammer");
+
+        assertEquals(List.of(1L, 2L, 3L), keys(index.search("drill", 10)));
+        assertEquals(List.of(3L, 1L, 2L), keys(index.search("drillm", 10)));
+        assertEquals(List.of(4L), keys(index.search("hamer", 10)));
+        assertEquals(List.of(1L, 3L, 4L), keys(index.search("tools", 10)));
+        assertEquals(1L, index.search("power drill", 10).get(0).key());
+        assertEquals(List.of(1L), keys(index.search("cordles dril", 1)));
+        assertTrue(index.search("xylophone", 10).isEmpty());
+    }
+
+    @Test
+    void updatesReplaceAndRemoveDocuments() {
+        TrigramIndex index = new TrigramIndex(3f, 2f, 1f);
+        index.put(1, "Blue Widget", null, null);
+        index.put(1, "Red Widget", null, null);
+        index.put(2, "Blue Gadget", null, null);
+
+        assertEquals(List.of(2L), keys(index.search("blue", 10)));
+        assertEquals(List.of(1L), keys(index.search("red", 10)));
+        index.remove(2);
+        assertTrue(index.search("blue", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void laterQueryWordsCanMatchMoreDocumentsThanTheFirst() {
+        TrigramIndex index = new TrigramIndex(1f);
+        index.put(0, "Rare Widget");
+        for (int i = 1; i <= 100; i++) index.put(i, "Widget " + i);
+
+        List<TrigramIndex.Hit> hits = index.search("rare widget", 200);
+        assertEquals(101, hits.size());
+        assertEquals(0L, hits.get(0).key());
+        assertEquals(2f, hits.get(0).score());
+    }
+
+    @Test
+    void editDistanceIsBounded() {
+        assertEquals(2, TrigramIndex.editDistance("widget", "widgte", 2));
+        assertEquals(1, TrigramIndex.editDistance("widget", "wdget", 2));
+        assertEquals(3, TrigramIndex.editDistance("widget", "gadgetry", 2));
+    }
+
+    private static List<Long> keys(List<TrigramIndex.Hit> hits) {
+        return hits.stream().map(TrigramIndex.Hit::key).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.inventory.service;
+
+import com.inventory.model.Product;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CatalogCacheTests {
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SupplierService supplierService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Supplier s = new Supplier();
+        s.setName("Acme");
+        s = supplierService.save(s);
+        Product p = new Product();
+        p.setName("Widget");
+        p.setPrice(5.0);
+        p.setQuantity(20);
+        p.setReorderLevel(10);
+        p.setSupplier(s);
+        product = productService.save(p);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void repeatedReadsHitTheDatabaseOnce() {
+        statistics.clear();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(productService.findById(product.getId()).isPresent());
+            assertTrue(supplierService.findById(product.getSupplier().getId()).isPresent());
+        }
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void writesAreVisibleOnTheNextRead() {
+        Long nextId = product.getId() + 1;
+        assertTrue(productService.findById(nextId).isEmpty());
+        assertEquals(5.0, productService.findById(product.getId()).orElseThrow().price());
+        assertTrue(productService.lowStock().isEmpty());
+
+        Product edit = productRepository.findById(product.getId()).orElseThrow();
+        edit.setPrice(7.5);
+        productService.save(edit);
+        assertEquals(7.5, productService.findById(product.getId()).orElseThrow().price());
+
+        inventoryService.updateStock(product.getId(), 15, "OUT", null);
+        assertEquals(5, productService.findById(product.getId()).orElseThrow().quantity());
+        assertEquals(1, productService.lowStock().size());
+
+        Supplier supplier = supplierService.findById(product.getSupplier().getId()).orElseThrow();
+        Supplier rename = new Supplier();
+        rename.setId(supplier.getId());
+        rename.setName("Acme Ltd");
+        supplierService.save(rename);
+        assertEquals("Acme Ltd", supplierService.findById(supplier.getId()).orElseThrow().getName());
+        assertEquals("Acme Ltd", productService.findById(product.getId()).orElseThrow().supplier().name());
+
+        Product scrap = new Product();
+        scrap.setName("Scrap");
+        scrap.setReorderLevel(1);
+        Long scrapId = productService.save(scrap).getId();
+        assertEquals(nextId, scrapId);
+        assertTrue(productService.findById(scrapId).isPresent());
+        assertEquals(2, productService.lowStock().size());
+        productService.delete(scrapId);
+        assertTrue(productService.findById(scrapId).isEmpty());
+        assertEquals(1, productService.lowStock().size());
+    }
+}
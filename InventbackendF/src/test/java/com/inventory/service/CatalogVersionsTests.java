@@ -0,0 +1,79 @@
+package com.inventory.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CatalogVersionsTests {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void nodesShareTokensAndOnlyForeignWritesForceFullFetches() {
+        CatalogVersions a = node();
+        CatalogVersions b = node();
+        a.crossCheck();
+        b.crossCheck();
+        String start = a.products().version();
+        assertEquals(start, b.products().version());
+
+        // Until it is published, a write only changes the writer's token
+        a.productChanged(1L);
+        a.productChanged(2L);
+        assertNotEquals(start, a.products().version());
+        assertEquals(start, b.products().version());
+        String pending = a.products().version();
+
+        a.crossCheck();
+        b.crossCheck();
+        String published = a.products().version();
+        assertEquals(published, b.products().version());
+        assertNotEquals(pending, published);
+
+        // The writer answers deltas across its own publication; the other node has no ids for that change
+        assertEquals(Set.of(1L, 2L), a.productChangesSince(start).ids());
+        assertEquals(Set.of(), a.productChangesSince(pending).ids());
+        assertEquals(Set.of(), a.productChangesSince(published).ids());
+        assertNull(b.productChangesSince(start).ids());
+        assertEquals(Set.of(), b.productChangesSince(published).ids());
+
+        // Syncs with nothing new change nothing
+        a.crossCheck();
+        b.crossCheck();
+        assertEquals(published, a.products().version());
+        assertEquals(Set.of(), a.productChangesSince(published).ids());
+
+        // Supplier tokens are shared the same way
+        b.suppliersChanged();
+        b.crossCheck();
+        a.crossCheck();
+        assertEquals(b.suppliers().version(), a.suppliers().version());
+    }
+
+    @Test
+    void tokensFromAnotherNodeOrEpochForceAFullFetch() {
+        CatalogVersions a = node();
+        CatalogVersions b = node();
+        a.crossCheck();
+        b.crossCheck();
+        b.productChanged(3L);
+        assertNull(a.productChangesSince(b.products().version()).ids());
+        assertNull(a.productChangesSince("elsewhere.1").ids());
+        assertNull(a.productChangesSince("junk").ids());
+        assertNull(a.productChangesSince(null).ids());
+    }
+
+    private CatalogVersions node() {
+        return new CatalogVersions(jdbcTemplate, transactionTemplate, 100, Clock.systemUTC());
+    }
+}
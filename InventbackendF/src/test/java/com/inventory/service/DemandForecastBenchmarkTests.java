@@ -0,0 +1,88 @@
+package com.inventory.service;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.dto.DemandForecast;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Full forecast recompute over {@code bench.forecast.products} products (1M by default) with a year of history,
+ * each product moving on {@code bench.forecast.active-days} days of it, read from the daily rollups as in steady
+ * state. The database is an H2 file under {@code target/} so the data set is not bounded by the test heap. Prints
+ * wall time, products per second and heap in use afterwards. Run with
+ * {@code mvn test -Pbenchmark -Dtest=DemandForecastBenchmarkTests}.
+ */
+@Tag("benchmark")
+class DemandForecastBenchmarkTests {
+    private static final int PRODUCTS = Integer.getInteger("bench.forecast.products", 1_000_000);
+    private static final int ACTIVE_DAYS = Integer.getInteger("bench.forecast.active-days", 12);
+    private static final int BATCH = 10_000;
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Test
+    void recomputesEveryProduct() {
+        try (ConfigurableApplicationContext ctx = start()) {
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            long seeded = System.nanoTime();
+            seed(jdbc);
+            System.out.printf("seeded %,d products and %,d daily rows in %.1f s%n",
+                    PRODUCTS, (long) PRODUCTS * ACTIVE_DAYS, (System.nanoTime() - seeded) / 1e9);
+
+            DemandForecastService forecasts = ctx.getBean(DemandForecastService.class);
+            long started = System.nanoTime();
+            int forecast = forecasts.recompute();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            Runtime rt = Runtime.getRuntime();
+            rt.gc();
+            System.out.printf("forecast %,d products in %.1f s (%,.0f products/s), heap used %,d MB%n",
+                    forecast, seconds, forecast / seconds, (rt.totalMemory() - rt.freeMemory()) >> 20);
+
+            assertEquals(PRODUCTS, forecast);
+            List<DemandForecast> suggestions = forecasts.suggestions(20);
+            assertFalse(suggestions.isEmpty());
+            suggestions.stream().limit(3).forEach(System.out::println);
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        Random random = new Random(22);
+        for (int from = 1; from <= PRODUCTS; from += BATCH) {
+            List<Object[]> products = new ArrayList<>(BATCH);
+            List<Object[]> days = new ArrayList<>(BATCH * ACTIVE_DAYS);
+            for (int id = from; id < from + BATCH && id <= PRODUCTS; id++) {
+                products.add(new Object[]{id, "Item " + id, random.nextInt(200), 9.99, 10});
+                // Each product has its own typical order size; movements fall on random days of the year
+                int size = 1 + random.nextInt(20);
+                for (int d = 0; d < ACTIVE_DAYS; d++) {
+                    LocalDate day = TODAY.minusDays(1 + (long) d * 365 / ACTIVE_DAYS + random.nextInt(365 / ACTIVE_DAYS));
+                    days.add(new Object[]{(long) id * ACTIVE_DAYS + d, id, Date.valueOf(day), 0, size + random.nextInt(size + 1), 1});
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO products (id, name, quantity, price, reorder_level, version) VALUES (?, ?, ?, ?, ?, 0)", products);
+            jdbc.batchUpdate("INSERT INTO inventory_log_daily (id, product_id, movement_date, in_units, out_units, movements) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", days);
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CicdBackendApplication.class).run(
+                "--server.port=0",
+                "--inventory.auth.token-secret=forecast-bench-secret-forecast-bench",
+                "--spring.datasource.url=jdbc:h2:file:./target/forecast-bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                // Keeps the periodic full reconciliation from competing with the run being measured
+                "--inventory.reports.reconcile-interval=PT24H",
+                "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,209 @@
+package com.inventory.service;
+
+import com.inventory.dto.DemandForecast;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.InventoryLogDaily;
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogDailyRepository;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DemandForecastTests {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private InventoryLogDailyRepository dailyRepository;
+    @Autowired
+    private MovementHistory movementHistory;
+
+    private final List<InventoryLog> logs = new ArrayList<>();
+    private Product steady;
+    private Product idle;
+    private Product spikyStocked;
+    private Product spikyLow;
+    private Product recent;
+
+    @BeforeEach
+    void seed() {
+        clean();
+        steady = product("Steady", 50);
+        idle = product("Idle", 100);
+        spikyStocked = product("Spiky, stocked", 500);
+        spikyLow = product("Spiky, low", 30);
+        recent = product("New", 10);
+        // Steady demand: older days already rolled up, the last 30 still raw
+        List<InventoryLogDaily> rolled = new ArrayList<>();
+        for (int d = 100; d > 30; d--) rolled.add(rollup(steady, TODAY.minusDays(d), 10));
+        dailyRepository.saveAll(rolled);
+        for (int d = 30; d >= 1; d--) out(steady, TODAY.minusDays(d), 10);
+        for (int d = 30; d >= 1; d--) {
+            out(spikyStocked, TODAY.minusDays(d), d % 2 == 0 ? 20 : 0);
+            out(spikyLow, TODAY.minusDays(d), d % 2 == 0 ? 20 : 0);
+        }
+        for (int d = 5; d >= 1; d--) out(recent, TODAY.minusDays(d), 8);
+        // Today is not complete and is left out
+        out(steady, TODAY, 1000);
+        logRepository.saveAll(logs);
+    }
+
+    @AfterEach
+    void clean() {
+        dailyRepository.deleteAll();
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        logs.clear();
+    }
+
+    @Test
+    void forecastsDemandAndReorderPoints() {
+        DemandForecastService forecasts = forecasts(1000, 1);
+        assertEquals(5, forecasts.recompute());
+
+        DemandForecast s = forecasts.forecast(steady.getId());
+        assertEquals(10, s.dailyDemand(), 1e-3);
+        assertEquals(0, s.demandDeviation(), 1e-3);
+        assertEquals(70, s.reorderPoint());
+        assertEquals(70 + 300 - 50, s.suggestedOrderQuantity());
+        assertEquals(5, s.daysOfCover(), 1e-3);
+
+        DemandForecast none = forecasts.forecast(idle.getId());
+        assertEquals(0, none.dailyDemand());
+        assertEquals(0, none.suggestedOrderQuantity());
+        assertNull(none.daysOfCover());
+
+        // Variable demand raises the reorder point above rate * lead time
+        DemandForecast spiky = forecasts.forecast(spikyStocked.getId());
+        assertEquals(10, spiky.dailyDemand(), 2);
+        assertTrue(spiky.demandDeviation() > 5, spiky.toString());
+        assertTrue(spiky.reorderPoint() > Math.ceil(spiky.dailyDemand() * 7), spiky.toString());
+        assertEquals(0, spiky.suggestedOrderQuantity());
+
+        // A short history is not averaged against the days before the product moved
+        assertEquals(8, forecasts.forecast(recent.getId()).dailyDemand(), 1e-3);
+
+        List<Long> suggested = forecasts.suggestions(null).stream().map(DemandForecast::productId).toList();
+        assertEquals(List.of(recent.getId(), spikyLow.getId(), steady.getId()), suggested);
+        assertEquals(1, forecasts.suggestions(1).size());
+        assertThrows(RuntimeException.class, () -> forecasts.forecast(999_999L));
+    }
+
+    @Test
+    void parallelChunksMatchASingleChunk() {
+        DemandForecastService single = forecasts(1000, 1);
+        DemandForecastService chunked = forecasts(2, 3);
+        single.recompute();
+        chunked.recompute();
+
+        for (Product p : List.of(steady, idle, spikyStocked, spikyLow, recent)) {
+            DemandForecast a = single.forecast(p.getId());
+            DemandForecast b = chunked.forecast(p.getId());
+            assertEquals(a, b);
+        }
+        assertEquals(single.suggestions(10), chunked.suggestions(10));
+    }
+
+    @Test
+    void productsAddedAfterARunAreForecastOnRequest() {
+        DemandForecastService forecasts = forecasts(1000, 1);
+        forecasts.recompute();
+        Product late = product("Late", 3);
+        out(late, TODAY.minusDays(1), 4);
+        logRepository.saveAll(logs);
+
+        assertEquals(4, forecasts.forecast(late.getId()).dailyDemand(), 1e-3);
+    }
+
+    @Test
+    void concurrentFirstReadersShareOneRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        Clock clock = Clock.fixed(TODAY.atTime(LocalTime.NOON).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        DemandForecastService forecasts = new DemandForecastService(productRepository, movementHistory, 365, 0.1, 7, 1.65,
+                30, 1000, 1, clock) {
+            @Override
+            public int recompute() {
+                runs.incrementAndGet();
+                return super.recompute();
+            }
+        };
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<DemandForecast>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(readers.submit(() -> {
+                    start.await();
+                    return forecasts.suggestions(10);
+                }));
+            }
+            start.countDown();
+            for (Future<List<DemandForecast>> r : results) assertEquals(3, r.get(30, TimeUnit.SECONDS).size());
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void smoothingOfAConstantSeriesHasNoDeviation() {
+        double[] smoothed = DemandForecastService.smooth(new long[]{0, 0, 6, 6, 6, 6}, 2, 6, 0.3);
+        assertEquals(6, smoothed[0], 1e-9);
+        assertEquals(0, smoothed[1], 1e-9);
+        assertArrayEquals(new double[]{0, 0}, DemandForecastService.smooth(new long[3], 3, 3, 0.3));
+    }
+
+    private DemandForecastService forecasts(int chunkSize, int parallelism) {
+        Clock clock = Clock.fixed(TODAY.atTime(LocalTime.NOON).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        return new DemandForecastService(productRepository, movementHistory, 365, 0.1, 7, 1.65, 30, chunkSize, parallelism, clock);
+    }
+
+    private Product product(String name, int quantity) {
+        Product p = new Product();
+        p.setName(name);
+        p.setQuantity(quantity);
+        return productRepository.save(p);
+    }
+
+    private void out(Product p, LocalDate day, int quantity) {
+        if (quantity == 0) return;
+        InventoryLog log = new InventoryLog();
+        log.setProduct(p);
+        log.setType("OUT");
+        log.setQuantity(quantity);
+        log.setCreatedAt(day.atTime(LocalTime.of(10, 0)));
+        logs.add(log);
+    }
+
+    private static InventoryLogDaily rollup(Product p, LocalDate day, int outUnits) {
+        InventoryLogDaily row = new InventoryLogDaily();
+        row.setProductId(p.getId());
+        row.setDay(day);
+        row.setOutUnits(outUnits);
+        row.setMovements(1);
+        return row;
+    }
+}
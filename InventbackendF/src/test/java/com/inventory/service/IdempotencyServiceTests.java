@@ -0,0 +1,69 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.auth.AuthUser;
+import com.inventory.model.Role;
+import com.inventory.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class IdempotencyServiceTests {
+    private static final AuthUser USER = new AuthUser(1L, "Scanner", "scanner@example.com", Role.STAFF);
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void clean() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void duplicatesOnTheSameInstanceWaitAtMostTheConfiguredTime() throws Exception {
+        IdempotencyService service = new IdempotencyService(repository, transactionTemplate, objectMapper,
+                Duration.ofHours(1), 100, Duration.ofSeconds(30), Duration.ofMillis(200), Clock.systemDefaultZone());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                service.execute(USER, "slow", "move", Map.of("qty", 1), () -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.ok(Map.of("moved", 1));
+                }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        long begun = System.nanoTime();
+        IdempotencyConflictException e = assertThrows(IdempotencyConflictException.class, () ->
+                service.execute(USER, "slow", "move", Map.of("qty", 1), () -> fail("ran twice")));
+        assertTrue(e.isInProgress());
+        assertTrue(System.nanoTime() - begun < TimeUnit.SECONDS.toNanos(5));
+
+        // The timed-out wait leaves the first request's result for later retries
+        release.countDown();
+        assertEquals(200, first.get(10, TimeUnit.SECONDS).getStatusCode().value());
+        ResponseEntity<?> retry = service.execute(USER, "slow", "move", Map.of("qty", 1), () -> fail("ran twice"));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+}
@@ -0,0 +1,124 @@
+package com.inventory.service;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.dto.LogCursor;
+import com.inventory.dto.LogPage;
+import com.inventory.model.Product;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Log page latency against table size: grows {@code inventory_logs} through {@code bench.logs.sizes} rows (10k, 100k
+ * and 1M by default) and at each size times, over {@code bench.logs.queries} requests, the first page, a page near the
+ * oldest row by keyset cursor, the first page for one product, and the same deep page by {@code OFFSET} for contrast.
+ * Run with {@code mvn test -Pbenchmark -Dtest=InventoryLogPaginationBenchmarkTests}.
+ */
+@Tag("benchmark")
+class InventoryLogPaginationBenchmarkTests {
+    private static final int[] SIZES = Arrays.stream(System.getProperty("bench.logs.sizes", "10000,100000,1000000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int QUERIES = Integer.getInteger("bench.logs.queries", 50);
+    private static final int PRODUCTS = 100;
+    private static final int PAGE = 50;
+    private static final int BATCH = 10_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final String OFFSET_PAGE = "SELECT l.id, p.id, p.name, l.type, l.quantity, l.notes, l.created_at, l.warehouse_id " +
+            "FROM inventory_logs l JOIN products p ON p.id = l.product_id ORDER BY l.created_at DESC, l.id DESC LIMIT ? OFFSET ?";
+
+    @Test
+    void keysetPagesStayFlatAsTheLogGrows() {
+        try (ConfigurableApplicationContext ctx = start()) {
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            InventoryService inventoryService = ctx.getBean(InventoryService.class);
+            List<Long> products = products(ctx.getBean(ProductRepository.class));
+
+            int rows = 0;
+            double smallestDeep = 0;
+            double largestDeep = 0;
+            for (int size : SIZES) {
+                rows = grow(jdbc, products, rows, size);
+                // Pages start about 98% deep; ids and timestamps both increase with insertion order
+                int depth = size - size / 50;
+                int total = size;
+                double first = time(i -> inventoryService.findLogs(null, null, null, null, null, PAGE - i % 10));
+                double deep = time(i -> inventoryService.findLogs(null, null, null, null, cursor(total, depth + i), PAGE).items());
+                double filtered = time(i -> inventoryService.findLogs(products.get(i % PRODUCTS), null, null, null, null, PAGE).items());
+                double offset = time(i -> jdbc.queryForList(OFFSET_PAGE, PAGE, depth + i));
+                System.out.printf("%,9d rows: first page %,7.0f us | keyset at depth %,9d %,7.0f us | one product %,7.0f us"
+                        + " | offset at the same depth %,9.0f us%n", size, first, depth, deep, filtered, offset);
+                if (size == SIZES[0]) smallestDeep = deep;
+                largestDeep = deep;
+            }
+            // A keyset page seeks to its cursor, however many rows lie before it
+            assertTrue(largestDeep < smallestDeep * 5, largestDeep + " vs " + smallestDeep + " us");
+        }
+    }
+
+    // Mean microseconds per request after one warm-up round. Each request differs from the last, so that H2 cannot
+    // answer it from the result of an identical query
+    private static double time(IntFunction<?> request) {
+        for (int i = 0; i < QUERIES; i++) check(request.apply(QUERIES + i));
+        long started = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) check(request.apply(i));
+        return (System.nanoTime() - started) / 1000.0 / QUERIES;
+    }
+
+    private static void check(Object page) {
+        List<?> items = page instanceof LogPage logPage ? logPage.items() : (List<?>) page;
+        assertTrue(items.size() > PAGE - 10, items.size() + " rows");
+    }
+
+    // Keyset position after the row at the given depth from the newest
+    private static String cursor(int size, int depth) {
+        int row = size - 1 - depth;
+        return new LogCursor(at(row), (long) row + 1).encode();
+    }
+
+    private static List<Long> products(ProductRepository productRepository) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product p = new Product();
+            p.setName("Logged " + i);
+            ids.add(productRepository.save(p).getId());
+        }
+        return ids;
+    }
+
+    // Appends rows until the table holds size rows, one a minute, products in turn
+    private static int grow(JdbcTemplate jdbc, List<Long> products, int from, int size) {
+        for (int start = from; start < size; start += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = start; i < Math.min(start + BATCH, size); i++) {
+                batch.add(new Object[]{(long) i + 1, products.get(i % PRODUCTS), i % 2 == 0 ? "IN" : "OUT", 1 + i % 5,
+                        Timestamp.valueOf(at(i))});
+            }
+            jdbc.batchUpdate("INSERT INTO inventory_logs (id, product_id, type, quantity, created_at) VALUES (?, ?, ?, ?, ?)", batch);
+        }
+        return size;
+    }
+
+    private static LocalDateTime at(int row) {
+        return BASE.plusMinutes(row);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CicdBackendApplication.class).run(
+                "--server.port=0",
+                "--inventory.auth.token-secret=logs-bench-secret-logs-bench-secret-logs",
+                "--spring.datasource.url=jdbc:h2:mem:logs_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,135 @@
+package com.inventory.service;
+
+import com.inventory.dto.InventoryLogView;
+import com.inventory.dto.LogPage;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class InventoryLogPaginationTests {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product widget;
+    private Product gadget;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        widget = productRepository.save(product("Widget"));
+        gadget = productRepository.save(product("Gadget"));
+
+        List<InventoryLog> logs = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Pairs of rows share a timestamp so the id tie-breaker is exercised
+            LocalDateTime at = BASE.plusMinutes(i / 2);
+            logs.add(log(i % 3 == 0 ? gadget : widget, i % 2 == 0 ? "IN" : "OUT", at));
+        }
+        logRepository.saveAll(logs);
+    }
+
+    @Test
+    void walksEveryRowExactlyOnceInDescendingOrder() {
+        List<InventoryLogView> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            LogPage page = inventoryService.findLogs(null, null, null, null, cursor, 7);
+            assertTrue(page.items().size() <= 7);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(25, seen.size());
+        Set<Long> ids = new HashSet<>();
+        seen.forEach(v -> ids.add(v.id()));
+        assertEquals(25, ids.size());
+        for (int i = 1; i < seen.size(); i++) {
+            InventoryLogView prev = seen.get(i - 1);
+            InventoryLogView cur = seen.get(i);
+            int cmp = prev.createdAt().compareTo(cur.createdAt());
+            assertTrue(cmp > 0 || (cmp == 0 && prev.id() > cur.id()));
+        }
+    }
+
+    @Test
+    void appliesProductTypeAndDateFilters() {
+        LogPage page = inventoryService.findLogs(gadget.getId(), "in", BASE.plusMinutes(2), BASE.plusMinutes(10), null, 100);
+
+        assertNull(page.nextCursor());
+        assertFalse(page.items().isEmpty());
+        page.items().forEach(v -> {
+            assertEquals(gadget.getId(), v.product().id());
+            assertEquals("Gadget", v.product().name());
+            assertEquals("IN", v.type());
+            assertFalse(v.createdAt().isBefore(BASE.plusMinutes(2)));
+            assertTrue(v.createdAt().isBefore(BASE.plusMinutes(10)));
+        });
+    }
+
+    @Test
+    void pagesThroughARangeForOneProduct() {
+        // Widget rows from minute 2 up to, but not including, minute 9: a timestamp shared by two rows bounds each end
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            LogPage page = inventoryService.findLogs(widget.getId(), null, BASE.plusMinutes(2), BASE.plusMinutes(9), cursor, 2);
+            page.items().forEach(v -> seen.add(v.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = logRepository.findAll().stream()
+                .filter(l -> l.getProduct().getId().equals(widget.getId()))
+                .filter(l -> !l.getCreatedAt().isBefore(BASE.plusMinutes(2)) && l.getCreatedAt().isBefore(BASE.plusMinutes(9)))
+                .sorted((x, y) -> x.getCreatedAt().equals(y.getCreatedAt())
+                        ? y.getId().compareTo(x.getId()) : y.getCreatedAt().compareTo(x.getCreatedAt()))
+                .map(InventoryLog::getId).toList();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> inventoryService.findLogs(null, null, null, null, "not-a-cursor", 10));
+        assertEquals("Invalid cursor", ex.getMessage());
+    }
+
+    private static Product product(String name) {
+        Product p = new Product();
+        p.setName(name);
+        p.setQuantity(100);
+        p.setPrice(2.5);
+        p.setReorderLevel(10);
+        return p;
+    }
+
+    private static InventoryLog log(Product product, String type, LocalDateTime at) {
+        InventoryLog l = new InventoryLog();
+        l.setProduct(product);
+        l.setType(type);
+        l.setQuantity(1);
+        l.setCreatedAt(at);
+        return l;
+    }
+}
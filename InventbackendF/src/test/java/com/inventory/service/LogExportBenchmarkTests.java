@@ -0,0 +1,125 @@
+package com.inventory.service;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.model.Role;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The CSV export end to end at a size the heap cannot hold: {@code bench.export.rows} log rows (4M by default, about
+ * 600 MB of CSV) are read through {@code InventoryLogRepository.streamAll}, the read-only service transaction and the
+ * controller's gzipped {@code StreamingResponseBody}, and downloaded over HTTP. The surefire {@code -Xmx512m} is what
+ * is tested: a cursor that materializes its results, an ignored fetch size or a buffered response runs out of heap.
+ * The rows live in an H2 file database under {@code target/}, so they do not take heap themselves.
+ * Run with {@code mvn test -Pbenchmark -Dtest=LogExportBenchmarkTests}.
+ */
+@Tag("benchmark")
+class LogExportBenchmarkTests {
+    private static final long ROWS = Long.getLong("bench.export.rows", 4_000_000L);
+    private static final long BATCH = 100_000;
+    private static final Path DATABASE = Path.of("target", "export-bench");
+
+    @Test
+    void csvExportStreamsMoreThanTheHeapOverHttp() throws Exception {
+        FileSystemUtils.deleteRecursively(DATABASE);
+        try (ConfigurableApplicationContext ctx = start()) {
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            seed(jdbc);
+            String token = ctx.getBean(TokenService.class).issueAccess(
+                    new AuthUser(1L, "Exporter", "exporter@example.com", Role.ADMIN));
+            URI export = URI.create("http://localhost:" + ctx.getEnvironment().getProperty("local.server.port")
+                    + "/api/inventory/reports/export/csv?gzip=true");
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            AtomicLong peakHeap = new AtomicLong();
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            sampler.setDaemon(true);
+            sampler.start();
+            long started = System.nanoTime();
+            long[] counted;
+            try {
+                counted = download(export, token);
+            } finally {
+                sampler.interrupt();
+            }
+            long millis = (System.nanoTime() - started) / 1_000_000;
+
+            long maxHeap = Runtime.getRuntime().maxMemory();
+            System.out.printf("%,d rows, %,d MB of CSV in %,d ms; peak heap %,d MB of %,d MB%n", ROWS,
+                    counted[1] >> 20, millis, peakHeap.get() >> 20, maxHeap >> 20);
+            assertEquals(ROWS + 1, counted[0]);
+            assertTrue(counted[1] > maxHeap, "export smaller than the heap, raise bench.export.rows");
+        } finally {
+            FileSystemUtils.deleteRecursively(DATABASE);
+        }
+    }
+
+    // One product and ROWS log rows, each with a note of about 100 characters, inserted by H2 itself
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO products (id, name, quantity, price, reorder_level, version) VALUES (1, 'Exported', 0, 1.5, 2, 0)");
+        for (long from = 1; from <= ROWS; from += BATCH) {
+            long to = Math.min(from + BATCH - 1, ROWS);
+            jdbc.update("INSERT INTO inventory_logs (id, product_id, type, quantity, notes, created_at) "
+                    + "SELECT X, 1, CASE WHEN MOD(X, 2) = 0 THEN 'IN' ELSE 'OUT' END, 1 + MOD(X, 5), "
+                    + "CONCAT('export row ', X, ' ', REPEAT('x', 80)), DATEADD('MINUTE', X, TIMESTAMP '2020-01-01 00:00:00') "
+                    + "FROM SYSTEM_RANGE(" + from + ", " + to + ")");
+        }
+    }
+
+    // Lines and uncompressed bytes of the response, read as it arrives
+    private static long[] download(URI uri, String token) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setRequestProperty("Authorization", "Bearer " + token);
+        connection.setReadTimeout(600_000);
+        assertEquals(200, connection.getResponseCode());
+        long lines = 0;
+        long bytes = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new GZIPInputStream(connection.getInputStream(), buffer.length)) {
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                bytes += n;
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == '\n') lines++;
+                }
+            }
+        }
+        return new long[]{lines, bytes};
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CicdBackendApplication.class).run(
+                "--server.port=0",
+                "--inventory.auth.token-secret=export-bench-secret-export-bench-secret",
+                "--spring.datasource.url=jdbc:h2:file:./" + DATABASE.resolve("db").toString().replace('\\', '/')
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--logging.level.root=WARN");
+    }
+}
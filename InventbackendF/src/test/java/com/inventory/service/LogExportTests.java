@@ -0,0 +1,73 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LogExportTests {
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        Product p = new Product();
+        p.setName("Bolt, \"M8\"");
+        p = productRepository.save(p);
+        logRepository.save(log(p, "IN", "first line\nsecond line"));
+        logRepository.save(log(p, "OUT", "plain"));
+    }
+
+    @Test
+    void csvExportEscapesFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = inventoryService.exportLogsCsv(out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(2, count);
+        assertTrue(csv.startsWith(LogExportWriter.CSV_HEADER));
+        assertTrue(csv.contains(",\"Bolt, \"\"M8\"\"\",IN,5,\"first line\nsecond line\","));
+        assertTrue(csv.contains(",\"Bolt, \"\"M8\"\"\",OUT,5,plain,"));
+    }
+
+    @Test
+    void ndjsonExportWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        inventoryService.exportLogsNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Bolt, \"M8\"", first.path("product").path("name").asText());
+        assertEquals("first line\nsecond line", first.path("notes").asText());
+    }
+
+    private static InventoryLog log(Product p, String type, String notes) {
+        InventoryLog l = new InventoryLog();
+        l.setProduct(p);
+        l.setType(type);
+        l.setQuantity(5);
+        l.setNotes(notes);
+        return l;
+    }
+}
@@ -0,0 +1,150 @@
+package com.inventory.service;
+
+import com.inventory.dto.DailyMovement;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogDailyRepository;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LogRollupsTests {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private InventoryLogDailyRepository dailyRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private MovementHistory movementHistory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private LogWriteBehind logWriteBehind;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        clean();
+        for (int i = 0; i < 3; i++) {
+            Product p = new Product();
+            p.setName("Product " + i);
+            products.add(productRepository.save(p));
+        }
+        // Movements spread over the last 400 days, several per day for some days
+        Random random = new Random(3);
+        List<InventoryLog> logs = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            InventoryLog log = new InventoryLog();
+            log.setProduct(products.get(random.nextInt(products.size())));
+            log.setType(random.nextBoolean() ? "IN" : "OUT");
+            log.setQuantity(1 + random.nextInt(20));
+            log.setCreatedAt(TODAY.minusDays(random.nextInt(400)).atTime(LocalTime.ofSecondOfDay(random.nextInt(86_400))));
+            logs.add(log);
+        }
+        logRepository.saveAll(logs);
+    }
+
+    @AfterEach
+    void clean() {
+        dailyRepository.deleteAll();
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        products.clear();
+    }
+
+    @Test
+    void rollUpSummarisesCompleteDaysOnce() {
+        List<DailyMovement> before = movementHistory.daily(null, TODAY.minusDays(366), TODAY);
+        LogRollups rollups = rollups(Duration.ZERO, Duration.ZERO);
+
+        assertTrue(rollups.rollUp() > 0);
+        LocalDate lastActiveDay = logRepository.findAll().stream().map(l -> l.getCreatedAt().toLocalDate())
+                .filter(d -> d.isBefore(TODAY)).max(LocalDate::compareTo).orElseThrow();
+        assertEquals(lastActiveDay, dailyRepository.findRolledThrough());
+        assertEquals(0, rollups.rollUp());
+
+        // The same answer, now served mostly from summaries
+        assertEquals(before, movementHistory.daily(null, TODAY.minusDays(366), TODAY));
+        long movements = dailyRepository.findAll().stream().mapToLong(d -> d.getMovements()).sum();
+        long rawToday = logRepository.findAll().stream().filter(l -> l.getCreatedAt().toLocalDate().equals(TODAY)).count();
+        assertEquals(logRepository.count() - rawToday, movements);
+    }
+
+    @Test
+    void purgeDeletesOnlyExpiredRolledUpDays() {
+        Map<Long, long[]> before = movementHistory.unitsBetween(TODAY.minusDays(400), TODAY.plusDays(1).atStartOfDay());
+        LogRollups rollups = rollups(Duration.ofDays(90), Duration.ZERO);
+
+        // Nothing is rolled up yet, so nothing may be deleted
+        assertEquals(0, rollups.purge());
+        rollups.rollUp();
+        assertTrue(rollups.purge() > 0);
+
+        assertFalse(logRepository.findOldestCreatedAt().toLocalDate().isBefore(TODAY.minusDays(90)));
+        assertVolumesEqual(before, movementHistory.unitsBetween(TODAY.minusDays(400), TODAY.plusDays(1).atStartOfDay()));
+    }
+
+    @Test
+    void rollupRetentionDropsOldSummaries() {
+        LogRollups rollups = rollups(Duration.ofDays(30), Duration.ofDays(180));
+        rollups.rollUp();
+        rollups.purge();
+
+        assertTrue(dailyRepository.findAll().stream().noneMatch(d -> d.getDay().isBefore(TODAY.minusDays(180))));
+        assertTrue(movementHistory.daily(null, TODAY.minusDays(366), TODAY.minusDays(181)).isEmpty());
+    }
+
+    @Test
+    void historyMergesSummariesWithRecentRawRows() {
+        Product p = products.get(0);
+        rollups(Duration.ZERO, Duration.ZERO).rollUp();
+        InventoryLog late = new InventoryLog();
+        late.setProduct(p);
+        late.setType("OUT");
+        late.setQuantity(1000);
+        late.setCreatedAt(TODAY.atTime(LocalTime.NOON));
+        logRepository.save(late);
+
+        List<DailyMovement> days = movementHistory.daily(p.getId(), TODAY.minusDays(30), TODAY);
+        assertTrue(days.stream().allMatch(d -> d.productId().equals(p.getId())));
+        DailyMovement today = days.get(days.size() - 1);
+        assertEquals(TODAY, today.day());
+        assertTrue(today.outUnits() >= 1000);
+
+        assertThrows(RuntimeException.class, () -> movementHistory.daily(null, TODAY.minusDays(400), TODAY));
+        assertThrows(RuntimeException.class, () -> movementHistory.daily(null, TODAY, TODAY.minusDays(1)));
+    }
+
+    private LogRollups rollups(Duration rawRetention, Duration rollupRetention) {
+        Clock clock = Clock.fixed(TODAY.atTime(LocalTime.NOON).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        return new LogRollups(logRepository, dailyRepository, transactionTemplate, logWriteBehind, rawRetention,
+                rollupRetention, clock);
+    }
+
+    private static void assertVolumesEqual(Map<Long, long[]> expected, Map<Long, long[]> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((id, v) -> assertArrayEquals(v, actual.get(id), "product " + id));
+    }
+}
@@ -0,0 +1,95 @@
+package com.inventory.service;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.benchmark.LatencyInjection;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.repository.InventoryLogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of {@code POST /api/inventory/update-stock} with inventory logs written synchronously versus through the
+ * write-behind journal, with {@code load.db-latency-ms} injected into every statement. {@code bench.requests}
+ * sequential requests are timed per mode. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class LogWriteBehindBenchmarkTests {
+    private static final int WARMUP = 50;
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 500);
+    private static final String SECRET = "write-behind-secret-write-behind";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void updateStockLatencyWithAndWithoutWriteBehind() throws Exception {
+        for (boolean writeBehind : new boolean[]{false, true}) {
+            for (boolean fsync : writeBehind ? new boolean[]{true, false} : new boolean[]{true}) {
+                try (ConfigurableApplicationContext ctx = start(writeBehind, fsync)) {
+                    Product p = new Product();
+                    p.setName("Bench");
+                    Long id = ctx.getBean(ProductService.class).save(p).getId();
+                    String token = "Bearer " + ctx.getBean(TokenService.class)
+                            .issueAccess(new AuthUser(1L, "Bench", "bench@example.com", Role.STAFF));
+                    String url = "http://localhost:" + ((ServletWebServerApplicationContext) ctx).getWebServer().getPort()
+                            + "/api/inventory/update-stock";
+                    String body = "{\"productId\":" + id + ",\"quantity\":1,\"type\":\"IN\"}";
+
+                    for (int i = 0; i < WARMUP; i++) post(url, token, body);
+                    long[] nanos = new long[REQUESTS];
+                    for (int i = 0; i < REQUESTS; i++) {
+                        long start = System.nanoTime();
+                        post(url, token, body);
+                        nanos[i] = System.nanoTime() - start;
+                    }
+                    ctx.getBean(LogWriteBehind.class).awaitFlushed();
+                    assertEquals(WARMUP + REQUESTS, ctx.getBean(InventoryLogRepository.class).count());
+                    report(writeBehind ? "write-behind, fsync " + fsync : "synchronous", nanos);
+                }
+            }
+        }
+    }
+
+    private void post(String url, String token, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        assertEquals(200, http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    private static ConfigurableApplicationContext start(boolean writeBehind, boolean fsync) throws Exception {
+        return new SpringApplicationBuilder(CicdBackendApplication.class, LatencyInjection.class).run(
+                "--server.port=0",
+                "--inventory.auth.token-secret=" + SECRET,
+                "--spring.datasource.url=jdbc:h2:mem:write_behind_bench_" + writeBehind + fsync
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--inventory.logs.write-behind.enabled=" + writeBehind,
+                "--inventory.logs.write-behind.fsync=" + fsync,
+                "--inventory.logs.write-behind.dir=" + Files.createTempDirectory("log-journal-bench"),
+                "--logging.level.root=WARN");
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-26s mean %6.2f ms, p50 %6.2f ms, p99 %6.2f ms over %d requests, %d ms injected per statement%n",
+                label, Arrays.stream(nanos).average().orElse(0) / 1e6, sorted[sorted.length / 2] / 1e6,
+                sorted[(int) (sorted.length * 0.99)] / 1e6, sorted.length, LatencyInjection.DB_LATENCY_MS);
+    }
+}
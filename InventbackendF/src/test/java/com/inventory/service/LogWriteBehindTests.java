@@ -0,0 +1,253 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.BatchResult;
+import com.inventory.dto.StockMovement;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.LogJournalCheckpoint;
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogDailyRepository;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.LogJournalCheckpointRepository;
+import com.inventory.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write_behind;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "inventory.logs.write-behind.enabled=true",
+        "inventory.logs.write-behind.fsync=false"
+})
+class LogWriteBehindTests {
+    private static final Path JOURNAL;
+
+    static {
+        try {
+            JOURNAL = Files.createTempDirectory("log-journal");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void journalDir(DynamicPropertyRegistry registry) {
+        registry.add("inventory.logs.write-behind.dir", JOURNAL::toString);
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private LogWriteBehind logWriteBehind;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private InventoryLogDailyRepository dailyRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private LogJournalCheckpointRepository checkpointRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        logWriteBehind.awaitFlushed();
+        dailyRepository.deleteAll();
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        Product p = new Product();
+        p.setName("Widget");
+        p.setQuantity(100);
+        product = productService.save(p);
+    }
+
+    @Test
+    void movementsCommitNowAndAreLoggedByTheWriter() {
+        for (int i = 0; i < 20; i++) {
+            InventoryLog log = inventoryService.updateStock(product.getId(), 1, i % 2 == 0 ? "IN" : "OUT", "n" + i);
+            assertNull(log.getId());
+        }
+        BatchResult batch = inventoryService.updateStockBatch(List.of(
+                new StockMovement(product.getId(), 5, "OUT", null),
+                new StockMovement(product.getId(), 500, "OUT", null)));
+        assertEquals(1, batch.applied());
+        assertEquals(95, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+
+        logWriteBehind.awaitFlushed();
+        List<InventoryLog> logs = logRepository.findAll();
+        assertEquals(21, logs.size());
+        assertEquals(List.of("n0", "n1", "n2"), logs.stream().map(InventoryLog::getNotes).limit(3).toList());
+        assertTrue(logWriteBehind.flushedSeq() > 0);
+    }
+
+    @Test
+    void deletingAProductWaitsForItsQueuedLogs() {
+        Product other = new Product();
+        other.setName("Gadget");
+        other.setQuantity(10);
+        Product saved = productService.save(other);
+        inventoryService.updateStock(saved.getId(), 1, "OUT", null);
+        // The queued row is written before the delete, so the foreign key still protects it
+        assertThrows(RuntimeException.class, () -> productService.delete(saved.getId()));
+        assertEquals(1, logRepository.count());
+    }
+
+    @Test
+    void entriesOfARolledBackMovementAreNeverWritten() {
+        InventoryLog log = new InventoryLog();
+        log.setProduct(product);
+        log.setType("IN");
+        log.setQuantity(1);
+        log.setNotes("rolled back");
+        try (LogWriteBehind.Reservation logs = logWriteBehind.reserve(1)) {
+            assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+                logs.journal(List.of(log));
+                throw new IllegalStateException("commit failed");
+            }));
+        }
+        // The aborted entry neither reaches the database nor holds back the entries journalled after it
+        inventoryService.updateStock(product.getId(), 1, "IN", "committed");
+        logWriteBehind.awaitFlushed();
+        assertEquals(List.of("committed"), logRepository.findAll().stream().map(InventoryLog::getNotes).toList());
+    }
+
+    @Test
+    void rollupsWaitForQueuedRows() {
+        inventoryService.updateStock(product.getId(), 7, "OUT", null);
+        // Rolling up today as a complete day, straight after the movement and before the writer's linger is over
+        Clock tomorrow = Clock.fixed(LocalDate.now().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        LogRollups rollups = new LogRollups(logRepository, dailyRepository, transactionTemplate, logWriteBehind,
+                Duration.ZERO, Duration.ZERO, tomorrow);
+
+        assertEquals(1, rollups.rollUp());
+        assertEquals(7, dailyRepository.findAll().get(0).getOutUnits());
+    }
+
+    @Test
+    void restartReplaysOnlyEntriesPastTheCheckpoint() throws Exception {
+        Path dir = Files.createTempDirectory("log-journal-crash");
+        Files.writeString(dir.resolve("journal.id"), "crashed-node");
+        LogJournalCheckpoint checkpoint = new LogJournalCheckpoint();
+        checkpoint.setJournalId("crashed-node");
+        checkpoint.setFlushedSeq(1);
+        checkpointRepository.save(checkpoint);
+
+        LocalDateTime at = LocalDateTime.now().withNano(0);
+        List<String> lines = new ArrayList<>();
+        // 1-3 journalled after commit, as before outcomes were recorded; 4 committed, 5 aborted, 6 in doubt
+        for (long seq = 1; seq <= 6; seq++) {
+            lines.add(objectMapper.writeValueAsString(new LogWriteBehind.Entry(seq, product.getId(), "IN", (int) seq, "seq " + seq, at, null, seq > 3)));
+        }
+        lines.add(objectMapper.writeValueAsString(new LogWriteBehind.Outcome(5, 5, false)));
+        lines.add(objectMapper.writeValueAsString(new LogWriteBehind.Outcome(4, 4, true)));
+        lines.add("{\"seq\":7,\"productId\":"); // torn by the crash
+        Files.write(dir.resolve("journal-00000000000000000001.jsonl"), lines);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LogWriteBehind restarted = instance(dir, Duration.ofMillis(10), registry);
+        restarted.start();
+        try {
+            assertEquals(List.of("seq 2", "seq 3", "seq 4", "seq 6"), logRepository.findAll().stream().map(InventoryLog::getNotes).sorted().toList());
+            assertEquals(6, checkpointRepository.findById("crashed-node").orElseThrow().getFlushedSeq());
+            assertEquals(1, registry.get("inventory.logs.write_behind.in_doubt").counter().count());
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(1, files.filter(f -> f.getFileName().toString().startsWith("journal-")).count());
+            }
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void concurrentMovementsShareJournalSyncs() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LogWriteBehind synced = new LogWriteBehind(true, Files.createTempDirectory("log-journal-sync").toString(),
+                InventoryService.MAX_BATCH_SIZE, 100, Duration.ofMillis(10), Duration.ofSeconds(5), true, logRepository,
+                productRepository, checkpointRepository, transactionTemplate, objectMapper, registry);
+        synced.start();
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        InventoryLog log = new InventoryLog();
+                        log.setProduct(product);
+                        log.setType("IN");
+                        log.setQuantity(1);
+                        try (LogWriteBehind.Reservation logs = synced.reserve(1)) {
+                            logs.journal(List.of(log));
+                            logs.committed();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get();
+            synced.awaitFlushed();
+            assertEquals(threads * perThread, logRepository.count());
+            // Every movement waited for a sync, but never more than one each
+            double syncs = registry.get("inventory.logs.write_behind.syncs").counter().count();
+            assertTrue(syncs > 0 && syncs <= threads * perThread, syncs + " syncs");
+        } finally {
+            pool.shutdown();
+            synced.stop();
+        }
+    }
+
+    @Test
+    void fullQueueRejectsNewMovements() throws Exception {
+        LogWriteBehind small = instance(Files.createTempDirectory("log-journal-full"), Duration.ofMillis(50));
+        small.start();
+        try (LogWriteBehind.Reservation held = small.reserve(InventoryService.MAX_BATCH_SIZE)) {
+            assertTrue(held.deferred());
+            assertThrows(RejectedExecutionException.class, () -> small.reserve(1));
+        } finally {
+            small.stop();
+        }
+        // Closing the reservation returned its unused slots
+        small.reserve(InventoryService.MAX_BATCH_SIZE).close();
+    }
+
+    private LogWriteBehind instance(Path dir, Duration offerTimeout) {
+        return instance(dir, offerTimeout, new SimpleMeterRegistry());
+    }
+
+    private LogWriteBehind instance(Path dir, Duration offerTimeout, SimpleMeterRegistry registry) {
+        return new LogWriteBehind(true, dir.toString(), InventoryService.MAX_BATCH_SIZE, 100, Duration.ofMillis(10),
+                offerTimeout, false, logRepository, productRepository, checkpointRepository, transactionTemplate,
+                objectMapper, registry);
+    }
+}
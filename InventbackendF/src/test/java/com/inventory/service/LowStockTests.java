@@ -0,0 +1,168 @@
+package com.inventory.service;
+
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.dto.LowStockEvent;
+import com.inventory.dto.ProductView;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RecordApplicationEvents
+class LowStockTests {
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ReportingAggregates reportingAggregates;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ApplicationEvents events;
+
+    @BeforeEach
+    void reset() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        reportingAggregates.reconcile();
+        events.clear();
+    }
+
+    @Test
+    void inMemorySetMatchesSqlAfterConcurrentMovements() throws Exception {
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 30; i++) products.add(product("P" + i, 5 + random.nextInt(10), 10));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long seed = t;
+            futures.add(pool.submit(() -> {
+                Random r = new Random(seed);
+                for (int i = 0; i < 150; i++) {
+                    Product p = products.get(r.nextInt(products.size()));
+                    try {
+                        if (i % 25 == 0) {
+                            // Moving the threshold itself can also cross it. The edit is read outside the product's
+                            // lock, so a movement in between makes it stale; retry like a client would.
+                            int reorderLevel = 5 + r.nextInt(10);
+                            while (true) {
+                                Product edit = productRepository.findById(p.getId()).orElseThrow();
+                                edit.setReorderLevel(reorderLevel);
+                                try {
+                                    productService.save(edit);
+                                    break;
+                                } catch (OptimisticLockingFailureException stale) {
+                                    // reload and retry
+                                }
+                            }
+                        } else {
+                            inventoryService.updateStock(p.getId(), 1 + r.nextInt(4), r.nextBoolean() ? "IN" : "OUT", null);
+                        }
+                    } catch (RuntimeException e) {
+                        assertEquals("Insufficient stock", e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        List<Long> expected = productRepository.findLowStock().stream().map(ProductView::id).toList();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, reportingAggregates.lowStockIds());
+        assertEquals(expected, productService.lowStock().stream().map(ProductView::id).toList());
+    }
+
+    @Test
+    void publishesOnlyThresholdCrossings() {
+        Product p = product("Bolt", 12, 10);
+        inventoryService.updateStock(p.getId(), 1, "OUT", null);   // 11: still fine
+        inventoryService.updateStock(p.getId(), 3, "OUT", null);   // 8: crosses below
+        inventoryService.updateStock(p.getId(), 1, "OUT", null);   // 7: still low
+        inventoryService.updateStock(p.getId(), 5, "IN", null);    // 12: recovers
+        Product low = product("Nut", 0, 5);                        // created low
+        productService.delete(low.getId());                        // deleted while low
+
+        List<LowStockEvent> crossings = events.stream(LowStockEvent.class).toList();
+        assertEquals(List.of(
+                new LowStockEvent(p.getId(), "Bolt", 8, 10, true),
+                new LowStockEvent(p.getId(), "Bolt", 12, 10, false),
+                new LowStockEvent(low.getId(), "Nut", 0, 5, true),
+                new LowStockEvent(low.getId(), "Nut", 0, 5, false)), crossings);
+    }
+
+    @Test
+    void reconciliationCorrectsOutOfBandWrites() {
+        Product p = product("Valve", 20, 10);
+        jdbcTemplate.update("UPDATE products SET quantity = 5 WHERE id = ?", p.getId());
+        assertTrue(reportingAggregates.lowStockIds().isEmpty());
+
+        reportingAggregates.reconcile();
+        assertEquals(List.of(p.getId()), reportingAggregates.lowStockIds());
+        assertEquals(List.of(new LowStockEvent(p.getId(), "Valve", 5, 10, true)),
+                events.stream(LowStockEvent.class).toList());
+    }
+
+    @Test
+    void streamPushesCrossingsToSubscribers() throws Exception {
+        Product p = product("Hinge", 10, 10);
+        String token = "Bearer " + tokenService.issueAccess(new AuthUser(1L, "Ops", "ops@example.com", Role.ADMIN));
+        MvcResult stream = mvc.perform(get("/api/products/low-stock/stream").header("Authorization", token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        inventoryService.updateStock(p.getId(), 4, "OUT", null);
+        String body = "";
+        for (int i = 0; i < 50 && !body.contains("\"low\":true"); i++) {
+            Thread.sleep(100);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:low-stock"), body);
+        assertTrue(body.contains("\"productId\":" + p.getId() + ",\"name\":\"Hinge\",\"quantity\":6"), body);
+    }
+
+    private Product product(String name, int quantity, int reorderLevel) {
+        Product p = new Product();
+        p.setName(name);
+        p.setQuantity(quantity);
+        p.setReorderLevel(reorderLevel);
+        return productService.save(p);
+    }
+}
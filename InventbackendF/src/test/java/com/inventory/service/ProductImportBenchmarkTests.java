@@ -0,0 +1,81 @@
+package com.inventory.service;
+
+import com.inventory.dto.ImportStatus;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.Reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Import throughput: {@code bench.import.rows} generated CSV rows are streamed from a Reader that never holds
+ * more than one row, imported once as inserts and once as updates. Prints rows per second and heap in use after
+ * each pass. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class ProductImportBenchmarkTests {
+    private static final int ROWS = Integer.getInteger("bench.import.rows", 500_000);
+
+    @Autowired
+    private ProductImportService importService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+
+    @Test
+    void importThroughput() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        for (String pass : new String[]{"insert", "update"}) {
+            ImportStatus status = importService.importNow(new GeneratedCsv(ROWS), "csv");
+            assertEquals("COMPLETED", status.state());
+            assertEquals(ROWS, status.inserted() + status.updated());
+            Runtime rt = Runtime.getRuntime();
+            rt.gc();
+            System.out.printf("import %-6s %,d rows: %,.0f rows/s, heap used %,d MB%n", pass, ROWS,
+                    status.rowsPerSecond(), (rt.totalMemory() - rt.freeMemory()) >> 20);
+        }
+        assertEquals(ROWS, productRepository.count());
+    }
+
+    // sku,name,description,category,quantity,price,reorderLevel; generated on demand
+    private static final class GeneratedCsv extends Reader {
+        private final int rows;
+        private int next = -1;
+        private String current = "sku,name,description,category,quantity,price,reorderLevel\n";
+        private int offset;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) {
+            int written = 0;
+            while (written < len) {
+                if (offset == current.length()) {
+                    if (++next >= rows) break;
+                    current = "BENCH-" + next + ",Item " + next + ",\"Generated, item\",Category " + (next % 50) + ","
+                            + (next % 100) + "," + (next % 1000) / 10.0 + ",5\n";
+                    offset = 0;
+                }
+                int n = Math.min(len - written, current.length() - offset);
+                current.getChars(offset, offset + n, buf, off + written);
+                offset += n;
+                written += n;
+            }
+            return written == 0 ? -1 : written;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
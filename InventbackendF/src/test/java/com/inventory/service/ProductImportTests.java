@@ -0,0 +1,175 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.auth.AuthUser;
+import com.inventory.auth.TokenService;
+import com.inventory.dto.ImportStatus;
+import com.inventory.model.Product;
+import com.inventory.model.Role;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import com.inventory.search.CatalogSearch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductImportTests {
+    @Autowired
+    private ProductImportService importService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private ReportingAggregates reportingAggregates;
+    @Autowired
+    private CatalogSearch catalogSearch;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mvc;
+
+    private Supplier acme;
+
+    @BeforeEach
+    void reset() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+        Supplier s = new Supplier();
+        s.setName("Acme Corp");
+        acme = supplierRepository.save(s);
+        reportingAggregates.reconcile();
+        catalogSearch.rebuild();
+    }
+
+    @Test
+    void csvRowsAreUpsertedWithPerRowErrors() {
+        String csv = "SKU,Name,Description,Category,Supplier Name,Quantity,Price,Warehouse Location,Reorder Level\r\n" +
+                "A-1,Widget,\"Small, round\",Parts,acme corp,10,2.5,A1,3\r\n" +
+                "A-2,\"Gadget \"\"Pro\"\"\",\"Two\nlines\",Parts,,4,9.99,,\r\n" +
+                "A-3,,missing name,,,,,,\r\n" +
+                "A-4,Bolt,,,Nobody Inc,1,1,,\r\n" +
+                "A-5,Nut,,,,many,1,,\r\n" +
+                "\r\n" +
+                "A-6,Washer,,,,-1,1,,\r\n";
+
+        ImportStatus status = importService.importNow(new StringReader(csv), "csv");
+
+        assertEquals("COMPLETED", status.state());
+        assertEquals(6, status.rowsRead());
+        assertEquals(2, status.inserted());
+        assertEquals(0, status.updated());
+        assertEquals(4, status.rejected());
+        assertEquals(4, status.errors().size());
+        assertEquals(5, status.errors().get(0).line());
+        assertEquals("name is required", status.errors().get(0).message());
+        assertEquals("Unknown supplier: Nobody Inc", status.errors().get(1).message());
+        assertEquals("Invalid quantity: many", status.errors().get(2).message());
+        assertEquals(9, status.errors().get(3).line());
+
+        Product widget = bySku("A-1");
+        assertEquals("Small, round", widget.getDescription());
+        assertEquals(acme.getId(), widget.getSupplier().getId());
+        assertEquals(10, widget.getQuantity());
+        assertEquals(3, widget.getReorderLevel());
+        Product gadget = bySku("A-2");
+        assertEquals("Gadget \"Pro\"", gadget.getName());
+        assertEquals("Two\nlines", gadget.getDescription());
+        assertNull(gadget.getSupplier());
+
+        // Derived state sees the imported rows
+        assertFalse(catalogSearch.searchProducts("widget", 10).isEmpty());
+    }
+
+    @Test
+    void reimportUpdatesFieldsButNotStock() {
+        importService.importNow(new StringReader("sku,name,quantity,price,category\nB-1,Bracket,50,4.0,Hardware\n"), "csv");
+        // Empty cells keep the stored value; quantity only applies to new products
+        ImportStatus status = importService.importNow(
+                new StringReader("sku,name,quantity,price,category\nB-1,Bracket XL,999,,\nB-1,Bracket XXL,999,5.0,\n"), "csv");
+
+        assertEquals(0, status.inserted());
+        assertEquals(1, status.updated());
+        Product p = bySku("B-1");
+        assertEquals("Bracket XXL", p.getName());
+        assertEquals(50, p.getQuantity());
+        assertEquals(5.0, p.getPrice());
+        assertEquals("Hardware", p.getCategory());
+    }
+
+    @Test
+    void ndjsonRowsAreImported() {
+        String ndjson = "{\"sku\":\"N-1\",\"name\":\"Nail\",\"supplier\":\"Acme Corp\",\"quantity\":7,\"price\":0.1}\n" +
+                "\n" +
+                "{\"sku\":\"N-2\",\"name\":\n" +
+                "{\"sku\":\"N-3\",\"name\":\"Screw\",\"reorderLevel\":2}\n";
+
+        ImportStatus status = importService.importNow(new StringReader(ndjson), "ndjson");
+
+        assertEquals(2, status.inserted());
+        assertEquals(1, status.rejected());
+        assertEquals(3, status.errors().get(0).line());
+        assertTrue(status.errors().get(0).message().startsWith("Malformed JSON"));
+        assertEquals(7, bySku("N-1").getQuantity());
+        assertEquals(2, bySku("N-3").getReorderLevel());
+    }
+
+    @Test
+    void uploadRunsAsAJob() throws Exception {
+        String token = "Bearer " + tokenService.issueAccess(new AuthUser(1L, "Ops", "ops@example.com", Role.ADMIN));
+        MvcResult accepted = mvc.perform(post("/api/products/import")
+                        .header("Authorization", token)
+                        .contentType("text/csv")
+                        .content("sku,name\nJ-1,Job item\n".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        String id = objectMapper.readTree(accepted.getResponse().getContentAsString()).get("id").asText();
+
+        JsonNode job = null;
+        for (int i = 0; i < 100; i++) {
+            String body = mvc.perform(get("/api/products/import/" + id).header("Authorization", token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            job = objectMapper.readTree(body);
+            if (job.get("finishedAt") != null && !job.get("finishedAt").isNull()) break;
+            Thread.sleep(50);
+        }
+        assertEquals("COMPLETED", job.get("state").asText());
+        assertEquals(1, job.get("inserted").asLong());
+        assertEquals("Job item", bySku("J-1").getName());
+
+        mvc.perform(post("/api/products/import").header("Authorization", token)
+                        .contentType("application/octet-stream").content("x"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/products/import/unknown").header("Authorization", token))
+                .andExpect(status().isNotFound());
+    }
+
+    private Product bySku(String sku) {
+        return productRepository.findAll().stream().filter(p -> sku.equals(p.getSku())).findFirst().orElseThrow();
+    }
+}
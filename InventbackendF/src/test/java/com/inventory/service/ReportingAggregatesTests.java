@@ -0,0 +1,164 @@
+package com.inventory.service;
+
+import com.inventory.dto.ProductMovement;
+import com.inventory.dto.StockMovement;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.model.Supplier;
+import com.inventory.repository.InventoryLogDailyRepository;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.SupplierRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReportingAggregatesTests {
+    private static final List<String> COMPARED = List.of(
+            "stockValuation", "valuationByCategory", "valuationBySupplier", "totalUnits", "outVolume", "turnoverRate");
+
+    @Autowired
+    private ReportingAggregates aggregates;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private InventoryLogDailyRepository dailyRepository;
+    @Autowired
+    private LogWriteBehind logWriteBehind;
+
+    @BeforeEach
+    void reset() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+        aggregates.reconcile();
+    }
+
+    @Test
+    void runningAggregatesMatchFullRecompute() {
+        Random random = new Random(42);
+        List<Supplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Supplier s = new Supplier();
+            s.setName("Supplier " + i);
+            suppliers.add(supplierRepository.save(s));
+        }
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Product p = new Product();
+            p.setName("Product " + i);
+            p.setCategory(i % 4 == 0 ? null : "Category " + (i % 3));
+            p.setSupplier(i % 5 == 0 ? null : suppliers.get(i % 3));
+            p.setPrice(Math.round(random.nextDouble() * 10_000) / 100.0);
+            p.setQuantity(random.nextInt(50));
+            products.add(productService.save(p));
+        }
+
+        for (int i = 0; i < 300; i++) {
+            Product p = products.get(random.nextInt(products.size()));
+            try {
+                inventoryService.updateStock(p.getId(), 1 + random.nextInt(10), random.nextBoolean() ? "IN" : "OUT", null);
+            } catch (RuntimeException e) {
+                assertEquals("Insufficient stock", e.getMessage());
+            }
+        }
+        List<StockMovement> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new StockMovement(products.get(random.nextInt(products.size())).getId(), 1 + random.nextInt(5),
+                    random.nextBoolean() ? "IN" : "OUT", null));
+        }
+        inventoryService.updateStockBatch(batch);
+
+        // Catalogue edits: reprice, recategorize and delete a product without movements
+        Product repriced = productRepository.findById(products.get(3).getId()).orElseThrow();
+        repriced.setPrice(repriced.getPrice() + 1.25);
+        repriced.setCategory("Category X");
+        productService.save(repriced);
+        Product unused = new Product();
+        unused.setName("Unused");
+        unused.setPrice(9.99);
+        unused.setQuantity(7);
+        productService.delete(productService.save(unused).getId());
+
+        Map<String, Object> running = aggregates.snapshot();
+        Map<String, Object> recomputed = aggregates.report(aggregates.load());
+        COMPARED.forEach(key -> assertEquals(recomputed.get(key), running.get(key), key));
+        products.forEach(p -> assertArrayEquals(aggregates.load().volumes.getOrDefault(p.getId(), new long[2]),
+                aggregates.volumes(p.getId())));
+        assertTrue((Double) running.get("turnoverRate") > 0);
+    }
+
+    @Test
+    void reconcileRanksFastAndSlowMovers() {
+        Product fast = product("Fast", 100);
+        Product slow = product("Slow", 100);
+        inventoryService.updateStock(fast.getId(), 40, "OUT", null);
+        inventoryService.updateStock(slow.getId(), 1, "OUT", null);
+
+        aggregates.reconcile();
+        Map<String, Object> report = inventoryService.reports();
+
+        List<?> fastMoving = (List<?>) report.get("fastMoving");
+        List<?> slowMoving = (List<?>) report.get("slowMoving");
+        assertEquals(fast.getId(), ((ProductMovement) fastMoving.get(0)).id());
+        assertEquals(slow.getId(), ((ProductMovement) slowMoving.get(0)).id());
+    }
+
+    @Test
+    void movementsDuringAReconciliationAreCountedOnce() {
+        Product busy = product("Busy", 100);
+        ReportingAggregates[] racing = new ReportingAggregates[1];
+        MovementHistory history = new MovementHistory(logRepository, dailyRepository) {
+            @Override
+            public Map<Long, long[]> unitsBetween(LocalDate from, LocalDateTime before) {
+                // One movement commits before the volumes are read, one after; the rebuild sees both
+                racing[0].onMovement(out(busy, 3));
+                Map<Long, long[]> units = super.unitsBetween(from, before);
+                racing[0].onMovement(out(busy, 4));
+                return units;
+            }
+        };
+        racing[0] = new ReportingAggregates(productRepository, history, supplierRepository, logWriteBehind, 30,
+                new SimpleMeterRegistry(), event -> { });
+        racing[0].onMovement(out(busy, 2));
+
+        racing[0].reconcile();
+        assertEquals(2 + 3 + 4, racing[0].volumes(busy.getId())[1]);
+    }
+
+    private InventoryLog out(Product p, int quantity) {
+        InventoryLog log = new InventoryLog();
+        log.setProduct(p);
+        log.setType("OUT");
+        log.setQuantity(quantity);
+        return logRepository.save(log);
+    }
+
+    private Product product(String name, int quantity) {
+        Product p = new Product();
+        p.setName(name);
+        p.setQuantity(quantity);
+        p.setPrice(1.0);
+        return productService.save(p);
+    }
+}
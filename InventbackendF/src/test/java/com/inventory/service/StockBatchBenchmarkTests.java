@@ -0,0 +1,70 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockMovement;
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Time for 10,000 stock movements applied one by one versus in batches of {@link InventoryService#MAX_BATCH_SIZE}.
+ * Run with {@code mvn test -Pbenchmark -Dtest=StockBatchBenchmarkTests}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+class StockBatchBenchmarkTests {
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+
+    private Long boltId;
+    private Long nutId;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        boltId = productService.save(product("Bolt")).getId();
+        nutId = productService.save(product("Nut")).getId();
+    }
+
+    @Test
+    void singleVersusBatchedMovements() {
+        int movements = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < movements; i++) inventoryService.updateStock(boltId, 1, "IN", null);
+        long singleMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        for (int done = 0; done < movements; done += InventoryService.MAX_BATCH_SIZE) {
+            List<StockMovement> batch = new ArrayList<>();
+            for (int i = 0; i < InventoryService.MAX_BATCH_SIZE; i++) batch.add(new StockMovement(i % 2 == 0 ? boltId : nutId, 1, "IN", null));
+            inventoryService.updateStockBatch(batch);
+        }
+        long batchMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%d movements: single %d ms, batched %d ms (%.1fx)%n", movements, singleMs, batchMs, (double) singleMs / Math.max(batchMs, 1));
+        assertEquals(2 * movements, logRepository.count());
+    }
+
+    private static Product product(String name) {
+        Product p = new Product();
+        p.setName(name);
+        p.setQuantity(0);
+        return p;
+    }
+}
@@ -0,0 +1,84 @@
+package com.inventory.service;
+
+import com.inventory.dto.BatchResult;
+import com.inventory.dto.MovementResult;
+import com.inventory.dto.StockMovement;
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockBatchTests {
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+
+    private Long boltId;
+    private Long nutId;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        boltId = productService.save(product("Bolt", 10)).getId();
+        nutId = productService.save(product("Nut", 0)).getId();
+    }
+
+    @Test
+    void appliesItemsInOrderAndReportsEachResult() {
+        BatchResult result = inventoryService.updateStockBatch(List.of(
+                new StockMovement(boltId, 8, "OUT", "pick"),
+                new StockMovement(boltId, 5, "OUT", "too many"),
+                new StockMovement(nutId, 4, "in", null),
+                new StockMovement(boltId, 3, "IN", null),
+                new StockMovement(boltId, 5, "OUT", null),
+                new StockMovement(-1L, 1, "IN", null),
+                new StockMovement(nutId, 0, "IN", null),
+                new StockMovement(nutId, 1, "SIDEWAYS", null)));
+
+        assertEquals(4, result.applied());
+        assertEquals(4, result.rejected());
+        List<MovementResult> r = result.results();
+        assertEquals(2, r.get(0).quantityAfter());
+        assertEquals("Insufficient stock", r.get(1).message());
+        assertEquals(4, r.get(2).quantityAfter());
+        assertEquals(5, r.get(3).quantityAfter());
+        assertEquals(0, r.get(4).quantityAfter());
+        assertEquals("Product not found", r.get(5).message());
+        assertEquals("Quantity must be positive", r.get(6).message());
+        assertEquals("Invalid type, must be IN or OUT", r.get(7).message());
+        r.stream().filter(MovementResult::applied).forEach(m -> assertNotNull(m.logId()));
+
+        assertEquals(0, productRepository.findById(boltId).orElseThrow().getQuantity());
+        assertEquals(4, productRepository.findById(nutId).orElseThrow().getQuantity());
+        assertEquals(4, logRepository.count());
+    }
+
+    @Test
+    void rejectsOversizedBatch() {
+        List<StockMovement> movements = new ArrayList<>();
+        for (int i = 0; i <= InventoryService.MAX_BATCH_SIZE; i++) movements.add(new StockMovement(boltId, 1, "IN", null));
+        assertThrows(RuntimeException.class, () -> inventoryService.updateStockBatch(movements));
+    }
+
+    private static Product product(String name, int quantity) {
+        Product p = new Product();
+        p.setName(name);
+        p.setQuantity(quantity);
+        return p;
+    }
+}
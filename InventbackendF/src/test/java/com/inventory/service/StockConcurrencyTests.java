@@ -0,0 +1,104 @@
+package com.inventory.service;
+
+import com.inventory.model.Product;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockConcurrencyTests {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        Product p = new Product();
+        p.setName("Contended SKU");
+        p.setQuantity(1000);
+        productId = productService.save(p).getId();
+    }
+
+    @Test
+    void concurrentOutMovementsNeverOversell() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        hammer(3000, () -> {
+            try {
+                inventoryService.updateStock(productId, 1, "OUT", null);
+                accepted.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertEquals("Insufficient stock", e.getMessage());
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(1000, accepted.get());
+        assertEquals(2000, rejected.get());
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getQuantity());
+        assertEquals(1000, logRepository.count());
+    }
+
+    @Test
+    void mixedMovementsLoseNoUpdates() throws Exception {
+        AtomicLong expectedDelta = new AtomicLong();
+        AtomicInteger applied = new AtomicInteger();
+
+        hammer(4000, () -> {
+            int qty = ThreadLocalRandom.current().nextInt(1, 20);
+            boolean in = ThreadLocalRandom.current().nextBoolean();
+            try {
+                inventoryService.updateStock(productId, qty, in ? "IN" : "OUT", null);
+                expectedDelta.addAndGet(in ? qty : -qty);
+                applied.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertEquals("Insufficient stock", e.getMessage());
+            }
+            return null;
+        });
+
+        int finalQuantity = productRepository.findById(productId).orElseThrow().getQuantity();
+        assertEquals(1000 + expectedDelta.get(), finalQuantity);
+        assertTrue(finalQuantity >= 0);
+        assertEquals(applied.get(), logRepository.count());
+    }
+
+    private void hammer(int operations, Callable<Void> op) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < operations; i++) futures.add(pool.submit(op));
+            for (Future<Void> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.inventory.service;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.model.Product;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * As-of query cost against history length: three products with 10, 100 and 1000 days of history at
+ * {@code bench.history.rows-per-day} movements a day (10k, 100k and 1M log rows by default), snapshotted nightly.
+ * For random instants in each history, compares snapshot plus delta with a full replay from the first movement,
+ * printing mean latency and log rows read per query. Run with
+ * {@code mvn test -Pbenchmark -Dtest=StockHistoryBenchmarkTests}.
+ */
+@Tag("benchmark")
+class StockHistoryBenchmarkTests {
+    private static final int ROWS_PER_DAY = Integer.getInteger("bench.history.rows-per-day", 1000);
+    private static final int QUERIES = Integer.getInteger("bench.history.queries", 200);
+    private static final int[] HISTORY_DAYS = {10, 100, 1000};
+    private static final int CHUNK_DAYS = 365;
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final String NET = "SELECT COALESCE(SUM(CASE WHEN type = 'IN' THEN quantity WHEN type = 'OUT' THEN -quantity ELSE 0 END), 0) " +
+            "FROM inventory_logs WHERE product_id = ? AND created_at < ?";
+    private static final String COUNT = "SELECT COUNT(*) FROM inventory_logs WHERE product_id = ? AND created_at >= ? AND created_at < ?";
+
+    @Test
+    void asOfCostIsBoundedBySnapshotInterval() {
+        try (ConfigurableApplicationContext ctx = start()) {
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            StockHistory stockHistory = ctx.getBean(StockHistory.class);
+            StockSnapshotRepository snapshotRepository = ctx.getBean(StockSnapshotRepository.class);
+            List<Long> products = seed(ctx, jdbc);
+
+            double smallest = 0;
+            double largest = 0;
+            for (int k = 0; k < HISTORY_DAYS.length; k++) {
+                Long productId = products.get(k);
+                LocalDateTime start = TODAY.minusDays(HISTORY_DAYS[k]).atStartOfDay();
+                Random random = new Random(k);
+                List<LocalDateTime> instants = new ArrayList<>();
+                for (int i = 0; i < QUERIES; i++) instants.add(start.plusMinutes(random.nextInt(HISTORY_DAYS[k] * 24 * 60)));
+
+                long snapshotNanos = 0;
+                long replayNanos = 0;
+                long snapshotRows = 0;
+                long replayRows = 0;
+                for (LocalDateTime at : instants) {
+                    long t0 = System.nanoTime();
+                    int viaSnapshot = stockHistory.asOf(productId, at).quantity();
+                    long t1 = System.nanoTime();
+                    long viaReplay = jdbc.queryForObject(NET, Long.class, productId, Timestamp.valueOf(at));
+                    long t2 = System.nanoTime();
+                    assertEquals(viaReplay, viaSnapshot, "as of " + at);
+                    snapshotNanos += t1 - t0;
+                    replayNanos += t2 - t1;
+
+                    LocalDateTime from = snapshotRepository
+                            .findFirstByProductIdAndDayLessThanEqualOrderByDayDesc(productId, at.toLocalDate().minusDays(1))
+                            .map(s -> s.getDay().plusDays(1).atStartOfDay()).orElse(start);
+                    snapshotRows += count(jdbc, productId, from, at);
+                    replayRows += count(jdbc, productId, start, at);
+                }
+                double snapshotMicros = snapshotNanos / 1000.0 / QUERIES;
+                System.out.printf("%,9d rows of history: snapshot+delta %,8.0f us, %,7d rows/query | full replay %,9.0f us, %,9d rows/query%n",
+                        (long) HISTORY_DAYS[k] * ROWS_PER_DAY, snapshotMicros, snapshotRows / QUERIES,
+                        replayNanos / 1000.0 / QUERIES, replayRows / QUERIES);
+                // Never more than the instant's own day is replayed
+                assertTrue(snapshotRows / QUERIES <= ROWS_PER_DAY, snapshotRows / QUERIES + " rows per query");
+                if (k == 0) smallest = snapshotMicros;
+                largest = snapshotMicros;
+            }
+            assertTrue(largest < smallest * 5, largest + " vs " + smallest + " us");
+        }
+    }
+
+    // Writes each product's movements a year at a time, snapshotting every year as the nightly job would have
+    private static List<Long> seed(ConfigurableApplicationContext ctx, JdbcTemplate jdbc) {
+        ProductRepository productRepository = ctx.getBean(ProductRepository.class);
+        List<Long> products = new ArrayList<>();
+        for (int days : HISTORY_DAYS) {
+            Product p = new Product();
+            p.setName(days + " days of history");
+            products.add(productRepository.save(p).getId());
+        }
+        long[] nextId = {1_000_000_000L};
+        int oldest = HISTORY_DAYS[HISTORY_DAYS.length - 1];
+        for (LocalDate chunk = TODAY.minusDays(oldest); chunk.isBefore(TODAY); chunk = chunk.plusDays(CHUNK_DAYS)) {
+            LocalDate end = chunk.plusDays(CHUNK_DAYS).isBefore(TODAY) ? chunk.plusDays(CHUNK_DAYS) : TODAY;
+            for (int k = 0; k < HISTORY_DAYS.length; k++) {
+                Long productId = products.get(k);
+                LocalDate first = TODAY.minusDays(HISTORY_DAYS[k]);
+                long net = 0;
+                for (LocalDate day = chunk.isBefore(first) ? first : chunk; day.isBefore(end); day = day.plusDays(1)) {
+                    List<Object[]> rows = new ArrayList<>(ROWS_PER_DAY);
+                    for (int i = 0; i < ROWS_PER_DAY; i++) {
+                        // Two units in, one out: the level only grows
+                        boolean in = i % 2 == 0;
+                        LocalDateTime at = day.atStartOfDay().plusSeconds((long) i * 86_400 / ROWS_PER_DAY);
+                        rows.add(new Object[]{nextId[0]++, productId, in ? "IN" : "OUT", in ? 2 : 1, Timestamp.valueOf(at)});
+                        net += in ? 2 : -1;
+                    }
+                    jdbc.batchUpdate("INSERT INTO inventory_logs (id, product_id, type, quantity, created_at) VALUES (?, ?, ?, ?, ?)", rows);
+                }
+                jdbc.update("UPDATE products SET quantity = quantity + ? WHERE id = ?", net, productId);
+            }
+            snapshots(ctx, end).snapshot();
+        }
+        return products;
+    }
+
+    private static long count(JdbcTemplate jdbc, Long productId, LocalDateTime from, LocalDateTime to) {
+        return jdbc.queryForObject(COUNT, Long.class, productId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    private static StockSnapshots snapshots(ConfigurableApplicationContext ctx, LocalDate today) {
+        Clock clock = Clock.fixed(today.atTime(LocalTime.of(2, 0)).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        return new StockSnapshots(ctx.getBean(StockSnapshotRepository.class), ctx.getBean(ProductRepository.class),
+                ctx.getBean(MovementHistory.class), ctx.getBean(LogWriteBehind.class), ctx.getBean(TransactionTemplate.class),
+                CHUNK_DAYS, clock);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CicdBackendApplication.class).run(
+                "--server.port=0",
+                "--inventory.auth.token-secret=history-bench-secret-history-bench-secret",
+                "--spring.datasource.url=jdbc:h2:mem:history_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN");
+    }
+}
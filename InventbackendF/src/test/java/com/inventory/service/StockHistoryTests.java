@@ -0,0 +1,206 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockAt;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.model.StockSnapshot;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockHistoryTests {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private StockHistory stockHistory;
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private MovementHistory movementHistory;
+    @Autowired
+    private LogWriteBehind logWriteBehind;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<InventoryLog> logs = new ArrayList<>();
+    private Product product;
+    private Product idle;
+
+    @BeforeEach
+    void seed() {
+        clean();
+        product = product("Busy", 0);
+        idle = product("Idle", 7);
+        // Movements on some of the last 60 days and earlier today; transfers never change the total
+        Random random = new Random(21);
+        int quantity = 500;
+        for (int i = 0; i < 300; i++) {
+            LocalDate day = TODAY.minusDays(random.nextInt(61));
+            if (random.nextInt(4) == 0) continue;
+            LocalTime time = day.equals(TODAY) ? LocalTime.of(0, random.nextInt(60)) : LocalTime.ofSecondOfDay(random.nextInt(86_400));
+            String type = random.nextInt(10) == 0 ? "TRANSFER_OUT" : random.nextBoolean() ? "IN" : "OUT";
+            logs.add(log(type, 1 + random.nextInt(20), day.atTime(time)));
+        }
+        logs.add(log("IN", 500, TODAY.minusDays(61).atStartOfDay()));
+        logRepository.saveAll(logs);
+        product.setQuantity(quantity + (int) naiveNet(LocalDateTime.MIN));
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void clean() {
+        snapshotRepository.deleteAll();
+        logRepository.deleteAll();
+        productRepository.deleteAll();
+        logs.clear();
+    }
+
+    @Test
+    void snapshotsAreSparseAndTakenOnce() {
+        StockSnapshots snapshots = snapshots(60);
+
+        assertTrue(snapshots.snapshot() > 0);
+        assertEquals(TODAY.minusDays(1), snapshotRepository.findLatestDay());
+        assertEquals(0, snapshots.snapshot());
+
+        List<StockSnapshot> busy = snapshotRepository.findAll().stream()
+                .filter(s -> s.getProductId().equals(product.getId())).toList();
+        long movedDays = logs.stream().filter(l -> !"TRANSFER_OUT".equals(l.getType()))
+                .map(l -> l.getCreatedAt().toLocalDate())
+                .filter(d -> !d.isBefore(TODAY.minusDays(60)) && d.isBefore(TODAY)).distinct().count();
+        assertTrue(busy.size() <= movedDays + 1, busy.size() + " rows for " + movedDays + " days with movements");
+        for (StockSnapshot s : busy) {
+            assertEquals(naiveAt(s.getDay().plusDays(1).atStartOfDay()), s.getQuantity(), "close of " + s.getDay());
+        }
+        // A product that never moves gets a single row carrying its quantity
+        List<StockSnapshot> quiet = snapshotRepository.findAll().stream()
+                .filter(s -> s.getProductId().equals(idle.getId())).toList();
+        assertEquals(1, quiet.size());
+        assertEquals(7, quiet.get(0).getQuantity());
+    }
+
+    @Test
+    void asOfMatchesAFullReplay() {
+        // Instants before the snapshots start are answered backwards from the earliest one
+        snapshots(20).snapshot();
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime at = TODAY.minusDays(62).atStartOfDay().plusMinutes(random.nextInt(62 * 24 * 60 + 30));
+            assertEquals(naiveAt(at), stockHistory.asOf(product.getId(), at).quantity(), "as of " + at);
+        }
+        assertEquals(product.getQuantity(), stockHistory.asOf(product.getId(), TODAY.plusDays(1).atStartOfDay()).quantity());
+        assertEquals(7, stockHistory.asOf(idle.getId(), TODAY.minusDays(40).atStartOfDay()).quantity());
+        assertThrows(RuntimeException.class, () -> stockHistory.asOf(999_999L, TODAY.atStartOfDay()));
+    }
+
+    @Test
+    void asOfWithoutSnapshotsReplaysFromTheCurrentQuantity() {
+        LocalDateTime at = TODAY.minusDays(30).atTime(LocalTime.NOON);
+        assertEquals(naiveAt(at), stockHistory.asOf(product.getId(), at).quantity());
+    }
+
+    @Test
+    void seriesFollowsTheReplayAtEveryResolution() {
+        snapshots(60).snapshot();
+        for (String resolution : List.of("HOUR", "DAY", "WEEK")) {
+            LocalDateTime from = TODAY.minusDays("HOUR".equals(resolution) ? 3 : 58).atTime(9, 30);
+            List<StockAt> series = stockHistory.series(product.getId(), from, TODAY.atTime(1, 0), resolution);
+            assertFalse(series.isEmpty());
+            assertEquals("HOUR".equals(resolution) ? from.withMinute(0) : from.toLocalDate().atStartOfDay(), series.get(0).at());
+            for (StockAt point : series) {
+                assertEquals(naiveAt(point.at()), point.quantity(), resolution + " at " + point.at());
+            }
+        }
+        assertEquals(65, stockHistory.series(product.getId(), TODAY.minusDays(3).atTime(9, 30), TODAY.atTime(1, 0), "hour").size());
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> stockHistory.series(product.getId(), TODAY.minusDays(60).atStartOfDay(), TODAY.atStartOfDay(), "HOUR"));
+        assertEquals("Series is limited to " + StockHistory.MAX_POINTS + " points per request", e.getMessage());
+        assertThrows(RuntimeException.class, () -> stockHistory.series(product.getId(), TODAY.atStartOfDay(), null, "MONTH"));
+        assertThrows(RuntimeException.class,
+                () -> stockHistory.series(product.getId(), TODAY.atStartOfDay(), TODAY.minusDays(1).atStartOfDay(), "DAY"));
+    }
+
+    @Test
+    void seriesSpanningYearsReadsTheDailyHistoryInWindows() {
+        // A movement a month apart over three years, before the recent ones
+        List<InventoryLog> older = new ArrayList<>();
+        for (int month = 1; month <= 36; month++) {
+            older.add(log(month % 3 == 0 ? "OUT" : "IN", month, TODAY.minusDays(62).minusMonths(month).atTime(12, 0)));
+        }
+        logRepository.saveAll(older);
+        logs.addAll(older);
+        product.setQuantity(product.getQuantity() + (int) older.stream()
+                .mapToLong(l -> "IN".equals(l.getType()) ? l.getQuantity() : -l.getQuantity()).sum());
+        product = productRepository.save(product);
+        snapshots(60).snapshot();
+
+        LocalDateTime from = TODAY.minusYears(3).minusMonths(4).atStartOfDay();
+        List<StockAt> weekly = stockHistory.series(product.getId(), from, TODAY.atTime(1, 0), "WEEK");
+        assertTrue(weekly.size() > 52 * 3, weekly.size() + " points");
+        for (StockAt point : weekly) {
+            assertEquals(naiveAt(point.at()), point.quantity(), "WEEK at " + point.at());
+        }
+        List<StockAt> daily = stockHistory.series(product.getId(), TODAY.minusDays(StockHistory.MAX_POINTS - 1).atStartOfDay(),
+                TODAY.atTime(1, 0), "DAY");
+        assertEquals(StockHistory.MAX_POINTS, daily.size());
+        for (StockAt point : daily) {
+            assertEquals(naiveAt(point.at()), point.quantity(), "DAY at " + point.at());
+        }
+    }
+
+    private long naiveNet(LocalDateTime since) {
+        return logs.stream().filter(l -> !l.getCreatedAt().isBefore(since))
+                .mapToLong(l -> "IN".equals(l.getType()) ? l.getQuantity() : "OUT".equals(l.getType()) ? -l.getQuantity() : 0)
+                .sum();
+    }
+
+    // The current total minus everything moved at or after the instant
+    private int naiveAt(LocalDateTime at) {
+        return product.getQuantity() - (int) naiveNet(at);
+    }
+
+    private Product product(String name, int quantity) {
+        Product p = new Product();
+        p.setName(name);
+        p.setQuantity(quantity);
+        return productRepository.save(p);
+    }
+
+    private InventoryLog log(String type, int quantity, LocalDateTime at) {
+        InventoryLog log = new InventoryLog();
+        log.setProduct(product);
+        log.setType(type);
+        log.setQuantity(quantity);
+        log.setCreatedAt(at);
+        return log;
+    }
+
+    private StockSnapshots snapshots(int backfillDays) {
+        Clock clock = Clock.fixed(TODAY.atTime(LocalTime.of(2, 0)).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        return new StockSnapshots(snapshotRepository, productRepository, movementHistory, logWriteBehind,
+                transactionTemplate, backfillDays, clock);
+    }
+}
@@ -0,0 +1,56 @@
+package com.inventory.service;
+
+import com.inventory.model.Role;
+import com.inventory.model.User;
+import com.inventory.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserServiceTests {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void reset() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void storesHashesNotPasswords() {
+        User user = userService.register("Asha", "asha@example.com", "secret", Role.STAFF);
+        assertNotEquals("secret", userRepository.findById(user.getId()).orElseThrow().getPassword());
+        assertTrue(userService.authenticate("asha@example.com", "secret").isPresent());
+        assertTrue(userService.authenticate("asha@example.com", "wrong").isEmpty());
+        assertTrue(userService.authenticate("nobody@example.com", "secret").isEmpty());
+    }
+
+    @Test
+    void legacyPlaintextIsRehashedOnLogin() {
+        User legacy = new User();
+        legacy.setName("Old");
+        legacy.setEmail("old@example.com");
+        legacy.setPassword("secret");
+        legacy = userRepository.save(legacy);
+
+        assertTrue(userService.authenticate("old@example.com", "secret").isPresent());
+        String stored = userRepository.findById(legacy.getId()).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2"));
+        assertTrue(userService.authenticate("old@example.com", "secret").isPresent());
+    }
+
+    @Test
+    void duplicateEmailIsRejectedByTheConstraint() {
+        userService.register("Asha", "asha@example.com", "secret", Role.STAFF);
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> userService.register("Other", "asha@example.com", "other", Role.ADMIN));
+        assertEquals("Email already registered", e.getMessage());
+        assertEquals(1, userRepository.count());
+    }
+}
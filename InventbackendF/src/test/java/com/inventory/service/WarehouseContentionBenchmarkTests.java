@@ -0,0 +1,99 @@
+package com.inventory.service;
+
+import com.inventory.CicdBackendApplication;
+import com.inventory.benchmark.LatencyInjection;
+import com.inventory.dto.StockLevelView;
+import com.inventory.model.Product;
+import com.inventory.model.Warehouse;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of {@code bench.threads} threads moving stock of a single SKU, spread over 1, 2, 4 and 8 warehouses,
+ * with {@code load.db-latency-ms} injected into every statement. Each thread sticks to one warehouse and alternates
+ * IN and OUT, so nothing is rejected. Run with {@code mvn test -Pbenchmark -Dtest=WarehouseContentionBenchmarkTests}.
+ */
+@Tag("benchmark")
+class WarehouseContentionBenchmarkTests {
+    private static final int THREADS = Integer.getInteger("bench.threads", 16);
+    private static final long MEASURE_MS = Long.getLong("bench.measure-ms", 10_000);
+
+    @Test
+    void throughputScalesWithWarehousesForOneSku() throws Exception {
+        try (ConfigurableApplicationContext ctx = start()) {
+            InventoryService inventoryService = ctx.getBean(InventoryService.class);
+            WarehouseService warehouseService = ctx.getBean(WarehouseService.class);
+            List<Long> warehouses = new ArrayList<>();
+            warehouses.add(warehouseService.defaultId());
+            for (int i = 1; i < 8; i++) {
+                Warehouse w = new Warehouse();
+                w.setCode("W" + i);
+                warehouses.add(warehouseService.save(w).getId());
+            }
+            Product p = new Product();
+            p.setName("Hot SKU");
+            Long productId = ctx.getBean(ProductService.class).save(p).getId();
+            for (Long w : warehouses) inventoryService.updateStock(productId, w, 1_000_000, "IN", null);
+
+            double single = 0;
+            double widest = 0;
+            for (int spread : new int[]{1, 2, 4, 8}) {
+                double opsPerSecond = run(inventoryService, productId, warehouses.subList(0, spread));
+                System.out.printf("%2d warehouse(s), %d threads: %7.1f movements/s, %d ms injected per statement%n",
+                        spread, THREADS, opsPerSecond, LatencyInjection.DB_LATENCY_MS);
+                if (spread == 1) single = opsPerSecond;
+                widest = opsPerSecond;
+            }
+            int levels = inventoryService.stockLevels(productId).stream().mapToInt(StockLevelView::quantity).sum();
+            assertEquals(ctx.getBean(ProductRepository.class).findById(productId).orElseThrow().getQuantity(), levels);
+            assertTrue(widest > single * 2, widest + " vs " + single + " movements/s");
+        }
+    }
+
+    private static double run(InventoryService inventoryService, Long productId, List<Long> warehouses) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger done = new AtomicInteger();
+        try {
+            long deadline = System.nanoTime() + MEASURE_MS * 1_000_000;
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Long warehouse = warehouses.get(t % warehouses.size());
+                workers.add(pool.submit(() -> {
+                    boolean in = ThreadLocalRandom.current().nextBoolean();
+                    while (System.nanoTime() < deadline) {
+                        inventoryService.updateStock(productId, warehouse, 1, in ? "IN" : "OUT", null);
+                        in = !in;
+                        done.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> w : workers) w.get();
+            return done.get() * 1000.0 / MEASURE_MS;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CicdBackendApplication.class, LatencyInjection.class).run(
+                "--server.port=0",
+                "--inventory.auth.token-secret=warehouse-bench-secret-warehouse-bench",
+                "--spring.datasource.url=jdbc:h2:mem:warehouse_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN");
+    }
+}
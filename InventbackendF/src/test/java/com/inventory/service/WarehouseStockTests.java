@@ -0,0 +1,211 @@
+package com.inventory.service;
+
+import com.inventory.dto.BatchResult;
+import com.inventory.dto.StockLevelView;
+import com.inventory.dto.StockMovement;
+import com.inventory.model.InventoryLog;
+import com.inventory.model.Product;
+import com.inventory.model.Warehouse;
+import com.inventory.repository.InventoryLogRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockLevelRepository;
+import com.inventory.repository.WarehouseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class WarehouseStockTests {
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private ReportingAggregates reportingAggregates;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryLogRepository logRepository;
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    private Long productId;
+    private Long main;
+    private Long east;
+    private Long west;
+
+    @BeforeEach
+    void seed() {
+        logRepository.deleteAll();
+        stockLevelRepository.deleteAll();
+        productRepository.deleteAll();
+        Product p = new Product();
+        p.setName("Pallet jack");
+        p.setQuantity(100);
+        productId = productService.save(p).getId();
+        main = warehouseService.defaultId();
+        east = warehouse("EAST");
+        west = warehouse("WEST");
+    }
+
+    @Test
+    void movementsWithoutWarehouseUseTheDefault() {
+        assertEquals(Map.of(main, 100), levels());
+
+        InventoryLog log = inventoryService.updateStock(productId, 10, "OUT", null);
+
+        assertEquals(main, log.getWarehouseId());
+        assertEquals(90, log.getProduct().getQuantity());
+        assertEquals(Map.of(main, 90), levels());
+    }
+
+    @Test
+    void movementsAreHeldPerLocation() {
+        inventoryService.updateStock(productId, east, 30, "IN", null);
+        inventoryService.updateStock(productId, east, 5, "OUT", null);
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> inventoryService.updateStock(productId, west, 1, "OUT", null));
+        assertEquals("Insufficient stock", e.getMessage());
+        // Stock elsewhere does not cover an OUT here
+        e = assertThrows(RuntimeException.class, () -> inventoryService.updateStock(productId, east, 26, "OUT", null));
+        assertEquals("Insufficient stock", e.getMessage());
+
+        assertEquals(Map.of(main, 100, east, 25), levels());
+        assertEquals(125, total());
+        assertThrows(RuntimeException.class, () -> inventoryService.updateStock(productId, 999_999L, 1, "IN", null));
+    }
+
+    @Test
+    void transferIsAtomicAndKeepsTheTotal() {
+        List<InventoryLog> moved = inventoryService.transfer(productId, null, east, 40, "rebalance");
+
+        assertEquals(List.of("TRANSFER_OUT", "TRANSFER_IN"), moved.stream().map(InventoryLog::getType).toList());
+        assertEquals(Map.of(main, 60, east, 40), levels());
+        assertEquals(100, total());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> inventoryService.transfer(productId, east, west, 50, null));
+        assertEquals("Insufficient stock", e.getMessage());
+        assertEquals(Map.of(main, 60, east, 40), levels());
+        assertEquals(2, logRepository.count());
+        assertThrows(RuntimeException.class, () -> inventoryService.transfer(productId, east, east, 1, null));
+
+        // Transfers are neither IN nor OUT volume
+        assertArrayEquals(new long[2], reportingAggregates.volumes(productId));
+    }
+
+    @Test
+    void batchItemsMoveTheirOwnLocation() {
+        BatchResult result = inventoryService.updateStockBatch(List.of(
+                new StockMovement(productId, 20, "IN", null, east),
+                new StockMovement(productId, 15, "OUT", null, east),
+                new StockMovement(productId, 10, "OUT", null, east),
+                new StockMovement(productId, 1, "OUT", null, 999_999L),
+                new StockMovement(productId, 30, "OUT", null)));
+
+        assertEquals(3, result.applied());
+        assertEquals(5, result.results().get(1).quantityAfter());
+        assertEquals("Insufficient stock", result.results().get(2).message());
+        assertEquals("Warehouse not found", result.results().get(3).message());
+        assertEquals(70, result.results().get(4).quantityAfter());
+        assertEquals(Map.of(main, 70, east, 5), levels());
+        assertEquals(75, total());
+    }
+
+    @Test
+    void productEditsLandOnTheDefaultWarehouse() {
+        inventoryService.transfer(productId, null, east, 80, null);
+        Product edit = productRepository.findById(productId).orElseThrow();
+        edit.setQuantity(150);
+        edit.setVersion(null);
+        productService.save(edit);
+        assertEquals(Map.of(main, 70, east, 80), levels());
+
+        // Lowering the total below what other warehouses hold is refused
+        Product tooLow = productRepository.findById(productId).orElseThrow();
+        tooLow.setQuantity(50);
+        tooLow.setVersion(null);
+        assertThrows(RuntimeException.class, () -> productService.save(tooLow));
+        assertEquals(150, total());
+
+        // Logs still reference the product
+        logRepository.deleteAll();
+        productService.delete(productId);
+        assertTrue(stockLevelRepository.findByProductIdOrderByWarehouseId(productId).isEmpty());
+    }
+
+    @Test
+    void concurrentMovementsKeepTotalEqualToLevels() throws Exception {
+        reportingAggregates.reconcile();
+        List<Long> places = List.of(main, east, west);
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 1500; i++) {
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Long from = places.get(random.nextInt(places.size()));
+                    Long to = places.get(random.nextInt(places.size()));
+                    int qty = random.nextInt(1, 10);
+                    try {
+                        switch (random.nextInt(3)) {
+                            case 0 -> inventoryService.updateStock(productId, from, qty, "IN", null);
+                            case 1 -> inventoryService.updateStock(productId, from, qty, "OUT", null);
+                            default -> {
+                                if (!from.equals(to)) inventoryService.transfer(productId, from, to, qty, null);
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        assertEquals("Insufficient stock", e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<Long, Integer> levels = levels();
+        assertTrue(levels.values().stream().allMatch(q -> q >= 0), levels::toString);
+        assertEquals(total(), levels.values().stream().mapToInt(Integer::intValue).sum());
+        // Running totals follow the newest product version, whatever order movements published in
+        assertEquals(reportingAggregates.report(reportingAggregates.load()).get("totalUnits"),
+                reportingAggregates.snapshot().get("totalUnits"));
+    }
+
+    private Map<Long, Integer> levels() {
+        Map<Long, Integer> levels = new TreeMap<>();
+        for (StockLevelView l : inventoryService.stockLevels(productId)) {
+            if (l.quantity() != 0 || l.warehouseId().equals(main)) levels.put(l.warehouseId(), l.quantity());
+        }
+        return levels;
+    }
+
+    private int total() {
+        return productRepository.findById(productId).orElseThrow().getQuantity();
+    }
+
+    private Long warehouse(String code) {
+        return warehouseRepository.findByCode(code).map(Warehouse::getId).orElseGet(() -> {
+            Warehouse w = new Warehouse();
+            w.setCode(code);
+            w.setName(code + " depot");
+            return warehouseService.save(w).getId();
+        });
+    }
+}
@@ -24,6 +24,21 @@ const Dashboard = () => {
     fetchDashboardData();
   }, []);
 
+  // Low-stock alerts are pushed by the server when a product crosses its reorder level
+  useEffect(() => {
+    return productService.subscribeLowStock(refreshLowStock);
+  }, []);
+
+  const refreshLowStock = async () => {
+    try {
+      const lowStock = await productService.getLowStockProducts();
+      setStats((prev) => ({ ...prev, lowStockProducts: lowStock.length }));
+      setLowStockProducts(lowStock.slice(0, 5));
+    } catch (error) {
+      console.error('Error refreshing low stock alerts:', error);
+    }
+  };
+
   const fetchDashboardData = async () => {
     try {
       setLoading(true);
@@ -56,33 +56,39 @@ const Login = () => {
     setError('');
   };
 
+  // 'created', 'exists' (email already registered) or 'refused' (403); throws when the backend is unreachable
+  const registerDemoUser = async (user) => {
+    try {
+      await authService.register(user);
+      return 'created';
+    } catch (e) {
+      if (!e.response) throw e;
+      return e.response.status === 403 ? 'refused' : 'exists';
+    }
+  };
+
   const createDemoUsers = async () => {
     try {
       setLoading(true);
       setError('');
-      // Try to register Admin
-      try {
-        await authService.register({
-          name: 'Admin',
-          email: 'admin@inventory.com',
-          password: 'admin123',
-          role: 'ADMIN'
-        });
-      } catch (e) {
-        // ignore if already exists
-      }
-      // Try to register Staff
-      try {
-        await authService.register({
-          name: 'Staff',
-          email: 'staff@inventory.com',
-          password: 'staff123',
-          role: 'STAFF'
-        });
-      } catch (e) {
-        // ignore if already exists
+      // The backend only lets anyone register an admin while the deployment has none
+      const admin = await registerDemoUser({
+        name: 'Admin',
+        email: 'admin@inventory.com',
+        password: 'admin123',
+        role: 'ADMIN'
+      });
+      await registerDemoUser({
+        name: 'Staff',
+        email: 'staff@inventory.com',
+        password: 'staff123',
+        role: 'STAFF'
+      });
+      if (admin === 'refused') {
+        setError('Demo staff user is ready. An admin already exists, so the demo admin was not created; sign in with that admin\'s credentials instead of Admin Login.');
+      } else {
+        setError('Demo users are ready. Use the buttons below to autofill credentials.');
       }
-      setError('Demo users are ready. Use the buttons below to autofill credentials.');
     } catch (err) {
       setError('Could not create demo users. Please check backend.');
     } finally {
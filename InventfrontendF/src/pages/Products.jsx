@@ -2,6 +2,7 @@ import React, { useEffect, useMemo, useState } from 'react';
 import { productService } from '../services/productService';
 
 const initialForm = {
+  sku: '',
   name: '',
   description: '',
   category: '',
@@ -47,6 +48,7 @@ const Products = () => {
       // Map supplierId to supplier object as expected by backend
       const payload = {
         ...form,
+        sku: form.sku.trim() || null,
         supplier: form.supplierId ? { id: Number(form.supplierId) } : null,
       };
 
@@ -66,6 +68,7 @@ const Products = () => {
   const onEdit = (p) => {
     setEditingId(p.id);
     setForm({
+      sku: p.sku || '',
       name: p.name,
       description: p.description || '',
       category: p.category || '',
@@ -120,6 +123,10 @@ const Products = () => {
               <h3 className="card-title">{editingId ? 'Edit Product' : 'Add Product'}</h3>
             </div>
             <form onSubmit={onSubmit}>
+              <div className="form-group">
+                <label className="form-label">SKU</label>
+                <input name="sku" className="form-control" value={form.sku} onChange={onChange} />
+              </div>
               <div className="form-group">
                 <label className="form-label">Name</label>
                 <input name="name" className="form-control" value={form.name} onChange={onChange} />
@@ -1,4 +1,5 @@
 import React, { useEffect, useState } from 'react';
+import api from '../services/api';
 import { inventoryService } from '../services/inventoryService';
 
 const Reports = () => {
@@ -22,9 +23,19 @@ const Reports = () => {
     }
   };
 
-  const exportCSV = () => {
-    // Use relative path so the CRA proxy routes to backend (port 7090)
-    window.location.href = '/api/inventory/reports/export/csv';
+  const exportCSV = async () => {
+    // Fetched through the API client so the bearer token is sent, then handed to the browser as a download
+    try {
+      const response = await api.get('/inventory/reports/export/csv', { responseType: 'blob' });
+      const url = URL.createObjectURL(response.data);
+      const link = document.createElement('a');
+      link.href = url;
+      link.download = 'inventory_logs.csv';
+      link.click();
+      URL.revokeObjectURL(url);
+    } catch (e) {
+      setError('Failed to export CSV');
+    }
   };
 
   return (
@@ -3,18 +3,37 @@ import axios from 'axios';
 // Use relative base URL so React proxy forwards to the backend (set in package.json)
 const API_BASE_URL = '/api';
 
+const ACCESS_KEY = 'accessToken';
+const REFRESH_KEY = 'refreshToken';
+
+export const tokenStore = {
+  get access() { return localStorage.getItem(ACCESS_KEY); },
+  get refresh() { return localStorage.getItem(REFRESH_KEY); },
+  set({ accessToken, refreshToken }) {
+    localStorage.setItem(ACCESS_KEY, accessToken);
+    localStorage.setItem(REFRESH_KEY, refreshToken);
+  },
+  clear() {
+    localStorage.removeItem(ACCESS_KEY);
+    localStorage.removeItem(REFRESH_KEY);
+  },
+};
+
 // Create axios instance with default config
 const api = axios.create({
   baseURL: API_BASE_URL,
-  withCredentials: true, // Important for session-based auth
   headers: {
     'Content-Type': 'application/json',
   },
 });
 
-// Request interceptor
+// Request interceptor: attach the short-lived access token
 api.interceptors.request.use(
   (config) => {
+    const token = tokenStore.access;
+    if (token) {
+      config.headers.Authorization = `Bearer ${token}`;
+    }
     return config;
   },
   (error) => {
@@ -22,12 +41,36 @@ api.interceptors.request.use(
   }
 );
 
-// Response interceptor
+// Concurrent 401s share a single refresh call
+let refreshing = null;
+
+export const refreshTokens = () => {
+  if (!refreshing) {
+    refreshing = axios
+      .post(`${API_BASE_URL}/auth/refresh`, { refreshToken: tokenStore.refresh })
+      .then((response) => tokenStore.set(response.data))
+      .finally(() => { refreshing = null; });
+  }
+  return refreshing;
+};
+
+// Response interceptor: on 401 refresh once and replay the request
 api.interceptors.response.use(
   (response) => {
     return response;
   },
-  (error) => {
+  async (error) => {
+    const original = error.config;
+    if (error.response?.status === 401 && original && !original._retried && tokenStore.refresh
+        && !original.url?.startsWith('/auth/')) {
+      original._retried = true;
+      try {
+        await refreshTokens();
+        return api(original);
+      } catch (refreshError) {
+        tokenStore.clear();
+      }
+    }
     if (error.response?.status === 401) {
       // Do not redirect here; App routing will show Login when unauthenticated.
       // This avoids any accidental reload/redirect loops.
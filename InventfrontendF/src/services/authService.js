@@ -1,13 +1,17 @@
-import api from './api';
+import api, { tokenStore } from './api';
 
 export const authService = {
   login: async (email, password) => {
     const response = await api.post('/auth/login', { email, password });
-    return response.data;
+    const { accessToken, refreshToken, expiresIn, ...user } = response.data;
+    tokenStore.set({ accessToken, refreshToken });
+    return user;
   },
 
   logout: async () => {
-    const response = await api.post('/auth/logout');
+    const refreshToken = tokenStore.refresh;
+    tokenStore.clear();
+    const response = await api.post('/auth/logout', { refreshToken });
     return response.data;
   },
 
@@ -1,8 +1,13 @@
 import api from './api';
 
 export const inventoryService = {
-  getAllLogs: async () => {
-    const response = await api.get('/inventory/logs');
+  getAllLogs: async (params = {}) => {
+    const response = await api.get('/inventory/logs', { params });
+    return response.data.items;
+  },
+
+  getLogPage: async (params = {}) => {
+    const response = await api.get('/inventory/logs', { params });
     return response.data;
   },
 
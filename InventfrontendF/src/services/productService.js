@@ -1,4 +1,6 @@
-import api from './api';
+import api, { refreshTokens, tokenStore } from './api';
+
+const RECONNECT_DELAY_MS = 5000;
 
 export const productService = {
   getAllProducts: async () => {
@@ -34,5 +36,53 @@ export const productService = {
   searchProducts: async (searchTerm) => {
     const response = await api.get(`/products/search?q=${encodeURIComponent(searchTerm)}`);
     return response.data;
+  },
+
+  // Streams low-stock threshold crossings (Server-Sent Events). EventSource cannot send the bearer token,
+  // so the stream is read with fetch. Reconnects after errors and timeouts; returns an unsubscribe function.
+  subscribeLowStock: (onEvent) => {
+    let controller = null;
+    let closed = false;
+
+    const connect = async () => {
+      controller = new AbortController();
+      try {
+        const response = await fetch('/api/products/low-stock/stream', {
+          headers: { Accept: 'text/event-stream', Authorization: `Bearer ${tokenStore.access}` },
+          signal: controller.signal,
+        });
+        if (response.status === 401 && tokenStore.refresh) {
+          // Renew the access token before the next attempt
+          await refreshTokens().catch(() => tokenStore.clear());
+        }
+        if (!response.ok) throw new Error(`Stream failed: ${response.status}`);
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += decoder.decode(value, { stream: true });
+          let end;
+          while ((end = buffer.indexOf('\n\n')) >= 0) {
+            const frame = buffer.slice(0, end);
+            buffer = buffer.slice(end + 2);
+            const data = frame.split('\n').filter((line) => line.startsWith('data:'))
+              .map((line) => line.slice(5)).join('\n');
+            if (data) onEvent(JSON.parse(data));
+          }
+        }
+      } catch (error) {
+        if (closed) return;
+      }
+      if (!closed) setTimeout(connect, RECONNECT_DELAY_MS);
+    };
+
+    connect();
+    return () => {
+      closed = true;
+      controller?.abort();
+    };
   }
 };